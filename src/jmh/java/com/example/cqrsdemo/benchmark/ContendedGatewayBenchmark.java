@@ -0,0 +1,10 @@
+package com.example.cqrsdemo.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Mesmas medições de {@link GatewayBenchmark}, com uma thread por núcleo disputando o gateway
+ */
+@Threads(Threads.MAX)
+public class ContendedGatewayBenchmark extends GatewayBenchmark {
+}
@@ -0,0 +1,147 @@
+package com.example.cqrsdemo.benchmark;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.command.handler.ProductCommandHandler;
+import com.example.cqrsdemo.domain.id.TimeOrderedProductIdGenerator;
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.event.bus.SyncProductEventPublisher;
+import com.example.cqrsdemo.gateway.CqrsApiGateway;
+import com.example.cqrsdemo.gateway.bus.MessageBus;
+import com.example.cqrsdemo.metrics.MetricsInterceptor;
+import com.example.cqrsdemo.query.api.GetAllProductsQuery;
+import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.api.SearchProductsQuery;
+import com.example.cqrsdemo.query.handler.ProductQueryHandler;
+import com.example.cqrsdemo.query.projection.ProductReadModel;
+import com.example.cqrsdemo.query.projection.ProductSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão e latência de sendCommand/sendQuery em uma única thread.
+ * {@link ContendedGatewayBenchmark} repete as mesmas medições com várias threads.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class GatewayBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Gateway {
+
+        @Param("10000")
+        public int catalogSize;
+
+        CqrsApiGateway gateway;
+        String[] ids;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // As medições incluem o custo da instrumentação, como em produção
+            MeterRegistry meterRegistry = new SimpleMeterRegistry();
+            InMemoryProductRepository repository = new InMemoryProductRepository();
+            ProductReadModel readModel = new ProductReadModel(repository, event -> { }, 1);
+            ProductSearchIndex searchIndex = new ProductSearchIndex(readModel);
+            // Entrega síncrona direto na projeção, sem o multicaster do Spring
+            SyncProductEventPublisher publisher = new SyncProductEventPublisher(event -> {
+                if (event instanceof ProductCreatedEvent created) {
+                    readModel.on(created);
+                    searchIndex.on(created);
+                } else if (event instanceof ProductUpdatedEvent updated) {
+                    readModel.on(updated);
+                    searchIndex.on(updated);
+                } else if (event instanceof ProductDeletedEvent deleted) {
+                    readModel.on(deleted);
+                    searchIndex.on(deleted);
+                }
+            });
+            ProductCommandHandler commandHandler = new ProductCommandHandler(repository, publisher, null,
+                    new TimeOrderedProductIdGenerator(), meterRegistry);
+            StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+            beanFactory.addBean("productCommandHandler", commandHandler);
+            beanFactory.addBean("productQueryHandler", new ProductQueryHandler(readModel, searchIndex, null));
+            MessageBus messageBus = new MessageBus(beanFactory, List.of(new MetricsInterceptor(meterRegistry)));
+            messageBus.afterSingletonsInstantiated();
+            gateway = new CqrsApiGateway(messageBus, Executors.newVirtualThreadPerTaskExecutor(), Duration.ofSeconds(10));
+
+            ids = new String[catalogSize];
+            for (int i = 0; i < catalogSize; i++) {
+                ids[i] = gateway.sendCommand(createCommand(i));
+            }
+        }
+
+        String randomId() {
+            return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        }
+    }
+
+    @Benchmark
+    public String sendCreateProductCommand(Gateway state) {
+        return state.gateway.sendCommand(createCommand(ThreadLocalRandom.current().nextInt()));
+    }
+
+    @Benchmark
+    public void sendUpdateProductCommand(Gateway state) {
+        UpdateProductCommand command = new UpdateProductCommand();
+        command.setId(state.randomId());
+        command.setName("Updated Product");
+        command.setDescription("Updated description");
+        command.setPrice(ThreadLocalRandom.current().nextDouble(1, 1000));
+        command.setQuantity(ThreadLocalRandom.current().nextInt(100));
+        state.gateway.sendCommand(command);
+    }
+
+    @Benchmark
+    public Product sendGetProductQuery(Gateway state) {
+        return state.gateway.sendQuery(new GetProductQuery(state.randomId()));
+    }
+
+    // Dois termos, o segundo por prefixo: "product 4" casa cerca de 11% do catálogo
+    @Benchmark
+    public List<Product> sendSearchProductsQuery(Gateway state) {
+        int prefix = 1 + ThreadLocalRandom.current().nextInt(9);
+        return state.gateway.sendQuery(new SearchProductsQuery("product " + prefix, 20));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Product> sendGetAllProductsQuery(Gateway state) {
+        return state.gateway.sendQuery(new GetAllProductsQuery());
+    }
+
+    static CreateProductCommand createCommand(int seed) {
+        CreateProductCommand command = new CreateProductCommand();
+        command.setName("Product " + seed);
+        command.setDescription("Benchmark product " + seed);
+        command.setPrice(1 + Math.abs(seed % 1000));
+        command.setQuantity(Math.abs(seed % 100));
+        return command;
+    }
+}
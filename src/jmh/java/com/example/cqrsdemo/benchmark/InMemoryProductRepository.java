@@ -0,0 +1,241 @@
+package com.example.cqrsdemo.benchmark;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Substituto em memória do repositório JPA, para medir gateway e handlers sem banco.
+ * Implementa apenas as operações usadas pelos handlers; as demais não são suportadas.
+ */
+class InMemoryProductRepository implements ProductRepository {
+
+    private final ConcurrentMap<String, Product> products = new ConcurrentHashMap<>();
+
+    @Override
+    public <S extends Product> S save(S entity) {
+        if (entity.getVersion() == null) {
+            entity.setVersion(0L);
+        }
+        products.put(entity.getId(), entity);
+        return entity;
+    }
+
+    @Override
+    public int updateById(String id, String name, String description, double price, int quantity) {
+        return products.computeIfPresent(id, (key, current) -> update(current, name, description, price, quantity)) == null ? 0 : 1;
+    }
+
+    @Override
+    public int updateByIdAndVersion(String id, String name, String description, double price, int quantity, long version) {
+        int[] updated = new int[1];
+        products.computeIfPresent(id, (key, current) -> {
+            if (current.getVersion() != version) {
+                return current;
+            }
+            updated[0] = 1;
+            return update(current, name, description, price, quantity);
+        });
+        return updated[0];
+    }
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        return Optional.ofNullable(products.get(id)).map(Product::getVersion);
+    }
+
+    // Atômica como a do banco: a versão devolvida é a gravada por esta atualização
+    @Override
+    public Optional<Long> updateAndGetVersion(String id, String name, String description, double price, int quantity) {
+        Long[] version = new Long[1];
+        products.computeIfPresent(id, (key, current) -> {
+            Product updated = update(current, name, description, price, quantity);
+            version[0] = updated.getVersion();
+            return updated;
+        });
+        return Optional.ofNullable(version[0]);
+    }
+
+    @Override
+    public int deleteProductById(String id) {
+        return products.remove(id) == null ? 0 : 1;
+    }
+
+    @Override
+    public int deleteProductByIdAndVersion(String id, long version) {
+        Product current = products.get(id);
+        return current != null && current.getVersion() == version && products.remove(id, current) ? 1 : 0;
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        return Optional.ofNullable(products.get(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return products.containsKey(id);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return new ArrayList<>(products.values());
+    }
+
+    @Override
+    public long count() {
+        return products.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        products.remove(id);
+    }
+
+    @Override
+    public void delete(Product entity) {
+        products.remove(entity.getId());
+    }
+
+    @Override
+    public void deleteAll() {
+        products.clear();
+    }
+
+    private static Product update(Product current, String name, String description, double price, int quantity) {
+        current.setName(name);
+        current.setDescription(description);
+        current.setPrice(price);
+        current.setQuantity(quantity);
+        current.setVersion(current.getVersion() == null ? 1 : current.getVersion() + 1);
+        return current;
+    }
+
+    // Operações não usadas pelos handlers
+
+    @Override
+    public <S extends Product> List<S> saveAll(Iterable<S> entities) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<String> ids) {
+        throw unsupported();
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        throw unsupported();
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Product> entities) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Product> findAll(Sort sort) {
+        throw unsupported();
+    }
+
+    @Override
+    public Page<Product> findAll(Pageable pageable) {
+        throw unsupported();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public <S extends Product> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends Product> List<S> saveAllAndFlush(Iterable<S> entities) {
+        throw unsupported();
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Product> entities) {
+        throw unsupported();
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<String> ids) {
+        throw unsupported();
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        products.clear();
+    }
+
+    @Override
+    @Deprecated
+    public Product getOne(String id) {
+        throw unsupported();
+    }
+
+    @Override
+    @Deprecated
+    public Product getById(String id) {
+        throw unsupported();
+    }
+
+    @Override
+    public Product getReferenceById(String id) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends Product> Optional<S> findOne(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends Product> List<S> findAll(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends Product> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends Product> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends Product> long count(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends Product> boolean exists(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends Product, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Not supported by the in-memory benchmark repository");
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.cqrsdemo.benchmark;
+
+import com.example.cqrsdemo.codec.ProductBinaryCodec;
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.domain.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da serialização JSON (Jackson) e binária ({@link ProductBinaryCodec}) do Product e
+ * dos comandos que cruzam a API REST
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectWriter productWriter;
+    private ObjectReader productReader;
+    private ObjectWriter createWriter;
+    private ObjectReader createReader;
+    private ObjectWriter updateWriter;
+    private ObjectReader updateReader;
+
+    private Product product;
+    private CreateProductCommand createCommand;
+    private UpdateProductCommand updateCommand;
+    private String productJson;
+    private String createJson;
+    private String updateJson;
+
+    // Buffers reutilizados entre chamadas, como no log de eventos
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(1024);
+    private ByteBuffer productBinary;
+    private ByteBuffer updateBinary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        productWriter = objectMapper.writerFor(Product.class);
+        productReader = objectMapper.readerFor(Product.class);
+        createWriter = objectMapper.writerFor(CreateProductCommand.class);
+        createReader = objectMapper.readerFor(CreateProductCommand.class);
+        updateWriter = objectMapper.writerFor(UpdateProductCommand.class);
+        updateReader = objectMapper.readerFor(UpdateProductCommand.class);
+
+        product = new Product();
+        product.setId("3f2b8c1e-7d4a-4e59-9b0f-2a6c1d8e5f70");
+        product.setName("Benchmark Product");
+        product.setDescription("A product used to measure JSON serialization cost");
+        product.setPrice(1999.99);
+        product.setQuantity(10);
+        product.setVersion(3L);
+
+        createCommand = GatewayBenchmark.createCommand(42);
+
+        updateCommand = new UpdateProductCommand();
+        updateCommand.setId(product.getId());
+        updateCommand.setName(product.getName());
+        updateCommand.setDescription(product.getDescription());
+        updateCommand.setPrice(product.getPrice());
+        updateCommand.setQuantity(product.getQuantity());
+
+        productJson = productWriter.writeValueAsString(product);
+        createJson = createWriter.writeValueAsString(createCommand);
+        updateJson = updateWriter.writeValueAsString(updateCommand);
+        productBinary = ByteBuffer.wrap(ProductBinaryCodec.encode(product));
+        updateBinary = ByteBuffer.wrap(ProductBinaryCodec.encode(updateCommand));
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return productWriter.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public Product deserializeProduct() throws JsonProcessingException {
+        return productReader.readValue(productJson);
+    }
+
+    @Benchmark
+    public byte[] serializeCreateProductCommand() throws JsonProcessingException {
+        return createWriter.writeValueAsBytes(createCommand);
+    }
+
+    @Benchmark
+    public CreateProductCommand deserializeCreateProductCommand() throws JsonProcessingException {
+        return createReader.readValue(createJson);
+    }
+
+    @Benchmark
+    public byte[] serializeUpdateProductCommand() throws JsonProcessingException {
+        return updateWriter.writeValueAsBytes(updateCommand);
+    }
+
+    @Benchmark
+    public UpdateProductCommand deserializeUpdateProductCommand() throws JsonProcessingException {
+        return updateReader.readValue(updateJson);
+    }
+
+    @Benchmark
+    public int encodeProductBinary() {
+        ProductBinaryCodec.encode(product, encodeBuffer.clear());
+        return encodeBuffer.position();
+    }
+
+    @Benchmark
+    public Object decodeProductBinary() {
+        return ProductBinaryCodec.decode(productBinary.clear());
+    }
+
+    @Benchmark
+    public int encodeUpdateProductCommandBinary() {
+        ProductBinaryCodec.encode(updateCommand, encodeBuffer.clear());
+        return encodeBuffer.position();
+    }
+
+    @Benchmark
+    public Object decodeUpdateProductCommandBinary() {
+        return ProductBinaryCodec.decode(updateBinary.clear());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.cqrsdemo.benchmark;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.query.projection.ProductReadModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projeção de eventos e leituras do {@link ProductReadModel} com uma thread por núcleo, com um shard e com
+ * um shard por núcleo ({@code shards=0}). O grupo "mixed" mede escritas e leituras por id disputando a visão.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ShardedReadModelBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ReadModel {
+
+        @Param({"1", "0"})
+        public int shards;
+
+        @Param("10000")
+        public int catalogSize;
+
+        ProductReadModel readModel;
+        String[] ids;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            readModel = new ProductReadModel(new InMemoryProductRepository(), event -> { }, shards);
+            ids = new String[catalogSize];
+            for (int i = 0; i < catalogSize; i++) {
+                ids[i] = "product-" + i;
+                readModel.on(new ProductCreatedEvent(product(ids[i])));
+            }
+        }
+
+        String randomId() {
+            return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        }
+    }
+
+    @Benchmark
+    public void applyUpdatedEvent(ReadModel state) {
+        state.readModel.on(new ProductUpdatedEvent(product(state.randomId())));
+    }
+
+    @Benchmark
+    public Optional<Product> findById(ReadModel state) {
+        return state.readModel.findById(state.randomId());
+    }
+
+    // Faixa de cerca de 1% do catálogo, consultada em todos os shards
+    @Benchmark
+    public List<Product> findByPriceBetween(ReadModel state) {
+        double min = ThreadLocalRandom.current().nextDouble(1, 990);
+        return state.readModel.findByPriceBetween(min, min + 10, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite(ReadModel state) {
+        state.readModel.on(new ProductUpdatedEvent(product(state.randomId())));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Optional<Product> mixedRead(ReadModel state) {
+        return state.readModel.findById(state.randomId());
+    }
+
+    private static Product product(String id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(ThreadLocalRandom.current().nextDouble(1, 1000));
+        product.setQuantity(ThreadLocalRandom.current().nextInt(100));
+        return product;
+    }
+}
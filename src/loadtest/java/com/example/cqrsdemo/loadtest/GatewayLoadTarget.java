@@ -0,0 +1,62 @@
+package com.example.cqrsdemo.loadtest;
+
+import com.example.cqrsdemo.CqrsDemoApplication;
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.gateway.CqrsApiGateway;
+import com.example.cqrsdemo.query.api.GetProductQuery;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Sobe a aplicação sem servidor web e envia as operações direto ao {@link CqrsApiGateway}.
+ * Propriedades {@code cqrs.*} passadas à JVM valem para a aplicação, como numa execução normal.
+ */
+final class GatewayLoadTarget implements LoadTarget {
+
+    private final ConfigurableApplicationContext context;
+    private final CqrsApiGateway gateway;
+
+    GatewayLoadTarget() {
+        this.context = new SpringApplicationBuilder(CqrsDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run();
+        this.gateway = context.getBean(CqrsApiGateway.class);
+    }
+
+    @Override
+    public String create(String name, double price, int quantity) {
+        CreateProductCommand command = new CreateProductCommand();
+        command.setName(name);
+        command.setPrice(price);
+        command.setQuantity(quantity);
+        return gateway.sendCommand(command);
+    }
+
+    @Override
+    public void read(String productId) {
+        gateway.sendQuery(new GetProductQuery(productId));
+    }
+
+    @Override
+    public void update(String productId, String name, double price, int quantity) {
+        UpdateProductCommand command = new UpdateProductCommand();
+        command.setId(productId);
+        command.setName(name);
+        command.setPrice(price);
+        command.setQuantity(quantity);
+        gateway.sendCommand(command);
+    }
+
+    @Override
+    public String describe() {
+        return "in-process CqrsApiGateway";
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
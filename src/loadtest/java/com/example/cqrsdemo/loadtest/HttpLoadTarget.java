@@ -0,0 +1,99 @@
+package com.example.cqrsdemo.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Envia as operações aos controllers de uma aplicação já em execução: comandos em
+ * {@code /api/products/commands} e consultas em {@code /api/products/queries}.
+ * Respostas fora da faixa 2xx contam como falha.
+ */
+final class HttpLoadTarget implements LoadTarget {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    HttpLoadTarget(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public String create(String name, double price, int quantity) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/commands"))
+                .header("Content-Type", "application/json")
+                .POST(json(body(name, price, quantity))));
+    }
+
+    @Override
+    public void read(String productId) {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/queries/" + productId))
+                .header("Accept", "application/json")
+                .GET());
+    }
+
+    @Override
+    public void update(String productId, String name, double price, int quantity) {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/commands/" + productId))
+                .header("Content-Type", "application/json")
+                .PUT(json(body(name, price, quantity))));
+    }
+
+    @Override
+    public String describe() {
+        return "HTTP " + baseUrl;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    private String send(HttpRequest.Builder request) {
+        HttpResponse<String> response;
+        try {
+            response = client.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + baseUrl, e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " from " + response.uri());
+        }
+        return response.body();
+    }
+
+    private HttpRequest.BodyPublisher json(Map<String, Object> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize request body", e);
+        }
+    }
+
+    private static Map<String, Object> body(String name, double price, int quantity) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", name);
+        body.put("price", price);
+        body.put("quantity", quantity);
+        return body;
+    }
+}
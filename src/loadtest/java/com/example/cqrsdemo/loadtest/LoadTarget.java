@@ -0,0 +1,19 @@
+package com.example.cqrsdemo.loadtest;
+
+/**
+ * Aplicação sob carga: o gateway no mesmo processo ou os controllers REST por HTTP.
+ * Os métodos são chamados concorrentemente e lançam exceção quando a operação falha.
+ */
+interface LoadTarget extends AutoCloseable {
+
+    String create(String name, double price, int quantity);
+
+    void read(String productId);
+
+    void update(String productId, String name, double price, int quantity);
+
+    String describe();
+
+    @Override
+    void close();
+}
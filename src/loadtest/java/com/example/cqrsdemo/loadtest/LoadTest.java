@@ -0,0 +1,127 @@
+package com.example.cqrsdemo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Gerador de carga com verificação de SLO:
+ * <pre>
+ * mvn -Ploadtest -DskipTests verify
+ * mvn -Ploadtest -DskipTests verify -Dloadtest.target=http -Dloadtest.rate=5000
+ * </pre>
+ * Cria o catálogo, aplica a carga durante o aquecimento sem medir e depois durante a fase medida, imprime
+ * os percentis e grava o resultado em {@code loadtest.result}. A execução termina com código 1 quando algum
+ * limite de {@link LoadTestSettings} é violado, o que falha o build.
+ */
+public final class LoadTest {
+
+    private static final int SEED_CONCURRENCY = 64;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        int status;
+        try (LoadTarget target = settings.target().equals("http")
+                ? new HttpLoadTarget(settings.baseUrl())
+                : new GatewayLoadTarget()) {
+            status = run(settings, target);
+        }
+        System.exit(status);
+    }
+
+    static int run(LoadTestSettings settings, LoadTarget target) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ZipfianKeys keys = new ZipfianKeys(seed(target, settings), settings.zipfExponent(), settings.seed());
+        System.out.printf("Load test against %s: %.0f ops/s for %ss after %ss of warm-up, %.0f%% reads,%n"
+                        + "zipf %.2f over %d products (hottest product gets %.1f%% of the operations)%n",
+                target.describe(), settings.rate(), settings.duration().toSeconds(), settings.warmup().toSeconds(),
+                settings.readRatio() * 100, settings.zipfExponent(), settings.catalogSize(), keys.hottestShare() * 100);
+
+        OpenLoopRunner runner = new OpenLoopRunner(target, settings, keys);
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        if (!settings.warmup().isZero()) {
+            runner.run(settings.warmup(), random);
+        }
+        OpenLoopRunner.Phase phase = runner.run(settings.duration(), random);
+        LoadTestResult result = LoadTestResult.of(settings, phase);
+        print(result, phase);
+
+        LoadTestResult baseline = null;
+        if (settings.baseline() != null) {
+            baseline = objectMapper.readValue(settings.baseline().toFile(), LoadTestResult.class);
+        }
+        Path output = settings.result().toAbsolutePath();
+        Files.createDirectories(output.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), result);
+        System.out.println("Result written to " + output);
+
+        List<String> violations = result.violations(settings, baseline);
+        if (violations.isEmpty()) {
+            System.out.println("SLO passed");
+            return 0;
+        }
+        System.out.println("SLO failed:");
+        violations.forEach(violation -> System.out.println("  - " + violation));
+        return 1;
+    }
+
+    // Cria o catálogo em paralelo; a carga só começa depois que todos os produtos existem
+    private static List<String> seed(LoadTarget target, LoadTestSettings settings) {
+        ConcurrentLinkedQueue<String> ids = new ConcurrentLinkedQueue<>();
+        Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.catalogSize(); i++) {
+                String name = "Load test product " + i;
+                double price = 1 + random.nextInt(100_000) / 100.0;
+                int quantity = random.nextInt(1000);
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        ids.add(target.create(name, price, quantity));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        if (ids.size() != settings.catalogSize()) {
+            throw new IllegalStateException("Created " + ids.size() + " of " + settings.catalogSize() + " products");
+        }
+        // A ordem de criação varia entre execuções; ordenados, os mesmos ids recebem as mesmas posições de Zipf
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    private static void print(LoadTestResult result, OpenLoopRunner.Phase phase) {
+        System.out.printf("Scheduled %d, completed %d, errors %d, throughput %.1f ops/s%n",
+                result.scheduled(), result.completed(), result.errors(), result.throughput());
+        if (phase.firstError.get() != null) {
+            System.out.println("First error: " + phase.firstError.get());
+        }
+        System.out.printf("%-8s %9s %9s %9s %9s %9s %9s   (ms, from intended start)%n",
+                "", "count", "p50", "p90", "p99", "p99.9", "max");
+        print("reads", result.reads());
+        print("writes", result.writes());
+        print("all", result.overall());
+        System.out.printf("Service time p99, from send: %.3f ms%n", result.serviceP99Millis());
+    }
+
+    private static void print(String name, LoadTestResult.Latency latency) {
+        System.out.printf("%-8s %9d %9.3f %9.3f %9.3f %9.3f %9.3f%n", name, latency.count(),
+                latency.p50(), latency.p90(), latency.p99(), latency.p999(), latency.max());
+    }
+}
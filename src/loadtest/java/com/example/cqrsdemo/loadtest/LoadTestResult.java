@@ -0,0 +1,87 @@
+package com.example.cqrsdemo.loadtest;
+
+import com.example.cqrsdemo.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado da fase medida, gravado em JSON para servir de linha de base às execuções seguintes.
+ * Latências em milissegundos, medidas a partir do instante programado de cada operação.
+ */
+record LoadTestResult(String target,
+                      double offeredRate,
+                      double readRatio,
+                      double zipfExponent,
+                      int catalogSize,
+                      long durationMillis,
+                      long scheduled,
+                      long completed,
+                      long errors,
+                      double throughput,
+                      Latency reads,
+                      Latency writes,
+                      Latency overall,
+                      double serviceP99Millis) {
+
+    static LoadTestResult of(LoadTestSettings settings, OpenLoopRunner.Phase phase) {
+        return new LoadTestResult(settings.target(), settings.rate(), settings.readRatio(), settings.zipfExponent(),
+                settings.catalogSize(), settings.duration().toMillis(), phase.scheduled, phase.overall.count(),
+                phase.errors.sum(), phase.throughput(), Latency.of(phase.reads), Latency.of(phase.writes),
+                Latency.of(phase.overall), millis(phase.service.percentileNanos(0.99)));
+    }
+
+    /**
+     * Limites violados: vazão mínima, p99 máximo e taxa de erros e, com uma linha de base,
+     * queda de vazão e aumento do p99 além das tolerâncias configuradas. Uma linha de base gravada com outra
+     * carga não é comparável e também conta como violação.
+     */
+    List<String> violations(LoadTestSettings settings, LoadTestResult baseline) {
+        List<String> violations = new ArrayList<>();
+        if (throughput < settings.minThroughput()) {
+            violations.add(String.format("throughput %.1f ops/s is below %.1f ops/s", throughput, settings.minThroughput()));
+        }
+        double maxP99 = settings.maxP99().toNanos() / 1e6;
+        if (overall.p99() > maxP99) {
+            violations.add(String.format("p99 %.3f ms is above %.3f ms", overall.p99(), maxP99));
+        }
+        double errorRate = scheduled == 0 ? 0 : (double) errors / scheduled;
+        if (errorRate > settings.maxErrorRate()) {
+            violations.add(String.format("error rate %.4f is above %.4f", errorRate, settings.maxErrorRate()));
+        }
+        if (baseline != null && !sameLoadAs(baseline)) {
+            violations.add("baseline was recorded with different load settings and cannot be compared");
+        } else if (baseline != null) {
+            double minThroughput = baseline.throughput() * (1 - settings.maxThroughputRegression());
+            if (throughput < minThroughput) {
+                violations.add(String.format("throughput %.1f ops/s dropped more than %.0f%% from baseline %.1f ops/s",
+                        throughput, settings.maxThroughputRegression() * 100, baseline.throughput()));
+            }
+            double maxBaselineP99 = baseline.overall().p99() * (1 + settings.maxP99Regression());
+            if (overall.p99() > maxBaselineP99) {
+                violations.add(String.format("p99 %.3f ms grew more than %.0f%% from baseline %.3f ms",
+                        overall.p99(), settings.maxP99Regression() * 100, baseline.overall().p99()));
+            }
+        }
+        return violations;
+    }
+
+    boolean sameLoadAs(LoadTestResult other) {
+        return target.equals(other.target()) && offeredRate == other.offeredRate()
+                && readRatio == other.readRatio() && zipfExponent == other.zipfExponent()
+                && catalogSize == other.catalogSize();
+    }
+
+    record Latency(long count, double p50, double p90, double p99, double p999, double max) {
+
+        static Latency of(LatencyHistogram histogram) {
+            return new Latency(histogram.count(), millis(histogram.percentileNanos(0.50)),
+                    millis(histogram.percentileNanos(0.90)), millis(histogram.percentileNanos(0.99)),
+                    millis(histogram.percentileNanos(0.999)), millis(histogram.maxNanos()));
+        }
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1e6;
+    }
+}
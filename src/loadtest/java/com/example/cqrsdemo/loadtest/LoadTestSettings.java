@@ -0,0 +1,83 @@
+package com.example.cqrsdemo.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Parâmetros da carga e limites do SLO, lidos das propriedades de sistema {@code loadtest.*}.
+ * O perfil {@code loadtest} do Maven repassa cada uma com o mesmo nome.
+ *
+ * @param target         {@code gateway} (aplicação no mesmo processo) ou {@code http} (aplicação em {@code baseUrl})
+ * @param rate           chegadas por segundo, em ritmo fixo, independentemente das respostas (carga em malha aberta)
+ * @param readRatio      fração das operações que são GetProductQuery; as demais são UpdateProductCommand
+ * @param zipfExponent   assimetria das chaves, em [0, 1): 0 é uniforme e 0.99 concentra a carga em poucos produtos
+ * @param maxInFlight    operações em andamento; acima disso o despachante espera, e a espera entra na latência
+ * @param minThroughput  vazão mínima em operações por segundo; 0 = 95% de {@code rate}
+ * @param maxP99         p99 máximo, medido a partir do instante programado de cada operação
+ * @param baseline       resultado anterior; sem ele só os limites absolutos são verificados
+ */
+record LoadTestSettings(String target,
+                        String baseUrl,
+                        double rate,
+                        Duration warmup,
+                        Duration duration,
+                        double readRatio,
+                        int catalogSize,
+                        double zipfExponent,
+                        int maxInFlight,
+                        long seed,
+                        double minThroughput,
+                        Duration maxP99,
+                        double maxErrorRate,
+                        Path result,
+                        Path baseline,
+                        double maxThroughputRegression,
+                        double maxP99Regression) {
+
+    static LoadTestSettings fromSystemProperties() {
+        double rate = number("loadtest.rate", 1000);
+        double minThroughput = number("loadtest.slo.min-throughput", 0);
+        String baseline = System.getProperty("loadtest.baseline", "");
+        LoadTestSettings settings = new LoadTestSettings(
+                System.getProperty("loadtest.target", "gateway"),
+                System.getProperty("loadtest.base-url", "http://localhost:8080"),
+                rate,
+                duration("loadtest.warmup", "10s"),
+                duration("loadtest.duration", "30s"),
+                number("loadtest.read-ratio", 0.9),
+                (int) number("loadtest.catalog-size", 10_000),
+                number("loadtest.zipf-exponent", 0.99),
+                (int) number("loadtest.max-in-flight", 1024),
+                (long) number("loadtest.seed", 42),
+                minThroughput > 0 ? minThroughput : rate * 0.95,
+                duration("loadtest.slo.p99", "50ms"),
+                number("loadtest.slo.max-error-rate", 0.001),
+                Path.of(System.getProperty("loadtest.result", "target/loadtest-result.json")),
+                baseline.isBlank() ? null : Path.of(baseline),
+                number("loadtest.slo.max-throughput-regression", 0.10),
+                number("loadtest.slo.max-p99-regression", 0.25));
+        settings.validate();
+        return settings;
+    }
+
+    private void validate() {
+        if (!target.equals("gateway") && !target.equals("http")) {
+            throw new IllegalArgumentException("loadtest.target must be gateway or http: " + target);
+        }
+        if (rate <= 0 || readRatio < 0 || readRatio > 1 || catalogSize < 2 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Invalid load settings: " + this);
+        }
+    }
+
+    private static double number(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    private static Duration duration(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return DurationStyle.detectAndParse(value == null || value.isBlank() ? defaultValue : value.trim());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.cqrsdemo.loadtest;
+
+import com.example.cqrsdemo.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Carga em malha aberta: as operações são programadas em ritmo fixo a partir do início da fase e despachadas
+ * em threads virtuais, sem esperar as anteriores terminarem. A latência de cada operação é medida a partir do
+ * instante em que ela deveria ter começado, e não de quando foi enviada: se a aplicação ou o próprio despachante
+ * atrasa, o atraso acumulado entra na latência das operações seguintes, corrigindo a omissão coordenada.
+ * O tempo de serviço, do envio à resposta, é registrado à parte para comparação.
+ */
+final class OpenLoopRunner {
+
+    private final LoadTarget target;
+    private final LoadTestSettings settings;
+    private final ZipfianKeys keys;
+
+    OpenLoopRunner(LoadTarget target, LoadTestSettings settings, ZipfianKeys keys) {
+        this.target = target;
+        this.settings = settings;
+        this.keys = keys;
+    }
+
+    Phase run(Duration duration, SplittableRandom random) {
+        Phase phase = new Phase();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        double intervalNanos = 1e9 / settings.rate();
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long offset = (long) (i * intervalNanos);
+                if (offset >= durationNanos) {
+                    break;
+                }
+                long intended = start + offset;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                inFlight.acquireUninterruptibly();
+                boolean read = random.nextDouble() < settings.readRatio();
+                String productId = keys.next(random);
+                double price = 1 + random.nextInt(100_000) / 100.0;
+                int quantity = random.nextInt(1000);
+                phase.scheduled++;
+                executor.execute(() -> {
+                    long sent = System.nanoTime();
+                    try {
+                        if (read) {
+                            target.read(productId);
+                        } else {
+                            target.update(productId, "Load test " + quantity, price, quantity);
+                        }
+                        long done = System.nanoTime();
+                        (read ? phase.reads : phase.writes).record(done - intended);
+                        phase.overall.record(done - intended);
+                        phase.service.record(done - sent);
+                    } catch (RuntimeException e) {
+                        phase.errors.increment();
+                        phase.firstError.compareAndSet(null, e.toString());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        phase.elapsedNanos = System.nanoTime() - start;
+        return phase;
+    }
+
+    // Gravações de uma fase; as latências só incluem operações bem-sucedidas
+    static final class Phase {
+
+        final LatencyHistogram reads = new LatencyHistogram();
+        final LatencyHistogram writes = new LatencyHistogram();
+        final LatencyHistogram overall = new LatencyHistogram();
+        final LatencyHistogram service = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final AtomicReference<String> firstError = new AtomicReference<>();
+        long scheduled;
+        long elapsedNanos;
+
+        // Operações concluídas por segundo, até a última resposta; um atraso no fim da fase reduz a vazão
+        double throughput() {
+            return overall.count() / (elapsedNanos / 1e9);
+        }
+    }
+}
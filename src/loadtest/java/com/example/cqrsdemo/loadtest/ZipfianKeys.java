@@ -0,0 +1,67 @@
+package com.example.cqrsdemo.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Sorteio de ids com distribuição de Zipf, pelo método de Gray et al. usado no YCSB: o produto de posição k
+ * é escolhido com probabilidade proporcional a 1/k^theta. As posições são atribuídas a uma permutação
+ * aleatória dos ids, para que os produtos quentes não sejam simplesmente os primeiros criados.
+ * Com {@code theta = 0} o sorteio é uniforme.
+ */
+final class ZipfianKeys {
+
+    private final String[] keys;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final double secondThreshold;
+
+    ZipfianKeys(List<String> ids, double theta, long seed) {
+        if (theta < 0 || theta >= 1) {
+            throw new IllegalArgumentException("Zipf exponent must be in [0, 1): " + theta);
+        }
+        List<String> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, new Random(seed));
+        this.keys = shuffled.toArray(String[]::new);
+        this.theta = theta;
+        int n = keys.length;
+        this.zetaN = zeta(n, theta);
+        this.alpha = 1 / (1 - theta);
+        this.eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        this.secondThreshold = 1 + Math.pow(0.5, theta);
+    }
+
+    String next(SplittableRandom random) {
+        if (theta == 0) {
+            return keys[random.nextInt(keys.length)];
+        }
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1) {
+            return keys[0];
+        }
+        if (uz < secondThreshold) {
+            return keys[1];
+        }
+        int rank = (int) (keys.length * Math.pow(eta * u - eta + 1, alpha));
+        return keys[Math.min(rank, keys.length - 1)];
+    }
+
+    // Fração esperada das operações que cai no produto mais quente
+    double hottestShare() {
+        return theta == 0 ? 1.0 / keys.length : 1 / zetaN;
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
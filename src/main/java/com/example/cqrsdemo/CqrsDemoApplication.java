@@ -1,3 +1,4 @@
+package com.example.cqrsdemo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
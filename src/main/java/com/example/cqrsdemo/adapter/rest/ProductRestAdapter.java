@@ -3,17 +3,45 @@ package com.example.cqrsdemo.adapter.rest;
 import com.example.cqrsdemo.command.api.CreateProductCommand;
 import com.example.cqrsdemo.command.api.DeleteProductCommand;
 import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.controller.EncodedProductResponses;
+import com.example.cqrsdemo.controller.ProductETags;
 import com.example.cqrsdemo.domain.model.Product;
 import com.example.cqrsdemo.gateway.CqrsApiGateway;
+import com.example.cqrsdemo.query.api.EncodedProduct;
 import com.example.cqrsdemo.query.api.GetAllProductsQuery;
+import com.example.cqrsdemo.query.api.GetCatalogVersionQuery;
+import com.example.cqrsdemo.query.api.GetEncodedProductQuery;
+import com.example.cqrsdemo.query.api.GetInventoryStatsQuery;
+import com.example.cqrsdemo.query.api.GetLowStockProductsQuery;
 import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.api.GetProductVersionQuery;
+import com.example.cqrsdemo.query.api.GetProductsByIdsQuery;
+import com.example.cqrsdemo.query.api.GetProductsByNamePrefixQuery;
+import com.example.cqrsdemo.query.api.GetProductsByPriceRangeQuery;
+import com.example.cqrsdemo.query.api.GetProductsPageQuery;
+import com.example.cqrsdemo.query.api.InventoryStats;
+import com.example.cqrsdemo.query.api.ProductPage;
+import com.example.cqrsdemo.query.api.ProductSortKey;
+import com.example.cqrsdemo.query.api.SearchProductsQuery;
+import com.example.cqrsdemo.query.api.StreamAllProductsQuery;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Adaptador REST opcional que pode ser ativado via propriedade de configuração
@@ -26,46 +54,163 @@ import java.util.List;
 public class ProductRestAdapter {
 
     private final CqrsApiGateway apiGateway;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ProductRestAdapter(CqrsApiGateway apiGateway) {
+    public ProductRestAdapter(CqrsApiGateway apiGateway, ObjectMapper objectMapper) {
         this.apiGateway = apiGateway;
+        this.objectMapper = objectMapper;
     }
 
     // Endpoints de comando
+    // Os endpoints devolvem CompletableFuture: a thread do Tomcat é liberada e a resposta é concluída
+    // pela thread virtual do gateway
+
     @PostMapping
-    public ResponseEntity<String> createProduct(@RequestBody CreateProductCommand command) {
-        String productId = apiGateway.sendCommand(command);
-        return new ResponseEntity<>(productId, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<String>> createProduct(@RequestBody CreateProductCommand command) {
+        return apiGateway.sendCommandAsync(command)
+                .thenApply(productId -> new ResponseEntity<>(productId, HttpStatus.CREATED));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Void> updateProduct(@PathVariable String id, @RequestBody UpdateProductCommand command) {
+    public CompletableFuture<ResponseEntity<Void>> updateProduct(@PathVariable String id, @RequestBody UpdateProductCommand command) {
         command.setId(id);
-        apiGateway.sendCommand(command);
-        return new ResponseEntity<>(HttpStatus.OK);
+        return apiGateway.sendCommandAsync(command)
+                .thenApply(ignored -> new ResponseEntity<>(HttpStatus.OK));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable String id) {
+    public CompletableFuture<ResponseEntity<Void>> deleteProduct(@PathVariable String id) {
         DeleteProductCommand command = new DeleteProductCommand();
         command.setId(id);
-        apiGateway.sendCommand(command);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        return apiGateway.sendCommandAsync(command)
+                .thenApply(ignored -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
     }
 
     // Endpoints de consulta
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable String id) {
+    public CompletableFuture<ResponseEntity<?>> getProduct(@PathVariable String id,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Só a versão é consultada para responder 304; o produto não é lido nem serializado
+        if (ifNoneMatch != null) {
+            Long version = apiGateway.sendQuery(new GetProductVersionQuery(id));
+            if (version != null && ProductETags.matches(ifNoneMatch, ProductETags.ofProduct(version))) {
+                return CompletableFuture.completedFuture(ProductETags.notModified(ifNoneMatch, ProductETags.ofProduct(version)));
+            }
+        }
+        // Com o cache de JSON, o produto já serializado é lido de um mapa na própria thread da requisição
+        if (apiGateway.supports(GetEncodedProductQuery.class) && EncodedProductResponses.acceptsJson(accept)) {
+            try {
+                EncodedProduct encoded = apiGateway.sendQuery(new GetEncodedProductQuery(id));
+                return CompletableFuture.completedFuture(EncodedProductResponses.of(encoded, acceptEncoding));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
         GetProductQuery query = new GetProductQuery(id);
-        Product product = apiGateway.sendQuery(query);
-        return new ResponseEntity<>(product, HttpStatus.OK);
+        return apiGateway.sendQueryAsync(query)
+                .thenApply(product -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (product.getVersion() != null) {
+                        response.eTag(ProductETags.ofProduct(product.getVersion()));
+                    }
+                    return response.body(product);
+                });
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public CompletableFuture<ResponseEntity<List<Product>>> getAllProducts(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         GetAllProductsQuery query = new GetAllProductsQuery();
-        List<Product> products = apiGateway.sendQuery(query);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return catalogQuery(ifNoneMatch, () -> apiGateway.sendQueryAsync(query));
+    }
+
+    // Lista de produtos para telas que antes faziam uma consulta por id: GET /by-ids?ids=a,b,c
+    @GetMapping("/by-ids")
+    public CompletableFuture<ResponseEntity<List<Product>>> getProductsByIds(@RequestParam List<String> ids,
+                                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GetProductsByIdsQuery query = new GetProductsByIdsQuery(ids);
+        return catalogQuery(ifNoneMatch, () -> apiGateway.sendQueryAsync(query));
+    }
+
+    @GetMapping("/page")
+    public CompletableFuture<ResponseEntity<ProductPage>> getProductsPage(@RequestParam(defaultValue = "0") int size,
+                                                                          @RequestParam(required = false) String afterId,
+                                                                          @RequestParam(defaultValue = "ID") ProductSortKey sort,
+                                                                          @RequestParam(required = false) String afterName,
+                                                                          @RequestParam(required = false) Double afterPrice,
+                                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GetProductsPageQuery query = new GetProductsPageQuery(size, afterId, sort, afterName, afterPrice);
+        return catalogQuery(ifNoneMatch, () -> apiGateway.sendQueryAsync(query));
+    }
+
+    @GetMapping("/price-range")
+    public CompletableFuture<ResponseEntity<List<Product>>> getProductsByPriceRange(@RequestParam double min,
+                                                                                    @RequestParam double max,
+                                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GetProductsByPriceRangeQuery query = new GetProductsByPriceRangeQuery(min, max);
+        return catalogQuery(ifNoneMatch, () -> apiGateway.sendQueryAsync(query));
+    }
+
+    @GetMapping("/low-stock")
+    public CompletableFuture<ResponseEntity<List<Product>>> getLowStockProducts(@RequestParam int threshold,
+                                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GetLowStockProductsQuery query = new GetLowStockProductsQuery(threshold);
+        return catalogQuery(ifNoneMatch, () -> apiGateway.sendQueryAsync(query));
+    }
+
+    @GetMapping("/name-prefix")
+    public CompletableFuture<ResponseEntity<List<Product>>> getProductsByNamePrefix(@RequestParam String prefix,
+                                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GetProductsByNamePrefixQuery query = new GetProductsByNamePrefixQuery(prefix);
+        return catalogQuery(ifNoneMatch, () -> apiGateway.sendQueryAsync(query));
+    }
+
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<List<Product>>> searchProducts(@RequestParam("q") String text,
+                                                                           @RequestParam(defaultValue = "0") int limit,
+                                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        SearchProductsQuery query = new SearchProductsQuery(text, limit);
+        return catalogQuery(ifNoneMatch, () -> apiGateway.sendQueryAsync(query));
+    }
+
+    @GetMapping("/stats")
+    public CompletableFuture<ResponseEntity<InventoryStats>> getInventoryStats(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GetInventoryStatsQuery query = new GetInventoryStatsQuery();
+        return catalogQuery(ifNoneMatch, () -> apiGateway.sendQueryAsync(query));
+    }
+
+    // Escreve um produto por linha (NDJSON) à medida que são lidos, sem montar a lista em memória
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ProductETags.ofCatalog(apiGateway.sendQuery(new GetCatalogVersionQuery()));
+        if (ProductETags.matches(ifNoneMatch, etag)) {
+            return ProductETags.notModified(ifNoneMatch, etag);
+        }
+        ObjectWriter writer = objectMapper.writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (Stream<Product> products = apiGateway.sendQuery(new StreamAllProductsQuery());
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                Iterator<Product> iterator = products.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // 304 sem executar a consulta quando o cliente já tem a versão atual do catálogo
+    private <T> CompletableFuture<ResponseEntity<T>> catalogQuery(String ifNoneMatch,
+                                                                  Supplier<CompletableFuture<T>> query) {
+        String etag = ProductETags.ofCatalog(apiGateway.sendQuery(new GetCatalogVersionQuery()));
+        if (ProductETags.matches(ifNoneMatch, etag)) {
+            return CompletableFuture.completedFuture(ProductETags.notModified(ifNoneMatch, etag));
+        }
+        return query.get().thenApply(result -> ResponseEntity.ok().eTag(etag).body(result));
     }
 }
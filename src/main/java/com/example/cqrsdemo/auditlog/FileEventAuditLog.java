@@ -0,0 +1,454 @@
+package com.example.cqrsdemo.auditlog;
+
+import com.example.cqrsdemo.codec.ProductBinaryCodec;
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Log de auditoria append-only em disco, dividido em segmentos de tamanho fixo mapeados em memória.
+ *
+ * <p>Cada registro tem o formato {@code [tamanho][crc32c][tipo][sequência][payload]}, com o evento
+ * (ou, nos snapshots, o estado do produto) codificado pelo {@link ProductBinaryCodec}. O tamanho é
+ * gravado por último, então um registro incompleto após uma queda tem tamanho zero ou CRC inválido
+ * e marca o fim do log na reabertura. O fsync é feito em lotes: a cada {@code fsyncBatchSize}
+ * eventos e periodicamente a cada {@code fsyncInterval}.
+ *
+ * <p>A cada {@code snapshotEvery} eventos de um mesmo produto é gravado um snapshot do agregado,
+ * de modo que {@link #load(String)} lê no máximo esse número de eventos após o último snapshot.
+ *
+ * <p>Não é um event store: o banco é a fonte da verdade, e o modelo de escrita e as projeções não leem
+ * daqui. Os eventos são copiados depois do commit, fora da transação, então o log dá garantias de
+ * melhor esforço:
+ * <ul>
+ *   <li>a ordem no log é a de chegada ao {@link #append(ProductEvent)}, que pode diferir da ordem
+ *       dos commits quando dois comandos do mesmo produto terminam ao mesmo tempo;</li>
+ *   <li>uma queda entre o commit e o append, ou antes do fsync, perde os eventos do intervalo;</li>
+ *   <li>uma falha ao gravar é registrada no log da aplicação e o evento segue sem cópia.</li>
+ * </ul>
+ * {@link #load(String)} e {@link #replay(long, Consumer)} servem para auditoria e para alimentar
+ * consumidores externos que toleram essas lacunas.
+ */
+public class FileEventAuditLog implements Closeable {
+
+    static final byte CREATED = 1;
+    static final byte UPDATED = 2;
+    static final byte DELETED = 3;
+    static final byte SNAPSHOT = 4;
+
+    // tamanho (4) + crc (4) + tipo (1) + sequência (8)
+    private static final int HEADER_SIZE = 17;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int fsyncBatchSize;
+    private final int snapshotEvery;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<String, AggregateIndex> aggregates = new HashMap<>();
+    private final ScheduledExecutorService fsyncScheduler;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+    private Segment active;
+    private long writePosition;
+    private long lastSequence;
+    private int unsynced;
+    private boolean closed;
+
+    public FileEventAuditLog(Path directory, int segmentSize, int fsyncBatchSize, Duration fsyncInterval, int snapshotEvery) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncBatchSize = fsyncBatchSize;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open audit log at " + directory, e);
+        }
+        if (fsyncInterval != null && !fsyncInterval.isZero()) {
+            fsyncScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("audit-log-fsync").factory());
+            long intervalMicros = fsyncInterval.toNanos() / 1_000;
+            fsyncScheduler.scheduleWithFixedDelay(this::flush, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+        } else {
+            fsyncScheduler = null;
+        }
+    }
+
+    /**
+     * Acrescenta o evento ao log e devolve sua sequência global.
+     */
+    public synchronized long append(ProductEvent event) {
+        ensureOpen();
+        long sequence = ++lastSequence;
+        AggregateIndex index = aggregates.computeIfAbsent(event.getProductId(), id -> new AggregateIndex());
+        index.add(write(typeOf(event), sequence, event));
+
+        if (index.eventCount >= snapshotEvery) {
+            Product state = replay(index);
+            // O snapshot de um produto excluído é o próprio evento de exclusão
+            index.snapshot(write(SNAPSHOT, sequence, state != null ? state : new ProductDeletedEvent(event.getProductId())));
+        }
+        unsynced++;
+        if (fsyncBatchSize > 0 && unsynced >= fsyncBatchSize) {
+            force();
+        }
+        return sequence;
+    }
+
+    /**
+     * Reconstrói o estado atual do produto a partir do último snapshot e dos eventos seguintes.
+     * Vazio se o produto não existe ou foi excluído.
+     */
+    public Optional<Product> load(String productId) {
+        synchronized (this) {
+            ensureOpen();
+            AggregateIndex index = aggregates.get(productId);
+            if (index == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(replay(index));
+        }
+    }
+
+    /**
+     * Entrega, em ordem, todos os eventos com sequência maior ou igual a {@code fromSequence}.
+     */
+    public void replay(long fromSequence, Consumer<ProductEvent> consumer) {
+        List<Segment> snapshot;
+        long end;
+        synchronized (this) {
+            ensureOpen();
+            snapshot = new ArrayList<>(segments.values());
+            end = writePosition;
+        }
+        for (Segment segment : snapshot) {
+            int offset = 0;
+            // Um segmento pode terminar no limite exato ou com menos bytes livres que um cabeçalho
+            while (offset + HEADER_SIZE <= segment.capacity() && segment.base + offset < end) {
+                int length = segment.buffer.getInt(offset);
+                if (length <= 0) {
+                    break;
+                }
+                StoredRecord record = StoredRecord.read(segment.buffer, offset);
+                if (record.type != SNAPSHOT && record.sequence >= fromSequence) {
+                    consumer.accept(record.toEvent());
+                }
+                offset += 4 + length;
+            }
+        }
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized void flush() {
+        if (!closed && unsynced > 0) {
+            force();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (fsyncScheduler != null) {
+            fsyncScheduler.shutdown();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            force();
+            closed = true;
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    private long write(byte type, long sequence, Object payload) {
+        ByteBuffer body = encode(type, sequence, payload);
+        int recordSize = body.remaining();
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Event of " + recordSize + " bytes exceeds segment size " + segmentSize);
+        }
+        if (writePosition - active.base + recordSize > active.capacity()) {
+            roll();
+        }
+        int offset = (int) (writePosition - active.base);
+        MappedByteBuffer buffer = active.buffer;
+        // Corpo primeiro, tamanho por último: um registro parcial nunca parece válido
+        buffer.put(offset + 4, body, 4, recordSize - 4);
+        buffer.putInt(offset, recordSize - 4);
+        long position = writePosition;
+        writePosition += recordSize;
+        return position;
+    }
+
+    private ByteBuffer encode(byte type, long sequence, Object payload) {
+        int size = HEADER_SIZE + ProductBinaryCodec.sizeOf(payload);
+        if (scratch.capacity() < size) {
+            scratch = ByteBuffer.allocate(Integer.highestOneBit(size) << 1);
+        }
+        ByteBuffer body = scratch.clear();
+        body.position(8);
+        body.put(type);
+        body.putLong(sequence);
+        ProductBinaryCodec.encode(payload, body);
+        body.flip();
+
+        crc.reset();
+        crc.update(body.array(), 8, body.limit() - 8);
+        body.putInt(4, (int) crc.getValue());
+        return body;
+    }
+
+    private Product replay(AggregateIndex index) {
+        Product state = null;
+        if (index.snapshotPosition >= 0) {
+            state = read(index.snapshotPosition).state;
+        }
+        for (int i = 0; i < index.eventCount; i++) {
+            state = apply(state, read(index.eventPositions[i]));
+        }
+        return state;
+    }
+
+    // Regra de reconstrução do agregado: cada atualização incrementa a versão anterior quando o evento não a traz
+    private static Product apply(Product state, StoredRecord record) {
+        return switch (record.type) {
+            case CREATED -> record.state;
+            case UPDATED -> {
+                Product next = record.state;
+                if (next.getVersion() == null && state != null && state.getVersion() != null) {
+                    next.setVersion(state.getVersion() + 1);
+                }
+                yield next;
+            }
+            case DELETED -> null;
+            default -> throw new IllegalStateException("Unexpected record type " + record.type);
+        };
+    }
+
+    private StoredRecord read(long position) {
+        Segment segment = segments.floorEntry(position).getValue();
+        return StoredRecord.read(segment.buffer, (int) (position - segment.base));
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = Segment.open(file, base, segmentSize);
+            segments.put(base, segment);
+            writePosition = base + scan(segment);
+            active = segment;
+        }
+        if (active == null) {
+            active = openSegment(0);
+            writePosition = 0;
+        } else {
+            clearTail();
+        }
+    }
+
+    // Zera o que sobrou após o último registro válido, para que dados antigos não reapareçam como válidos
+    private void clearTail() {
+        int from = (int) (writePosition - active.base);
+        byte[] zeros = new byte[8192];
+        for (int offset = from; offset < active.capacity(); offset += zeros.length) {
+            active.buffer.put(offset, zeros, 0, Math.min(zeros.length, active.capacity() - offset));
+        }
+        active.buffer.force();
+    }
+
+    // Percorre os registros válidos do segmento reconstruindo o índice; devolve o fim dos dados válidos
+    private int scan(Segment segment) {
+        int offset = 0;
+        CRC32C check = new CRC32C();
+        byte[] body = new byte[0];
+        while (offset + HEADER_SIZE <= segment.capacity()) {
+            int length = segment.buffer.getInt(offset);
+            if (length < HEADER_SIZE - 4 || offset + 4 + length > segment.capacity()) {
+                break;
+            }
+            if (body.length < length - 4) {
+                body = new byte[length - 4];
+            }
+            segment.buffer.get(offset + 8, body, 0, length - 4);
+            check.reset();
+            check.update(body, 0, length - 4);
+            if ((int) check.getValue() != segment.buffer.getInt(offset + 4)) {
+                break;
+            }
+            StoredRecord record = StoredRecord.read(segment.buffer, offset);
+            long position = segment.base + offset;
+            AggregateIndex index = aggregates.computeIfAbsent(record.productId, id -> new AggregateIndex());
+            if (record.type == SNAPSHOT) {
+                index.snapshot(position);
+            } else {
+                index.add(position);
+                lastSequence = Math.max(lastSequence, record.sequence);
+            }
+            offset += 4 + length;
+        }
+        return offset;
+    }
+
+    private void roll() {
+        force();
+        active = openSegment(writePosition);
+    }
+
+    private Segment openSegment(long base) {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+        try {
+            Segment segment = Segment.open(file, base, segmentSize);
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create audit log segment " + file, e);
+        }
+    }
+
+    private void force() {
+        active.buffer.force();
+        unsynced = 0;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Audit log is closed");
+        }
+    }
+
+    private static byte typeOf(ProductEvent event) {
+        if (event instanceof ProductCreatedEvent) {
+            return CREATED;
+        }
+        if (event instanceof ProductUpdatedEvent) {
+            return UPDATED;
+        }
+        if (event instanceof ProductDeletedEvent) {
+            return DELETED;
+        }
+        throw new IllegalArgumentException("Unsupported event type: " + event.getClass().getName());
+    }
+
+    private static final class Segment implements Closeable {
+        private final long base;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long base, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path file, long base, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long mappedSize = Math.max(size, channel.size());
+            return new Segment(base, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Posições no log do último snapshot e dos eventos posteriores de um produto
+    private static final class AggregateIndex {
+        private long snapshotPosition = -1;
+        private long[] eventPositions = new long[4];
+        private int eventCount;
+
+        void add(long position) {
+            if (eventCount == eventPositions.length) {
+                eventPositions = Arrays.copyOf(eventPositions, eventCount * 2);
+            }
+            eventPositions[eventCount++] = position;
+        }
+
+        void snapshot(long position) {
+            snapshotPosition = position;
+            eventCount = 0;
+        }
+    }
+
+    private record StoredRecord(byte type, long sequence, String productId, Product state) {
+
+        static StoredRecord read(MappedByteBuffer buffer, int offset) {
+            ByteBuffer view = buffer.slice(offset + 8, buffer.getInt(offset) - 4);
+            byte type = view.get();
+            long sequence = view.getLong();
+            Object payload = ProductBinaryCodec.decode(view);
+            if (payload instanceof Product state) {
+                return new StoredRecord(type, sequence, state.getId(), state);
+            }
+            if (payload instanceof ProductCreatedEvent created) {
+                return new StoredRecord(type, sequence, created.getProductId(), created.getProduct());
+            }
+            if (payload instanceof ProductUpdatedEvent updated) {
+                return new StoredRecord(type, sequence, updated.getProductId(), updated.getProduct());
+            }
+            if (payload instanceof ProductDeletedEvent deleted) {
+                return new StoredRecord(type, sequence, deleted.getProductId(), null);
+            }
+            throw new IllegalStateException("Unexpected payload in record " + sequence);
+        }
+
+        ProductEvent toEvent() {
+            return switch (type) {
+                case CREATED -> new ProductCreatedEvent(state);
+                case UPDATED -> new ProductUpdatedEvent(state);
+                case DELETED -> new ProductDeletedEvent(productId);
+                default -> throw new IllegalStateException("Unexpected record type " + type);
+            };
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.example.cqrsdemo.codec;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.domain.id.ProductId;
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificação binária compacta de {@link Product}, dos comandos e dos eventos de produto.
+ *
+ * <p>Cada mensagem tem o formato {@code [tipo][versão do esquema][tamanho do corpo][campos]}. Os campos
+ * são gravados em ordem fixa e novos campos só são acrescentados ao fim: um leitor antigo lê os campos
+ * que conhece e pula o restante do corpo, e um leitor novo usa o valor padrão para os campos que uma
+ * mensagem antiga não traz. Inteiros e tamanhos são varints; ids no formato UUID ocupam 16 bytes.
+ *
+ * <p>{@link #encode(Object, ByteBuffer)} escreve direto no buffer informado, que pode ser reutilizado
+ * entre mensagens; {@link #sizeOf(Object)} devolve o tamanho exato para dimensioná-lo.
+ */
+public final class ProductBinaryCodec {
+
+    static final byte PRODUCT = 1;
+    static final byte CREATE_COMMAND = 2;
+    static final byte UPDATE_COMMAND = 3;
+    static final byte DELETE_COMMAND = 4;
+    static final byte CREATED_EVENT = 5;
+    static final byte UPDATED_EVENT = 6;
+    static final byte DELETED_EVENT = 7;
+    static final byte PRODUCT_LIST = 8;
+
+    // Versão do esquema gravada pelo escritor; muda a cada campo acrescentado
+    static final byte SCHEMA_VERSION = 1;
+
+    // Marcadores de id: nulo, UUID em 16 bytes ou texto livre
+    private static final byte NULL_ID = 0;
+    private static final byte UUID_ID = 1;
+    private static final byte TEXT_ID = 2;
+
+    private ProductBinaryCodec() {
+    }
+
+    /**
+     * Tamanho exato, em bytes, da mensagem codificada.
+     */
+    public static int sizeOf(Object message) {
+        int body = bodySize(message);
+        return 2 + varintSize(body) + body;
+    }
+
+    /**
+     * Codifica a mensagem a partir da posição atual do buffer, avançando-a.
+     *
+     * @throws java.nio.BufferOverflowException se o espaço restante for menor que {@link #sizeOf(Object)}
+     */
+    public static void encode(Object message, ByteBuffer buffer) {
+        // Cadeia de instanceof em vez de switch por padrão: o typeSwitch do JDK 21 não é inlined
+        // e custava mais que a codificação inteira
+        if (message instanceof Product product) {
+            writeHeader(buffer, PRODUCT, productSize(product));
+            writeProduct(buffer, product);
+        } else if (message instanceof CreateProductCommand command) {
+            writeHeader(buffer, CREATE_COMMAND, createSize(command));
+            writeString(buffer, command.getName());
+            writeString(buffer, command.getDescription());
+            buffer.putDouble(command.getPrice());
+            writeVarint(buffer, zigzag(command.getQuantity()));
+        } else if (message instanceof UpdateProductCommand command) {
+            writeHeader(buffer, UPDATE_COMMAND, updateSize(command));
+            writeId(buffer, command.getId());
+            writeString(buffer, command.getName());
+            writeString(buffer, command.getDescription());
+            buffer.putDouble(command.getPrice());
+            writeVarint(buffer, zigzag(command.getQuantity()));
+            writeVersion(buffer, command.getExpectedVersion());
+        } else if (message instanceof DeleteProductCommand command) {
+            writeHeader(buffer, DELETE_COMMAND, deleteSize(command));
+            writeId(buffer, command.getId());
+            writeVersion(buffer, command.getExpectedVersion());
+        } else if (message instanceof ProductCreatedEvent event) {
+            writeHeader(buffer, CREATED_EVENT, sizeOf(event.getProduct()));
+            encode(event.getProduct(), buffer);
+        } else if (message instanceof ProductUpdatedEvent event) {
+            writeHeader(buffer, UPDATED_EVENT, sizeOf(event.getProduct()));
+            encode(event.getProduct(), buffer);
+        } else if (message instanceof ProductDeletedEvent event) {
+            writeHeader(buffer, DELETED_EVENT, idSize(event.getProductId()));
+            writeId(buffer, event.getProductId());
+        } else if (message instanceof List<?> products) {
+            writeHeader(buffer, PRODUCT_LIST, listSize(products));
+            writeVarint(buffer, products.size());
+            for (Object product : products) {
+                encode(product, buffer);
+            }
+        } else {
+            throw unsupported(message);
+        }
+    }
+
+    /**
+     * Codifica a mensagem num array do tamanho exato.
+     */
+    public static byte[] encode(Object message) {
+        ByteBuffer buffer = ByteBuffer.allocate(sizeOf(message));
+        encode(message, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Decodifica uma mensagem a partir da posição atual do buffer, deixando-a logo após a mensagem.
+     */
+    public static Object decode(ByteBuffer buffer) {
+        byte type = buffer.get();
+        buffer.get(); // versão do esquema: a evolução é resolvida pelo tamanho do corpo
+        int length = readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Binary message body of " + length + " bytes exceeds the "
+                    + buffer.remaining() + " bytes available");
+        }
+        int end = buffer.position() + length;
+        // O limite fica no fim do corpo, para que nenhum campo, nem de mensagens aninhadas, leia além do registro
+        int limit = buffer.limit();
+        buffer.limit(end);
+        Object message;
+        try {
+            message = readBody(buffer, type, end);
+        } finally {
+            buffer.limit(limit);
+        }
+        // Campos de versões mais novas do esquema são ignorados
+        buffer.position(end);
+        return message;
+    }
+
+    private static Object readBody(ByteBuffer buffer, byte type, int end) {
+        return switch (type) {
+            case PRODUCT -> readProduct(buffer, end);
+            case CREATE_COMMAND -> {
+                CreateProductCommand command = new CreateProductCommand();
+                command.setName(buffer.position() < end ? readString(buffer) : null);
+                command.setDescription(buffer.position() < end ? readString(buffer) : null);
+                command.setPrice(buffer.position() < end ? buffer.getDouble() : 0);
+                command.setQuantity(buffer.position() < end ? unzigzag(readVarint(buffer)) : 0);
+                yield command;
+            }
+            case UPDATE_COMMAND -> {
+                UpdateProductCommand command = new UpdateProductCommand();
+                command.setId(buffer.position() < end ? readId(buffer) : null);
+                command.setName(buffer.position() < end ? readString(buffer) : null);
+                command.setDescription(buffer.position() < end ? readString(buffer) : null);
+                command.setPrice(buffer.position() < end ? buffer.getDouble() : 0);
+                command.setQuantity(buffer.position() < end ? unzigzag(readVarint(buffer)) : 0);
+                command.setExpectedVersion(buffer.position() < end ? readVersion(buffer) : null);
+                yield command;
+            }
+            case DELETE_COMMAND -> {
+                DeleteProductCommand command = new DeleteProductCommand();
+                command.setId(buffer.position() < end ? readId(buffer) : null);
+                command.setExpectedVersion(buffer.position() < end ? readVersion(buffer) : null);
+                yield command;
+            }
+            case CREATED_EVENT -> new ProductCreatedEvent(decode(buffer, Product.class));
+            case UPDATED_EVENT -> new ProductUpdatedEvent(decode(buffer, Product.class));
+            case DELETED_EVENT -> new ProductDeletedEvent(readId(buffer));
+            case PRODUCT_LIST -> {
+                int count = readVarint(buffer);
+                List<Product> products = new ArrayList<>(Math.min(count, 1024));
+                for (int i = 0; i < count; i++) {
+                    products.add(decode(buffer, Product.class));
+                }
+                yield products;
+            }
+            default -> throw new IllegalArgumentException("Unknown binary message type " + type);
+        };
+    }
+
+    public static <T> T decode(ByteBuffer buffer, Class<T> type) {
+        Object message = decode(buffer);
+        if (!type.isInstance(message)) {
+            throw new IllegalArgumentException("Expected " + type.getSimpleName() + " but found "
+                    + message.getClass().getSimpleName());
+        }
+        return type.cast(message);
+    }
+
+    /**
+     * Indica se a classe tem codificação própria; listas são aceitas quando os elementos são {@link Product}.
+     */
+    public static boolean supports(Class<?> type) {
+        return type == Product.class
+                || type == CreateProductCommand.class
+                || type == UpdateProductCommand.class
+                || type == DeleteProductCommand.class
+                || type == ProductCreatedEvent.class
+                || type == ProductUpdatedEvent.class
+                || type == ProductDeletedEvent.class;
+    }
+
+    private static int bodySize(Object message) {
+        if (message instanceof Product product) {
+            return productSize(product);
+        }
+        if (message instanceof CreateProductCommand command) {
+            return createSize(command);
+        }
+        if (message instanceof UpdateProductCommand command) {
+            return updateSize(command);
+        }
+        if (message instanceof DeleteProductCommand command) {
+            return deleteSize(command);
+        }
+        if (message instanceof ProductCreatedEvent event) {
+            return sizeOf(event.getProduct());
+        }
+        if (message instanceof ProductUpdatedEvent event) {
+            return sizeOf(event.getProduct());
+        }
+        if (message instanceof ProductDeletedEvent event) {
+            return idSize(event.getProductId());
+        }
+        if (message instanceof List<?> products) {
+            return listSize(products);
+        }
+        throw unsupported(message);
+    }
+
+    private static void writeHeader(ByteBuffer buffer, byte type, int bodySize) {
+        buffer.put(type);
+        buffer.put(SCHEMA_VERSION);
+        writeVarint(buffer, bodySize);
+    }
+
+    private static int createSize(CreateProductCommand command) {
+        return stringSize(command.getName()) + stringSize(command.getDescription())
+                + 8 + varintSize(zigzag(command.getQuantity()));
+    }
+
+    private static int updateSize(UpdateProductCommand command) {
+        return idSize(command.getId()) + stringSize(command.getName()) + stringSize(command.getDescription())
+                + 8 + varintSize(zigzag(command.getQuantity())) + versionSize(command.getExpectedVersion());
+    }
+
+    private static int deleteSize(DeleteProductCommand command) {
+        return idSize(command.getId()) + versionSize(command.getExpectedVersion());
+    }
+
+    private static int listSize(List<?> products) {
+        int size = varintSize(products.size());
+        for (Object product : products) {
+            if (!(product instanceof Product)) {
+                throw unsupported(product);
+            }
+            size += sizeOf(product);
+        }
+        return size;
+    }
+
+    // Campos de Product, na ordem do esquema
+
+    private static int productSize(Product product) {
+        return idSize(product.getId()) + stringSize(product.getName()) + stringSize(product.getDescription())
+                + 8 + varintSize(zigzag(product.getQuantity())) + versionSize(product.getVersion());
+    }
+
+    private static void writeProduct(ByteBuffer buffer, Product product) {
+        writeId(buffer, product.getId());
+        writeString(buffer, product.getName());
+        writeString(buffer, product.getDescription());
+        buffer.putDouble(product.getPrice());
+        writeVarint(buffer, zigzag(product.getQuantity()));
+        writeVersion(buffer, product.getVersion());
+    }
+
+    private static Product readProduct(ByteBuffer buffer, int end) {
+        Product product = new Product();
+        product.setId(buffer.position() < end ? readId(buffer) : null);
+        product.setName(buffer.position() < end ? readString(buffer) : null);
+        product.setDescription(buffer.position() < end ? readString(buffer) : null);
+        product.setPrice(buffer.position() < end ? buffer.getDouble() : 0);
+        product.setQuantity(buffer.position() < end ? unzigzag(readVarint(buffer)) : 0);
+        product.setVersion(buffer.position() < end ? readVersion(buffer) : null);
+        return product;
+    }
+
+    // Ids: UUIDs canônicos em minúsculas viram os dois longs do ProductId; qualquer outro valor é gravado como texto
+
+    private static int idSize(String id) {
+        if (id == null) {
+            return 1;
+        }
+        return ProductId.isCanonical(id) ? 1 + 16 : 1 + stringSize(id);
+    }
+
+    private static void writeId(ByteBuffer buffer, String id) {
+        if (id == null) {
+            buffer.put(NULL_ID);
+        } else if (ProductId.isCanonical(id)) {
+            buffer.put(UUID_ID);
+            buffer.putLong(ProductId.high(id));
+            buffer.putLong(ProductId.low(id));
+        } else {
+            buffer.put(TEXT_ID);
+            writeString(buffer, id);
+        }
+    }
+
+    private static String readId(ByteBuffer buffer) {
+        return switch (buffer.get()) {
+            case NULL_ID -> null;
+            case UUID_ID -> ProductId.toString(buffer.getLong(), buffer.getLong());
+            case TEXT_ID -> readString(buffer);
+            default -> throw new IllegalArgumentException("Invalid id marker");
+        };
+    }
+
+    // Strings: varint de (tamanho UTF-8 + 1), com 0 para nulo, seguido dos bytes
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return 1;
+        }
+        int length = utf8Length(value);
+        return varintSize(length + 1) + length;
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        int length = utf8Length(value);
+        writeVarint(buffer, length + 1);
+        int i = 0;
+        if (length == value.length() && buffer.hasArray()) {
+            // Um byte por caractere: copia direto para o array do buffer, sem a checagem de limites a cada byte,
+            // até o primeiro caractere não ASCII (um surrogate isolado também ocupa um byte, mas vira '?')
+            if (length > buffer.remaining()) {
+                throw new BufferOverflowException();
+            }
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset() + buffer.position();
+            for (; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                array[offset + i] = (byte) c;
+            }
+            buffer.position(buffer.position() + i);
+            if (i == length) {
+                return;
+            }
+        }
+        // Codifica caractere a caractere no buffer, sem o array intermediário de getBytes
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                int codePoint = Character.codePointAt(value, i);
+                if (codePoint == c) {
+                    // Surrogate isolado: substituído por '?', como em String.getBytes
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) (0xF0 | codePoint >> 18));
+                    buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint & 0x3F));
+                    i++;
+                }
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readVarint(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        // O limite do buffer é o fim do registro; um tamanho maior vem de uma mensagem truncada ou forjada
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String of " + length + " bytes exceeds the "
+                    + buffer.remaining() + " bytes left in the message");
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isSurrogate(c)) {
+                    if (Character.codePointAt(value, i) != c) {
+                        // Par de surrogates: 2 chars, 4 bytes
+                        length += 2;
+                        i++;
+                    }
+                } else {
+                    length += 2;
+                }
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    // Versões opcionais: varint de (versão + 1), com 0 para nulo
+
+    private static int versionSize(Long version) {
+        return version == null ? 1 : varintSize(version + 1);
+    }
+
+    private static void writeVersion(ByteBuffer buffer, Long version) {
+        writeVarint(buffer, version == null ? 0 : version + 1);
+    }
+
+    private static Long readVersion(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        return value == 0 ? null : value - 1;
+    }
+
+    // Varints sem sinal, 7 bits por byte; inteiros com sinal passam antes por zigzag
+
+    private static long zigzag(int value) {
+        return Integer.toUnsignedLong(value << 1 ^ value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        return (int) readVarLong(buffer);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static IllegalArgumentException unsupported(Object message) {
+        return new IllegalArgumentException("Unsupported binary message type: "
+                + (message == null ? "null" : message.getClass().getName()));
+    }
+}
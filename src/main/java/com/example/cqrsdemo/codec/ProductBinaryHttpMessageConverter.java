@@ -0,0 +1,88 @@
+package com.example.cqrsdemo.codec;
+
+import com.example.cqrsdemo.domain.model.Product;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Expõe o {@link ProductBinaryCodec} nos endpoints REST: requisições com {@code Content-Type} ou
+ * {@code Accept} iguais a {@value #MEDIA_TYPE_VALUE} usam o formato binário em vez de JSON.
+ * Vale para produtos, listas de produtos e comandos; as demais respostas continuam em JSON.
+ * Deve ficar depois do conversor JSON, para que requisições sem um {@code Accept} específico continuem recebendo JSON.
+ */
+public class ProductBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-cqrs-binary";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    public ProductBinaryHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductBinaryCodec.supports(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return isProductList(type) ? canRead(mediaType) : super.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return isProductList(type) ? canWrite(mediaType) : super.canWrite(type, clazz, mediaType);
+    }
+
+    // Listas só são aceitas pelo tipo genérico, já verificado em canWrite
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        // Confere o tipo declarado: uma mensagem de outro tipo é um corpo inválido (400), não um erro no handler
+        return decode(inputMessage, ResolvableType.forType(type).resolve(Object.class));
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return decode(inputMessage, clazz);
+    }
+
+    @Override
+    protected void writeInternal(Object message, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        // O array tem o tamanho exato da resposta, então o Content-Length já é conhecido
+        byte[] body = ProductBinaryCodec.encode(message);
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    private Object decode(HttpInputMessage inputMessage, Class<?> type) throws IOException {
+        try {
+            return ProductBinaryCodec.decode(ByteBuffer.wrap(inputMessage.getBody().readAllBytes()), type);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new HttpMessageNotReadableException("Invalid binary message: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    private static boolean isProductList(@Nullable Type type) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && List.class.isAssignableFrom(raw)
+                && parameterized.getActualTypeArguments()[0] == Product.class;
+    }
+}
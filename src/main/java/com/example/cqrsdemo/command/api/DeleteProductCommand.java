@@ -3,6 +3,9 @@ package com.example.cqrsdemo.command.api;
 import lombok.Data;
 
 @Data
-public class DeleteProductCommand {
+public class DeleteProductCommand implements ProductCommand {
     private String id;
+
+    // Opcional: quando informada, o comando só é aplicado se a versão atual for esta
+    private Long expectedVersion;
 }
\ No newline at end of file
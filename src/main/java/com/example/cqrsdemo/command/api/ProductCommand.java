@@ -0,0 +1,9 @@
+package com.example.cqrsdemo.command.api;
+
+/**
+ * Comando direcionado a um produto existente, identificado por {@link #getId()}
+ */
+public interface ProductCommand {
+
+    String getId();
+}
@@ -3,10 +3,13 @@ package com.example.cqrsdemo.command.api;
 import lombok.Data;
 
 @Data
-public class UpdateProductCommand {
+public class UpdateProductCommand implements ProductCommand {
     private String id;
     private String name;
     private String description;
     private double price;
     private int quantity;
+
+    // Opcional: quando informada, o comando só é aplicado se a versão atual for esta
+    private Long expectedVersion;
 }
\ No newline at end of file
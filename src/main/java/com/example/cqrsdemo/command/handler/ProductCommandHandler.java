@@ -1,69 +1,155 @@
 package com.example.cqrsdemo.command.handler;
 
+import com.example.cqrsdemo.auditlog.FileEventAuditLog;
 import com.example.cqrsdemo.command.api.CreateProductCommand;
 import com.example.cqrsdemo.command.api.DeleteProductCommand;
 import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.domain.id.ProductIdGenerator;
 import com.example.cqrsdemo.domain.model.Product;
 import com.example.cqrsdemo.domain.repository.ProductRepository;
 import com.example.cqrsdemo.event.ProductCreatedEvent;
 import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductEvent;
+import com.example.cqrsdemo.event.ProductEventPublisher;
 import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.gateway.bus.CommandHandler;
+import com.example.cqrsdemo.metrics.OperationMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
+import java.util.Optional;
 
+@Slf4j
 @Service
 public class ProductCommandHandler {
 
+    private static final String STAGE_METRIC = "cqrs.command.stages";
+
     private final ProductRepository productRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final ProductEventPublisher eventPublisher;
+    private final FileEventAuditLog auditLog;
+    private final ProductIdGenerator idGenerator;
+
+    // Tempo de cada etapa do comando, em cqrs.command.stages
+    private final OperationMetrics repositoryMetrics;
+    private final OperationMetrics auditLogMetrics;
+    private final OperationMetrics publishMetrics;
 
     @Autowired
-    public ProductCommandHandler(ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
+    public ProductCommandHandler(ProductRepository productRepository, ProductEventPublisher eventPublisher,
+                                 @Nullable FileEventAuditLog auditLog, ProductIdGenerator idGenerator,
+                                 MeterRegistry meterRegistry) {
         this.productRepository = productRepository;
         this.eventPublisher = eventPublisher;
+        this.auditLog = auditLog;
+        this.idGenerator = idGenerator;
+        this.repositoryMetrics = OperationMetrics.of(meterRegistry, STAGE_METRIC, "stage", "repository");
+        this.auditLogMetrics = OperationMetrics.of(meterRegistry, STAGE_METRIC, "stage", "audit-log");
+        this.publishMetrics = OperationMetrics.of(meterRegistry, STAGE_METRIC, "stage", "publish");
     }
 
+    @CommandHandler
     public String handleCreateProductCommand(CreateProductCommand command) {
+        ProductCreatedEvent event = apply(command);
+
+        // Publicar evento
+        publish(event);
+
+        return event.getProductId();
+    }
+
+    @CommandHandler
+    public void handleUpdateProductCommand(UpdateProductCommand command) {
+        ProductUpdatedEvent event = apply(command);
+
+        // Publicar evento
+        publish(event);
+    }
+
+    @CommandHandler
+    public void handleDeleteProductCommand(DeleteProductCommand command) {
+        ProductDeletedEvent event = apply(command);
+
+        // Publicar evento
+        publish(event);
+    }
+
+    // Os métodos apply gravam no repositório e devolvem o evento sem publicá-lo,
+    // permitindo que um lote de comandos publique seus eventos só depois do commit
+
+    public ProductCreatedEvent apply(CreateProductCommand command) {
         Product product = new Product();
-        product.setId(UUID.randomUUID().toString());
+        product.setId(idGenerator.nextId());
         product.setName(command.getName());
         product.setDescription(command.getDescription());
         product.setPrice(command.getPrice());
         product.setQuantity(command.getQuantity());
 
-        productRepository.save(product);
+        repositoryMetrics.record(() -> productRepository.save(product));
 
-        // Publicar evento
-        eventPublisher.publishEvent(new ProductCreatedEvent(product));
-
-        return product.getId();
+        return new ProductCreatedEvent(product);
     }
 
-    public void handleUpdateProductCommand(UpdateProductCommand command) {
-        Product product = productRepository.findById(command.getId())
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + command.getId()));
+    public ProductUpdatedEvent apply(UpdateProductCommand command) {
+        // Atualização cega: um único UPDATE, sem carregar a entidade antes. O evento leva sempre a versão confirmada:
+        // a esperada + 1, ou a lida de volta na transação do UPDATE quando não há versão esperada
+        Long expectedVersion = command.getExpectedVersion();
+        Optional<Long> version = repositoryMetrics.record(() -> expectedVersion == null
+                ? productRepository.updateAndGetVersion(command.getId(), command.getName(), command.getDescription(),
+                        command.getPrice(), command.getQuantity())
+                : productRepository.updateByIdAndVersion(command.getId(), command.getName(), command.getDescription(),
+                        command.getPrice(), command.getQuantity(), expectedVersion) == 0
+                        ? Optional.empty() : Optional.of(expectedVersion + 1));
+        if (version.isEmpty()) {
+            throw notFoundOrConflict(command.getId(), expectedVersion);
+        }
 
+        Product product = new Product();
+        product.setId(command.getId());
         product.setName(command.getName());
         product.setDescription(command.getDescription());
         product.setPrice(command.getPrice());
         product.setQuantity(command.getQuantity());
+        product.setVersion(version.get());
 
-        productRepository.save(product);
-
-        // Publicar evento
-        eventPublisher.publishEvent(new ProductUpdatedEvent(product));
+        return new ProductUpdatedEvent(product);
     }
 
-    public void handleDeleteProductCommand(DeleteProductCommand command) {
-        Product product = productRepository.findById(command.getId())
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + command.getId()));
+    public ProductDeletedEvent apply(DeleteProductCommand command) {
+        Long expectedVersion = command.getExpectedVersion();
+        int deleted = repositoryMetrics.record(() -> expectedVersion == null
+                ? productRepository.deleteProductById(command.getId())
+                : productRepository.deleteProductByIdAndVersion(command.getId(), expectedVersion));
+        if (deleted == 0) {
+            throw notFoundOrConflict(command.getId(), expectedVersion);
+        }
 
-        productRepository.delete(product);
+        return new ProductDeletedEvent(command.getId());
+    }
 
-        // Publicar evento
-        eventPublisher.publishEvent(new ProductDeletedEvent(command.getId()));
+    public void publish(ProductEvent event) {
+        // O log de auditoria, quando ativo, recebe uma cópia do evento antes dos assinantes. O banco já confirmou
+        // a escrita, então uma falha no log não pode impedir que as projeções vejam o evento
+        if (auditLog != null) {
+            try {
+                auditLogMetrics.record(() -> auditLog.append(event));
+            } catch (RuntimeException e) {
+                log.error("Could not append event for product {} to the audit log", event.getProductId(), e);
+            }
+        }
+        publishMetrics.record(() -> eventPublisher.publish(event));
+    }
+
+    // Só consulta o banco no caminho de falha, para distinguir conflito de versão de produto inexistente
+    private RuntimeException notFoundOrConflict(String id, Long expectedVersion) {
+        if (expectedVersion != null && productRepository.existsById(id)) {
+            return new OptimisticLockingFailureException(
+                    "Product " + id + " was modified concurrently, expected version " + expectedVersion);
+        }
+        return new RuntimeException("Product not found with id: " + id);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,69 @@
 package com.example.cqrsdemo.config;
 
+import com.example.cqrsdemo.auditlog.FileEventAuditLog;
+import com.example.cqrsdemo.codec.ProductBinaryHttpMessageConverter;
+import com.example.cqrsdemo.domain.id.ProductIdGenerator;
+import com.example.cqrsdemo.domain.id.TimeOrderedProductIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
+@EnableCaching
 @EnableJpaRepositories(basePackages = "com.example.cqrsdemo.domain.repository")
-public class CqrsConfig {
+public class CqrsConfig implements WebMvcConfigurer {
     // Configurações adicionais podem ser adicionadas aqui
-}
\ No newline at end of file
+
+    public static final String ASYNC_EXECUTOR = "cqrsAsyncExecutor";
+
+    // Uma thread virtual por tarefa: envios assíncronos do gateway e respostas assíncronas do Spring MVC
+    @Bean(name = ASYNC_EXECUTOR, destroyMethod = "close")
+    public ExecutorService cqrsAsyncExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cqrs-async-", 0).factory());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(cqrsAsyncExecutor()));
+    }
+
+    // Depois dos conversores padrão: o formato binário só é usado quando pedido explicitamente
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ProductBinaryHttpMessageConverter());
+    }
+
+    // Ids UUIDv7 crescentes; uma aplicação pode registrar o seu próprio ProductIdGenerator
+    @Bean
+    @ConditionalOnMissingBean
+    public ProductIdGenerator productIdGenerator() {
+        return new TimeOrderedProductIdGenerator();
+    }
+
+    // Log de auditoria em disco; quando ativo, o lado de comando copia cada evento para ele após o commit
+    @Bean
+    @ConditionalOnProperty(name = "cqrs.audit-log.enabled", havingValue = "true")
+    public FileEventAuditLog fileEventAuditLog(@Value("${cqrs.audit-log.directory:data/audit-log}") String directory,
+                                               @Value("${cqrs.audit-log.segment-size:64MB}") DataSize segmentSize,
+                                               @Value("${cqrs.audit-log.fsync-batch-size:1000}") int fsyncBatchSize,
+                                               @Value("${cqrs.audit-log.fsync-interval:10ms}") Duration fsyncInterval,
+                                               @Value("${cqrs.audit-log.snapshot-every:100}") int snapshotEvery) {
+        return new FileEventAuditLog(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), fsyncBatchSize,
+                fsyncInterval, snapshotEvery);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.cqrsdemo.controller;
+
+import com.example.cqrsdemo.codec.ProductBinaryHttpMessageConverter;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Acrescenta a variante binária ao ETag quando a negociação de conteúdo escolhe o
+ * {@link ProductBinaryHttpMessageConverter}: os controllers definem o ETag antes de saber qual conversor
+ * vai escrever a resposta, e o JSON e o formato binário de uma mesma versão não podem dividir um ETag forte.
+ */
+@ControllerAdvice
+public class BinaryETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return ProductBinaryHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(@Nullable Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        String etag = response.getHeaders().getETag();
+        if (etag == null) {
+            return body;
+        }
+        String binaryETag = ProductETags.withVariant(etag, ProductETags.BINARY_VARIANT);
+        // A verificação de pré-condições do Spring já copiou o ETag para a resposta do servlet; ele é substituído lá
+        // e retirado dos cabeçalhos pendentes, que seriam acrescentados como um segundo valor
+        if (response instanceof ServletServerHttpResponse servletResponse) {
+            response.getHeaders().remove(HttpHeaders.ETAG);
+            servletResponse.getServletResponse().setHeader(HttpHeaders.ETAG, binaryETag);
+        } else {
+            response.getHeaders().setETag(binaryETag);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.cqrsdemo.controller;
+
+import com.example.cqrsdemo.codec.ProductBinaryHttpMessageConverter;
+import com.example.cqrsdemo.query.api.EncodedProduct;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Respostas montadas a partir do JSON guardado pelo cache de produtos: o array é escrito como está,
+ * sem passar pelo Jackson. A variante comprimida só é usada quando o cliente aceita gzip.
+ */
+public final class EncodedProductResponses {
+
+    private EncodedProductResponses() {
+    }
+
+    // Pedidos sem Accept ou que aceitam JSON; quem pede o formato binário segue pelo caminho normal
+    public static boolean acceptsJson(@Nullable String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        boolean json = false;
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.equalsTypeAndSubtype(ProductBinaryHttpMessageConverter.MEDIA_TYPE)) {
+                return false;
+            }
+            json |= mediaType.isCompatibleWith(MediaType.APPLICATION_JSON);
+        }
+        return json;
+    }
+
+    public static ResponseEntity<byte[]> of(EncodedProduct encoded, @Nullable String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        byte[] body = encoded.json();
+        boolean gzipped = false;
+        if (encoded.gzippedJson() != null) {
+            response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(acceptEncoding)) {
+                body = encoded.gzippedJson();
+                gzipped = true;
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
+        // Os bytes comprimidos são outra representação e precisam de um ETag forte próprio
+        if (encoded.version() != null) {
+            String etag = ProductETags.ofProduct(encoded.version());
+            response.eTag(gzipped ? ProductETags.withVariant(etag, ProductETags.GZIP_VARIANT) : etag);
+        }
+        return response.contentLength(body.length).body(body);
+    }
+
+    static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip") || name.equals("*")) {
+                return !hasZeroQuality(parts);
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
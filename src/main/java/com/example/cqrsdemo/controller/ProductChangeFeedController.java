@@ -0,0 +1,53 @@
+package com.example.cqrsdemo.controller;
+
+import com.example.cqrsdemo.query.feed.ProductChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+// Feed de alterações em Server-Sent Events; a escrita acontece na thread virtual de cada assinante
+@RestController
+@RequestMapping("/api/products/queries")
+public class ProductChangeFeedController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final ProductChangeFeed changeFeed;
+    private final long timeoutMillis;
+
+    @Autowired
+    public ProductChangeFeedController(ProductChangeFeed changeFeed,
+                                       @Value("${cqrs.change-feed.timeout:30m}") Duration timeout) {
+        this.changeFeed = changeFeed;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    // O navegador reenvia Last-Event-ID ao reconectar; "after" permite retomar explicitamente
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId,
+                              @RequestParam(value = "after", required = false) String after) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        changeFeed.subscribe(parseOffset(lastEventId != null ? lastEventId : after), emitter);
+        return emitter;
+    }
+
+    // Um offset ilegível não pode ser retomado: -1 faz o feed responder com reset
+    private static Long parseOffset(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -3,41 +3,44 @@ package com.example.cqrsdemo.controller;
 import com.example.cqrsdemo.command.api.CreateProductCommand;
 import com.example.cqrsdemo.command.api.DeleteProductCommand;
 import com.example.cqrsdemo.command.api.UpdateProductCommand;
-import com.example.cqrsdemo.command.handler.ProductCommandHandler;
+import com.example.cqrsdemo.gateway.CqrsApiGateway;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
+// Respostas assíncronas: a thread do Tomcat é liberada enquanto o comando executa numa thread virtual
 @RestController
 @RequestMapping("/api/products/commands")
 public class ProductCommandController {
 
-    private final ProductCommandHandler commandHandler;
+    private final CqrsApiGateway apiGateway;
 
     @Autowired
-    public ProductCommandController(ProductCommandHandler commandHandler) {
-        this.commandHandler = commandHandler;
+    public ProductCommandController(CqrsApiGateway apiGateway) {
+        this.apiGateway = apiGateway;
     }
 
     @PostMapping
-    public ResponseEntity<String> createProduct(@RequestBody CreateProductCommand command) {
-        String productId = commandHandler.handleCreateProductCommand(command);
-        return new ResponseEntity<>(productId, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<String>> createProduct(@RequestBody CreateProductCommand command) {
+        return apiGateway.sendCommandAsync(command)
+                .thenApply(productId -> new ResponseEntity<>(productId, HttpStatus.CREATED));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Void> updateProduct(@PathVariable String id, @RequestBody UpdateProductCommand command) {
+    public CompletableFuture<ResponseEntity<Void>> updateProduct(@PathVariable String id, @RequestBody UpdateProductCommand command) {
         command.setId(id);
-        commandHandler.handleUpdateProductCommand(command);
-        return new ResponseEntity<>(HttpStatus.OK);
+        return apiGateway.sendCommandAsync(command)
+                .thenApply(ignored -> new ResponseEntity<>(HttpStatus.OK));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable String id) {
+    public CompletableFuture<ResponseEntity<Void>> deleteProduct(@PathVariable String id) {
         DeleteProductCommand command = new DeleteProductCommand();
         command.setId(id);
-        commandHandler.handleDeleteProductCommand(command);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        return apiGateway.sendCommandAsync(command)
+                .thenApply(ignored -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.example.cqrsdemo.controller;
+
+import org.springframework.http.ETag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+/**
+ * ETags fortes das consultas de produto e a comparação com {@code If-None-Match}.
+ * Um produto usa a própria versão; as consultas sobre o catálogo usam a versão do catálogo,
+ * lida antes da consulta para que a resposta nunca seja mais antiga que o ETag que a acompanha.
+ * Cada representação de uma mesma versão tem o seu ETag: o JSON usa a versão pura e as demais um sufixo
+ * ({@code "p5-bin"} para o formato binário, {@code "p5-gz"} para o JSON comprimido), já que um ETag forte promete bytes idênticos.
+ * Para responder 304 basta a versão coincidir, qualquer que seja a representação guardada pelo cliente.
+ */
+public final class ProductETags {
+
+    public static final String BINARY_VARIANT = "bin";
+    public static final String GZIP_VARIANT = "gz";
+
+    private static final char VARIANT_SEPARATOR = '-';
+
+    private ProductETags() {
+    }
+
+    public static String ofProduct(long version) {
+        return "\"p" + version + "\"";
+    }
+
+    public static String ofCatalog(long version) {
+        return "\"c" + version + "\"";
+    }
+
+    // "p5" -> "p5-bin"
+    public static String withVariant(String etag, String variant) {
+        return ETag.quoteETagIfNecessary(ETag.create(etag).tag() + VARIANT_SEPARATOR + variant);
+    }
+
+    // Comparação fraca, como a RFC 9110 define para If-None-Match, sem considerar a representação
+    public static boolean matches(@Nullable String ifNoneMatch, String etag) {
+        return matching(ifNoneMatch, etag) != null;
+    }
+
+    /**
+     * 304 com o ETag da representação que o cliente já tem: a versão atual com a variante do candidato aceito.
+     */
+    public static <T> ResponseEntity<T> notModified(@Nullable String ifNoneMatch, String etag) {
+        ETag candidate = matching(ifNoneMatch, etag);
+        String variant = candidate == null || candidate.isWildcard() ? null : variantOf(candidate.tag());
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(variant == null ? etag : withVariant(etag, variant))
+                .build();
+    }
+
+    @Nullable
+    private static ETag matching(@Nullable String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String current = versionOf(ETag.create(etag).tag());
+        for (ETag candidate : ETag.parse(ifNoneMatch)) {
+            if (candidate.isWildcard() || versionOf(candidate.tag()).equals(current)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String versionOf(String tag) {
+        int separator = tag.indexOf(VARIANT_SEPARATOR);
+        return separator < 0 ? tag : tag.substring(0, separator);
+    }
+
+    @Nullable
+    private static String variantOf(String tag) {
+        int separator = tag.indexOf(VARIANT_SEPARATOR);
+        return separator < 0 ? null : tag.substring(separator + 1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cqrsdemo.domain.id;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Id de produto de 128 bits em dois longs, com o layout de um UUID.
+ * Converte de e para o texto canônico (36 caracteres hexadecimais minúsculos) sem objetos intermediários,
+ * para que índices e formatos binários guardem e comparem ids sem passar pela String.
+ * A ordem natural é a numérica sem sinal, igual à ordem do texto canônico; ids UUIDv7 ficam em ordem de criação.
+ */
+public record ProductId(long high, long low) implements Comparable<ProductId> {
+
+    public static final int TEXT_LENGTH = 36;
+
+    private static final byte[] HEX_DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(HEX_DIGITS, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_DIGITS["0123456789abcdef".charAt(i)] = (byte) i;
+        }
+    }
+
+    /**
+     * Id correspondente ao texto, ou {@code null} se ele não for um UUID canônico em minúsculas.
+     */
+    public static ProductId tryParse(String text) {
+        return isCanonical(text) ? new ProductId(high(text), low(text)) : null;
+    }
+
+    // Só o formato de UUID.toString() é aceito, para que a conversão de volta devolva exatamente o texto original
+    public static boolean isCanonical(String text) {
+        return text != null && text.length() == TEXT_LENGTH
+                && text.charAt(8) == '-' && text.charAt(13) == '-' && text.charAt(18) == '-' && text.charAt(23) == '-'
+                && parseHex(text, 0, 8) >= 0 && parseHex(text, 9, 13) >= 0 && parseHex(text, 14, 18) >= 0
+                && parseHex(text, 19, 23) >= 0 && parseHex(text, 24, 36) >= 0;
+    }
+
+    // Metades de um texto já validado por isCanonical, sem alocar
+
+    public static long high(String text) {
+        return parseHex(text, 0, 8) << 32 | parseHex(text, 9, 13) << 16 | parseHex(text, 14, 18);
+    }
+
+    public static long low(String text) {
+        return parseHex(text, 19, 23) << 48 | parseHex(text, 24, 36);
+    }
+
+    public static String toString(long high, long low) {
+        return new UUID(high, low).toString();
+    }
+
+    /**
+     * Milissegundos desde a época gravados num id UUIDv7.
+     */
+    public long timestamp() {
+        return high >>> 16;
+    }
+
+    public int version() {
+        return (int) (high >>> 12) & 0xF;
+    }
+
+    @Override
+    public int compareTo(ProductId other) {
+        int result = Long.compareUnsigned(high, other.high);
+        return result != 0 ? result : Long.compareUnsigned(low, other.low);
+    }
+
+    @Override
+    public String toString() {
+        return toString(high, low);
+    }
+
+    // Até 12 dígitos hexadecimais minúsculos; -1 se houver outro caractere
+    private static long parseHex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            int digit = c < HEX_DIGITS.length ? HEX_DIGITS[c] : -1;
+            if (digit < 0) {
+                return -1;
+            }
+            result = result << 4 | digit;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.cqrsdemo.domain.id;
+
+/**
+ * Origem dos ids de produtos criados pelo lado de comando.
+ * O padrão é o {@link TimeOrderedProductIdGenerator}; um bean deste tipo no contexto o substitui.
+ */
+@FunctionalInterface
+public interface ProductIdGenerator {
+
+    /**
+     * Novo id, único entre todas as instâncias do serviço. Ids no formato canônico de
+     * {@link ProductId} ocupam 16 bytes nos formatos binários; outros textos também são aceitos.
+     */
+    String nextId();
+}
@@ -0,0 +1,52 @@
+package com.example.cqrsdemo.domain.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ids UUIDv7 (RFC 9562): 48 bits de milissegundos desde a época, a versão, 12 bits de contador e 62 bits aleatórios.
+ * O contador mantém os ids estritamente crescentes dentro do processo, inclusive entre threads; quando ele se esgota
+ * no mesmo milissegundo, o gerador avança o milissegundo lógico em vez de esperar o relógio.
+ * Ids crescentes entram no fim dos índices do banco em vez de dividir páginas no meio.
+ * A parte aleatória vem de {@link ThreadLocalRandom}, sem bloquear na fonte de entropia: os ids são únicos, não secretos.
+ */
+public class TimeOrderedProductIdGenerator implements ProductIdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long IETF_VARIANT = 0x8000000000000000L;
+
+    private final LongSupplier clock;
+
+    // Último milissegundo lógico e contador, como (milissegundo << 12 | contador); avança por CAS, sem locks
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedProductIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedProductIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextId() {
+        return next().toString();
+    }
+
+    public ProductId next() {
+        long now = clock.getAsLong() << COUNTER_BITS;
+        long current;
+        long next;
+        do {
+            current = last.get();
+            // Relógio parado ou voltando só incrementa o contador, que transborda para o milissegundo
+            next = Math.max(now, current + 1);
+        } while (!last.compareAndSet(current, next));
+
+        long high = (next >>> COUNTER_BITS) << 16 | VERSION_7 | next & ((1L << COUNTER_BITS) - 1);
+        long low = ThreadLocalRandom.current().nextLong() >>> 2 | IETF_VARIANT;
+        return new ProductId(high, low);
+    }
+}
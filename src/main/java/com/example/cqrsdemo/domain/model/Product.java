@@ -8,7 +8,6 @@ import lombok.Data;
 @Table(name = "products")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
 
     @Column(nullable = false)
@@ -22,4 +21,8 @@ public class Product {
 
     @Column(nullable = false)
     private int quantity;
+
+    // Controle de concorrência otimista; incrementado a cada atualização
+    @Version
+    private Long version;
 }
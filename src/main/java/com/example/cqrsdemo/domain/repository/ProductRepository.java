@@ -2,6 +2,50 @@ package com.example.cqrsdemo.domain.repository;
 
 import com.example.cqrsdemo.domain.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, String> {
+
+    // Escritas em um único comando SQL, sem leitura prévia; devolvem a quantidade de linhas afetadas
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.name = :name, p.description = :description, p.price = :price, "
+            + "p.quantity = :quantity, p.version = coalesce(p.version, 0) + 1 where p.id = :id")
+    int updateById(@Param("id") String id, @Param("name") String name, @Param("description") String description,
+                   @Param("price") double price, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.name = :name, p.description = :description, p.price = :price, "
+            + "p.quantity = :quantity, p.version = p.version + 1 where p.id = :id and p.version = :version")
+    int updateByIdAndVersion(@Param("id") String id, @Param("name") String name, @Param("description") String description,
+                             @Param("price") double price, @Param("quantity") int quantity, @Param("version") long version);
+
+    @Query("select p.version from Product p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") String id);
+
+    /**
+     * Atualização cega que devolve a versão confirmada, ou vazio se o produto não existe. A leitura acontece
+     * na mesma transação do UPDATE, enquanto a linha ainda está bloqueada, então é a versão gravada por ele.
+     */
+    @Transactional
+    default Optional<Long> updateAndGetVersion(String id, String name, String description, double price, int quantity) {
+        return updateById(id, name, description, price, quantity) == 0 ? Optional.empty() : findVersionById(id);
+    }
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(@Param("id") String id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id = :id and p.version = :version")
+    int deleteProductByIdAndVersion(@Param("id") String id, @Param("version") long version);
 }
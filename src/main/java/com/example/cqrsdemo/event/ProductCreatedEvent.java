@@ -5,11 +5,16 @@ import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
 
 @Getter
-public class ProductCreatedEvent extends ApplicationEvent {
+public class ProductCreatedEvent extends ApplicationEvent implements ProductEvent {
     private final Product product;
 
     public ProductCreatedEvent(Product product) {
         super(product);
         this.product = product;
     }
+
+    @Override
+    public String getProductId() {
+        return product.getId();
+    }
 }
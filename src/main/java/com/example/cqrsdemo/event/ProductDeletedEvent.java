@@ -4,7 +4,7 @@ import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
 
 @Getter
-public class ProductDeletedEvent extends ApplicationEvent {
+public class ProductDeletedEvent extends ApplicationEvent implements ProductEvent {
     private final String productId;
 
     public ProductDeletedEvent(String productId) {
@@ -0,0 +1,8 @@
+package com.example.cqrsdemo.event;
+
+/**
+ * Contrato comum dos eventos de produto; o id identifica o agregado afetado
+ */
+public interface ProductEvent {
+    String getProductId();
+}
@@ -0,0 +1,8 @@
+package com.example.cqrsdemo.event;
+
+/**
+ * Ponto único de publicação dos eventos de produto pelo lado de comando
+ */
+public interface ProductEventPublisher {
+    void publish(ProductEvent event);
+}
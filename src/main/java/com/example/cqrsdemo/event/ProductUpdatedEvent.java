@@ -5,11 +5,16 @@ import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
 
 @Getter
-public class ProductUpdatedEvent extends ApplicationEvent {
+public class ProductUpdatedEvent extends ApplicationEvent implements ProductEvent {
     private final Product product;
 
     public ProductUpdatedEvent(Product product) {
         super(product);
         this.product = product;
     }
-}
\ No newline at end of file
+
+    @Override
+    public String getProductId() {
+        return product.getId();
+    }
+}
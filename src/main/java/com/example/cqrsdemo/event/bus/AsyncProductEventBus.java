@@ -0,0 +1,243 @@
+package com.example.cqrsdemo.event.bus;
+
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductEvent;
+import com.example.cqrsdemo.event.ProductEventPublisher;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Barramento assíncrono de eventos de produto.
+ * Cada evento é encaminhado para uma faixa (lane) escolhida pelo id do produto; cada faixa
+ * tem um buffer circular limitado e uma única thread consumidora, o que preserva a ordem
+ * por produto. A thread do comando apenas enfileira, então a latência do comando não
+ * depende da quantidade de listeners registrados.
+ *
+ * <p>A thread da faixa retira até {@code batchSize} eventos da fila de uma vez, para pagar o
+ * custo de sincronização da fila uma vez por lote; a entrega aos listeners continua sendo um
+ * {@code publishEvent} por evento.
+ *
+ * <p>O evento chega aqui depois do commit, então uma rejeição não pode virar erro para o cliente.
+ * Quando a contrapressão descarta ou rejeita um evento (fila cheia em {@code DROP_OLDEST} ou
+ * {@code FAIL_FAST}, interrupção em {@code BLOCK}), o descarte é contado e o produto é marcado
+ * para reparo: assim que a faixa esvazia, a thread dela lê o estado atual do produto no banco e
+ * entrega um {@link ProductUpdatedEvent} (ou {@link ProductDeletedEvent}, se ele não existe mais),
+ * depois de todos os eventos que já estavam na fila.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cqrs.event-bus.async", havingValue = "true", matchIfMissing = true)
+public class AsyncProductEventBus implements ProductEventPublisher, SmartLifecycle {
+
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long STOP_TIMEOUT_MS = 5_000;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductRepository productRepository;
+    private final BackpressurePolicy backpressure;
+    private final int batchSize;
+    private final boolean virtualThreads;
+    private final List<Lane> lanes;
+    private final List<Thread> workers = new ArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean running;
+
+    @Autowired
+    public AsyncProductEventBus(ApplicationEventPublisher eventPublisher, ProductRepository productRepository,
+                                @Value("${cqrs.event-bus.lanes:0}") int lanes,
+                                @Value("${cqrs.event-bus.capacity:1024}") int capacity,
+                                @Value("${cqrs.event-bus.batch-size:256}") int batchSize,
+                                @Value("${cqrs.event-bus.backpressure:BLOCK}") BackpressurePolicy backpressure,
+                                @Value("${cqrs.event-bus.virtual-threads:true}") boolean virtualThreads) {
+        this.eventPublisher = eventPublisher;
+        this.productRepository = productRepository;
+        this.backpressure = backpressure;
+        this.batchSize = Math.max(1, batchSize);
+        this.virtualThreads = virtualThreads;
+
+        int laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            this.lanes.add(new Lane(new ArrayBlockingQueue<>(capacity)));
+        }
+    }
+
+    @Override
+    public void publish(ProductEvent event) {
+        Lane lane = lanes.get(laneOf(event.getProductId()));
+        switch (backpressure) {
+            case BLOCK -> {
+                try {
+                    lane.events.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    reject(lane, event, "publisher was interrupted");
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!lane.events.offer(event)) {
+                    ProductEvent oldest = lane.events.poll();
+                    if (oldest != null) {
+                        reject(lane, oldest, "lane is full");
+                    }
+                }
+            }
+            case FAIL_FAST -> {
+                if (!lane.events.offer(event)) {
+                    reject(lane, event, "lane is full");
+                }
+            }
+        }
+    }
+
+    // Eventos descartados ou rejeitados pela contrapressão
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    public int getPendingEvents() {
+        return lanes.stream().mapToInt(lane -> lane.events.size()).sum();
+    }
+
+    // Produtos aguardando reparo a partir do banco
+    public int getPendingRepairs() {
+        return lanes.stream().mapToInt(lane -> lane.repairs.size()).sum();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread.Builder builder = virtualThreads
+                ? Thread.ofVirtual().name("product-event-bus-", 0)
+                : Thread.ofPlatform().daemon().name("product-event-bus-", 0);
+        for (Lane lane : lanes) {
+            workers.add(builder.start(() -> drain(lane)));
+        }
+    }
+
+    // Encerra os consumidores depois de entregar o que já estava enfileirado e os reparos pendentes
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Inicia antes e para depois do servidor web, para que comandos em andamento ainda publiquem
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void drain(Lane lane) {
+        List<ProductEvent> batch = new ArrayList<>(batchSize);
+        while (running || !lane.events.isEmpty() || !lane.repairs.isEmpty()) {
+            try {
+                ProductEvent first = lane.events.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    lane.events.drainTo(batch, batchSize - 1);
+                    for (ProductEvent event : batch) {
+                        deliver(event);
+                    }
+                }
+                // Com a fila vazia, tudo que foi enfileirado antes do descarte já foi entregue e o estado
+                // lido do banco não é mais antigo que o dos eventos entregues
+                if (lane.events.isEmpty()) {
+                    repair(lane);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void reject(Lane lane, ProductEvent event, String reason) {
+        dropped.increment();
+        lane.repairs.add(event.getProductId());
+        log.warn("Event bus dropped {} for product {} ({}); it will be repaired from the database",
+                event.getClass().getSimpleName(), event.getProductId(), reason);
+    }
+
+    private void repair(Lane lane) {
+        for (Iterator<String> it = lane.repairs.iterator(); it.hasNext(); ) {
+            String productId = it.next();
+            it.remove();
+            ProductEvent current;
+            try {
+                current = productRepository.findById(productId)
+                        .<ProductEvent>map(ProductUpdatedEvent::new)
+                        .orElseGet(() -> new ProductDeletedEvent(productId));
+            } catch (RuntimeException e) {
+                log.error("Could not repair product {}; its projections stay stale until the read model is rebuilt",
+                        productId, e);
+                continue;
+            }
+            deliver(current);
+        }
+    }
+
+    private void deliver(ProductEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            // Uma falha de listener não pode derrubar a faixa nem bloquear os próximos eventos
+            log.error("Failed to deliver event {} for product {}", event.getClass().getSimpleName(),
+                    event.getProductId(), e);
+        }
+    }
+
+    private int laneOf(String productId) {
+        int hash = Objects.hashCode(productId);
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.size());
+    }
+
+    // Fila da faixa e produtos que perderam eventos nela
+    private static final class Lane {
+        private final BlockingQueue<ProductEvent> events;
+        private final Set<String> repairs = ConcurrentHashMap.newKeySet();
+
+        Lane(BlockingQueue<ProductEvent> events) {
+            this.events = events;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.cqrsdemo.event.bus;
+
+/**
+ * Comportamento do barramento quando a fila de uma faixa está cheia
+ */
+public enum BackpressurePolicy {
+    // Bloqueia o publicador até haver espaço
+    BLOCK,
+    // Descarta o evento mais antigo da faixa para abrir espaço; o produto dele é reparado a partir do banco
+    DROP_OLDEST,
+    // Rejeita o evento imediatamente, sem esperar; o produto é reparado a partir do banco
+    FAIL_FAST
+}
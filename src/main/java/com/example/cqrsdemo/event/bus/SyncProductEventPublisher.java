@@ -0,0 +1,29 @@
+package com.example.cqrsdemo.event.bus;
+
+import com.example.cqrsdemo.event.ProductEvent;
+import com.example.cqrsdemo.event.ProductEventPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publicação síncrona: os listeners executam na thread do comando.
+ * Útil em testes que dependem de leitura imediata após a escrita.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-bus.async", havingValue = "false")
+public class SyncProductEventPublisher implements ProductEventPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public SyncProductEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void publish(ProductEvent event) {
+        eventPublisher.publishEvent(event);
+    }
+}
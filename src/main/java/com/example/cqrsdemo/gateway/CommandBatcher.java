@@ -0,0 +1,275 @@
+package com.example.cqrsdemo.gateway;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.command.handler.ProductCommandHandler;
+import com.example.cqrsdemo.event.ProductEvent;
+import com.example.cqrsdemo.gateway.bus.MessageInterceptor;
+import com.example.cqrsdemo.gateway.bus.MessageInvoker;
+import com.example.cqrsdemo.gateway.bus.MessageKind;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa comandos concorrentes (group commit).
+ * Os comandos que chegam dentro da janela configurada, ou até o tamanho máximo do lote,
+ * são gravados numa única transação; cada chamador recebe seu próprio resultado ou erro.
+ * Um único consumidor executa os lotes em sequência, preservando a ordem de chegada.
+ * Atua como o interceptador mais interno do MessageBus, no lugar do handler dos comandos de produto.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "cqrs.gateway.batching.enabled", havingValue = "true")
+public class CommandBatcher implements SmartLifecycle, MessageInterceptor {
+
+    private static final Set<Class<?>> BATCHED_COMMANDS =
+            Set.of(CreateProductCommand.class, UpdateProductCommand.class, DeleteProductCommand.class);
+
+    private final ProductCommandHandler commandHandler;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final BlockingQueue<PendingCommand> queue;
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public CommandBatcher(ProductCommandHandler commandHandler,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${cqrs.gateway.batching.max-batch-size:64}") int maxBatchSize,
+                          @Value("${cqrs.gateway.batching.window:2ms}") Duration window,
+                          @Value("${cqrs.gateway.batching.queue-capacity:10000}") int queueCapacity) {
+        this.commandHandler = commandHandler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.windowNanos = window.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public MessageInvoker intercept(MessageKind kind, Class<?> messageType, MessageInvoker next) {
+        return kind == MessageKind.COMMAND && BATCHED_COMMANDS.contains(messageType) ? this::execute : next;
+    }
+
+    /**
+     * Enfileira o comando e bloqueia até o commit do lote em que ele foi incluído.
+     * Antes de {@link #start()} ou depois de {@link #stop()} não há consumidor, e o comando é executado
+     * isoladamente na thread do chamador. Exceções do comando são relançadas na thread do chamador.
+     */
+    public Object execute(Object command) {
+        PendingCommand pending = new PendingCommand(command);
+        if (!enqueue(pending)) {
+            executeIndividually(pending);
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("command-batcher").start(this::run);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Para antes do barramento de eventos, para que os eventos do último lote ainda sejam entregues
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    // Falso se não há consumidor; nesse caso o comando não ficou na fila
+    private boolean enqueue(PendingCommand pending) {
+        try {
+            // Com a fila cheia, espera em intervalos curtos para perceber a parada do consumidor
+            while (running) {
+                if (queue.offer(pending, 100, TimeUnit.MILLISECONDS)) {
+                    // O consumidor pode ter terminado entre a verificação e a inserção; se já o retirou da fila,
+                    // o comando foi executado ou recusado por ele
+                    return running || !queue.remove(pending);
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while submitting command", e);
+        }
+    }
+
+    private void run() {
+        List<PendingCommand> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    collect(batch);
+                    flush(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    reject(batch);
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Unexpected failure while flushing command batch", e);
+                    batch.forEach(pending -> pending.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            // Nenhum chamador fica esperando por um comando que não será mais executado
+            queue.drainTo(batch);
+            reject(batch);
+        }
+    }
+
+    private static void reject(List<PendingCommand> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        RejectedExecutionException error = new RejectedExecutionException("Command batcher stopped before executing the command");
+        pending.forEach(command -> command.result.completeExceptionally(error));
+    }
+
+    // Aguarda mais comandos até fechar a janela ou encher o lote
+    private void collect(List<PendingCommand> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingCommand next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingCommand> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingCommand pending : batch) {
+                    try {
+                        pending.event = apply(pending.command);
+                    } catch (RuntimeException e) {
+                        pending.error = e;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // O commit do lote falhou: cada comando é repetido isoladamente para isolar o erro
+            log.warn("Batched commit of {} commands failed, retrying individually", batch.size(), e);
+            batch.forEach(this::executeIndividually);
+            return;
+        }
+
+        // Eventos só são publicados depois do commit
+        for (PendingCommand pending : batch) {
+            if (pending.error != null) {
+                pending.result.completeExceptionally(pending.error);
+                continue;
+            }
+            commandHandler.publish(pending.event);
+            pending.result.complete(pending.command instanceof CreateProductCommand ? pending.event.getProductId() : null);
+        }
+    }
+
+    private void executeIndividually(PendingCommand pending) {
+        try {
+            if (pending.command instanceof CreateProductCommand create) {
+                pending.result.complete(commandHandler.handleCreateProductCommand(create));
+            } else if (pending.command instanceof UpdateProductCommand update) {
+                commandHandler.handleUpdateProductCommand(update);
+                pending.result.complete(null);
+            } else if (pending.command instanceof DeleteProductCommand delete) {
+                commandHandler.handleDeleteProductCommand(delete);
+                pending.result.complete(null);
+            } else {
+                throw unsupported(pending.command);
+            }
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private ProductEvent apply(Object command) {
+        if (command instanceof CreateProductCommand create) {
+            return commandHandler.apply(create);
+        }
+        if (command instanceof UpdateProductCommand update) {
+            return commandHandler.apply(update);
+        }
+        if (command instanceof DeleteProductCommand delete) {
+            return commandHandler.apply(delete);
+        }
+        throw unsupported(command);
+    }
+
+    private static IllegalArgumentException unsupported(Object command) {
+        return new IllegalArgumentException("Unsupported command type: " + command.getClass().getName());
+    }
+
+    private static final class PendingCommand {
+        private final Object command;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private ProductEvent event;
+        private RuntimeException error;
+
+        private PendingCommand(Object command) {
+            this.command = command;
+        }
+    }
+}
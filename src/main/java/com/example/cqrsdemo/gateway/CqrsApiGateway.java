@@ -3,51 +3,212 @@ package com.example.cqrsdemo.gateway;
 import com.example.cqrsdemo.command.api.CreateProductCommand;
 import com.example.cqrsdemo.command.api.DeleteProductCommand;
 import com.example.cqrsdemo.command.api.UpdateProductCommand;
-import com.example.cqrsdemo.command.handler.ProductCommandHandler;
+import com.example.cqrsdemo.config.CqrsConfig;
 import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.gateway.bus.MessageBus;
+import com.example.cqrsdemo.query.api.EncodedProduct;
 import com.example.cqrsdemo.query.api.GetAllProductsQuery;
+import com.example.cqrsdemo.query.api.GetCatalogVersionQuery;
+import com.example.cqrsdemo.query.api.GetEncodedProductQuery;
+import com.example.cqrsdemo.query.api.GetInventoryStatsQuery;
+import com.example.cqrsdemo.query.api.GetLowStockProductsQuery;
 import com.example.cqrsdemo.query.api.GetProductQuery;
-import com.example.cqrsdemo.query.handler.ProductQueryHandler;
+import com.example.cqrsdemo.query.api.GetProductVersionQuery;
+import com.example.cqrsdemo.query.api.GetProductsByIdsQuery;
+import com.example.cqrsdemo.query.api.GetProductsByNamePrefixQuery;
+import com.example.cqrsdemo.query.api.GetProductsByPriceRangeQuery;
+import com.example.cqrsdemo.query.api.GetProductsPageQuery;
+import com.example.cqrsdemo.query.api.InventoryStats;
+import com.example.cqrsdemo.query.api.ProductPage;
+import com.example.cqrsdemo.query.api.SearchProductsQuery;
+import com.example.cqrsdemo.query.api.StreamAllProductsQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 /**
  * Gateway central para processamento de comandos e consultas CQRS
  * Permite comunicação direta entre microsserviços sem exposição REST
+ * Os métodos tipados delegam ao MessageBus; novos tipos de mensagem só precisam de um handler anotado
+ * e podem ser enviados por {@link #send(Object)}, sem alterar o gateway
+ * As variantes *Async executam o envio numa thread virtual e devolvem um CompletableFuture,
+ * concluído com TimeoutException (e a execução interrompida) se o prazo expirar
  */
 @Component
 public class CqrsApiGateway {
 
-    private final ProductCommandHandler commandHandler;
-    private final ProductQueryHandler queryHandler;
+    private final MessageBus messageBus;
+    private final ExecutorService asyncExecutor;
+    private final Duration defaultTimeout;
 
     @Autowired
-    public CqrsApiGateway(ProductCommandHandler commandHandler, ProductQueryHandler queryHandler) {
-        this.commandHandler = commandHandler;
-        this.queryHandler = queryHandler;
+    public CqrsApiGateway(MessageBus messageBus,
+                          @Qualifier(CqrsConfig.ASYNC_EXECUTOR) ExecutorService asyncExecutor,
+                          @Value("${cqrs.gateway.async.timeout:10s}") Duration defaultTimeout) {
+        this.messageBus = messageBus;
+        this.asyncExecutor = asyncExecutor;
+        this.defaultTimeout = defaultTimeout;
     }
 
     // Métodos de comando
     public String sendCommand(CreateProductCommand command) {
-        return commandHandler.handleCreateProductCommand(command);
+        return messageBus.send(command);
     }
 
     public void sendCommand(UpdateProductCommand command) {
-        commandHandler.handleUpdateProductCommand(command);
+        messageBus.send(command);
     }
 
     public void sendCommand(DeleteProductCommand command) {
-        commandHandler.handleDeleteProductCommand(command);
+        messageBus.send(command);
     }
 
     // Métodos de consulta
     public Product sendQuery(GetProductQuery query) {
-        return queryHandler.handle(query);
+        return messageBus.send(query);
+    }
+
+    // Só existe handler com cqrs.read-model.json-cache.enabled=true; ver supports
+    public EncodedProduct sendQuery(GetEncodedProductQuery query) {
+        return messageBus.send(query);
     }
 
     public List<Product> sendQuery(GetAllProductsQuery query) {
-        return queryHandler.handle(query);
+        return messageBus.send(query);
+    }
+
+    public List<Product> sendQuery(GetProductsByIdsQuery query) {
+        return messageBus.send(query);
+    }
+
+    public Long sendQuery(GetProductVersionQuery query) {
+        return messageBus.send(query);
+    }
+
+    public long sendQuery(GetCatalogVersionQuery query) {
+        return messageBus.<Long>send(query);
+    }
+
+    public ProductPage sendQuery(GetProductsPageQuery query) {
+        return messageBus.send(query);
+    }
+
+    public List<Product> sendQuery(GetProductsByPriceRangeQuery query) {
+        return messageBus.send(query);
+    }
+
+    public List<Product> sendQuery(GetLowStockProductsQuery query) {
+        return messageBus.send(query);
+    }
+
+    public List<Product> sendQuery(GetProductsByNamePrefixQuery query) {
+        return messageBus.send(query);
+    }
+
+    public List<Product> sendQuery(SearchProductsQuery query) {
+        return messageBus.send(query);
+    }
+
+    public InventoryStats sendQuery(GetInventoryStatsQuery query) {
+        return messageBus.send(query);
+    }
+
+    // O chamador deve fechar o stream ao terminar
+    public Stream<Product> sendQuery(StreamAllProductsQuery query) {
+        return messageBus.send(query);
+    }
+
+    // Envio genérico, para qualquer comando ou consulta com handler registrado
+    public <R> R send(Object message) {
+        return messageBus.send(message);
+    }
+
+    // Indica se há handler registrado para o tipo, para recursos opcionais como o cache de JSON
+    public boolean supports(Class<?> messageType) {
+        return messageBus.supports(messageType);
+    }
+
+    // Métodos assíncronos, com o prazo padrão cqrs.gateway.async.timeout
+    public CompletableFuture<String> sendCommandAsync(CreateProductCommand command) {
+        return sendAsync(command);
+    }
+
+    public CompletableFuture<Void> sendCommandAsync(UpdateProductCommand command) {
+        return sendAsync(command);
+    }
+
+    public CompletableFuture<Void> sendCommandAsync(DeleteProductCommand command) {
+        return sendAsync(command);
+    }
+
+    public CompletableFuture<Product> sendQueryAsync(GetProductQuery query) {
+        return sendAsync(query);
+    }
+
+    public CompletableFuture<List<Product>> sendQueryAsync(GetAllProductsQuery query) {
+        return sendAsync(query);
+    }
+
+    public CompletableFuture<List<Product>> sendQueryAsync(GetProductsByIdsQuery query) {
+        return sendAsync(query);
+    }
+
+    public CompletableFuture<ProductPage> sendQueryAsync(GetProductsPageQuery query) {
+        return sendAsync(query);
+    }
+
+    public CompletableFuture<List<Product>> sendQueryAsync(GetProductsByPriceRangeQuery query) {
+        return sendAsync(query);
+    }
+
+    public CompletableFuture<List<Product>> sendQueryAsync(GetLowStockProductsQuery query) {
+        return sendAsync(query);
+    }
+
+    public CompletableFuture<List<Product>> sendQueryAsync(GetProductsByNamePrefixQuery query) {
+        return sendAsync(query);
+    }
+
+    public CompletableFuture<List<Product>> sendQueryAsync(SearchProductsQuery query) {
+        return sendAsync(query);
+    }
+
+    public CompletableFuture<InventoryStats> sendQueryAsync(GetInventoryStatsQuery query) {
+        return sendAsync(query);
+    }
+
+    public <R> CompletableFuture<R> sendAsync(Object message) {
+        return sendAsync(message, defaultTimeout);
+    }
+
+    /**
+     * Envia a mensagem numa thread virtual. Ao fim do prazo o futuro falha com TimeoutException
+     * e a thread que executa o envio é interrompida.
+     */
+    public <R> CompletableFuture<R> sendAsync(Object message, Duration timeout) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        Future<?> task = asyncExecutor.submit(() -> {
+            try {
+                result.complete(messageBus.send(message));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return result;
     }
-}
\ No newline at end of file
+}
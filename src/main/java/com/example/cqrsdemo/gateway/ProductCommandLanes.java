@@ -0,0 +1,187 @@
+package com.example.cqrsdemo.gateway;
+
+import com.example.cqrsdemo.command.api.ProductCommand;
+import com.example.cqrsdemo.gateway.bus.MessageInterceptor;
+import com.example.cqrsdemo.gateway.bus.MessageInvoker;
+import com.example.cqrsdemo.gateway.bus.MessageKind;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Execução ordenada por produto (single writer).
+ * Cada comando direcionado a um produto é encaminhado para uma faixa escolhida pelo id do produto;
+ * cada faixa tem uma fila limitada e uma única thread executora. Comandos do mesmo produto executam
+ * em sequência, na ordem de chegada e sem locks; produtos diferentes executam em paralelo, uma faixa por núcleo.
+ * O chamador bloqueia até o seu comando terminar e recebe o resultado ou a exceção original.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty(name = "cqrs.gateway.lanes.enabled", havingValue = "true")
+public class ProductCommandLanes implements MessageInterceptor, SmartLifecycle {
+
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long STOP_TIMEOUT_MS = 5_000;
+
+    private final List<BlockingQueue<LaneTask>> lanes;
+    private final Thread[] workers;
+    private volatile boolean running;
+
+    // 1 quando a thread da faixa terminou e não retira mais nada da fila
+    private final AtomicIntegerArray closed;
+
+    @Autowired
+    public ProductCommandLanes(@Value("${cqrs.gateway.lanes.count:0}") int lanes,
+                               @Value("${cqrs.gateway.lanes.capacity:1024}") int capacity) {
+        int laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            this.lanes.add(new ArrayBlockingQueue<>(capacity));
+        }
+        this.workers = new Thread[laneCount];
+        this.closed = new AtomicIntegerArray(laneCount);
+    }
+
+    @Override
+    public MessageInvoker intercept(MessageKind kind, Class<?> messageType, MessageInvoker next) {
+        if (kind != MessageKind.COMMAND || !ProductCommand.class.isAssignableFrom(messageType)) {
+            return next;
+        }
+        return message -> execute(((ProductCommand) message).getId(), message, next);
+    }
+
+    Object execute(String productId, Object message, MessageInvoker next) {
+        int lane = laneOf(productId);
+        // Fora do ciclo de vida, ou quando um handler envia outro comando da mesma faixa, executa direto
+        if (!running || Thread.currentThread() == workers[lane]) {
+            return next.invoke(message);
+        }
+        LaneTask task = new LaneTask(message, next);
+        BlockingQueue<LaneTask> queue = lanes.get(lane);
+        try {
+            // Com a fila cheia, espera em intervalos curtos para perceber o fim da faixa
+            while (!queue.offer(task, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                if (closed.get(lane) == 1) {
+                    return next.invoke(message);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while submitting command for product: " + productId, e);
+        }
+        // A faixa pode ter terminado entre a verificação de running e a inserção; se a tarefa ainda está na fila,
+        // ninguém mais vai executá-la. Se não está, a faixa a executou ou a recusou ao terminar
+        if (closed.get(lane) == 1 && queue.remove(task)) {
+            return next.invoke(message);
+        }
+        try {
+            return task.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers.length; i++) {
+            int lane = i;
+            closed.set(lane, 0);
+            workers[i] = Thread.ofPlatform().daemon().name("product-command-lane-" + i).start(() -> drain(lane));
+        }
+    }
+
+    // Encerra as faixas depois de executar o que já estava enfileirado
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Para antes do CommandBatcher e do barramento de eventos, que as faixas ainda podem usar
+    @Override
+    public int getPhase() {
+        return 2;
+    }
+
+    private void drain(int lane) {
+        BlockingQueue<LaneTask> queue = lanes.get(lane);
+        try {
+            while (running || !queue.isEmpty()) {
+                LaneTask task = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Fecha antes de esvaziar: quem enfileirar depois disso vê a faixa fechada e executa direto
+            closed.set(lane, 1);
+            List<LaneTask> leftovers = new ArrayList<>();
+            queue.drainTo(leftovers);
+            RejectedExecutionException error = new RejectedExecutionException("Product command lane " + lane + " stopped");
+            leftovers.forEach(task -> task.result.completeExceptionally(error));
+        }
+    }
+
+    private int laneOf(String productId) {
+        int hash = Objects.hashCode(productId);
+        return Math.floorMod(hash ^ (hash >>> 16), workers.length);
+    }
+
+    private static final class LaneTask {
+        private final Object message;
+        private final MessageInvoker next;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private LaneTask(Object message, MessageInvoker next) {
+            this.message = message;
+            this.next = next;
+        }
+
+        private void run() {
+            try {
+                result.complete(next.invoke(message));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
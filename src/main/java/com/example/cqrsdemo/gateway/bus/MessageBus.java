@@ -0,0 +1,201 @@
+package com.example.cqrsdemo.gateway.bus;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Barramento de comandos e consultas indexado pelo tipo da mensagem.
+ * Na inicialização os métodos anotados com {@link CommandHandler} e {@link QueryHandler} são descobertos
+ * e cada tipo recebe uma cadeia pronta (interceptadores + handler) numa tabela imutável.
+ * O despacho é uma busca na tabela e a chamada da cadeia, sem alocação e com custo
+ * independente do número de tipos registrados.
+ */
+@Component
+public class MessageBus implements SmartInitializingSingleton {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final ListableBeanFactory beanFactory;
+    private final List<MessageInterceptor> interceptors;
+    private volatile DispatchTable dispatchTable = new DispatchTable(Map.of());
+
+    @Autowired
+    public MessageBus(ListableBeanFactory beanFactory, List<MessageInterceptor> interceptors) {
+        this.beanFactory = beanFactory;
+        this.interceptors = interceptors;
+    }
+
+    /**
+     * Entrega a mensagem ao handler do seu tipo e devolve o resultado (null para handlers void).
+     * Exceções do handler e dos interceptadores chegam ao chamador sem encapsulamento.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R send(Object message) {
+        MessageInvoker invoker = dispatchTable.get(message.getClass());
+        if (invoker == null) {
+            throw noHandler(message.getClass());
+        }
+        return (R) invoker.invoke(message);
+    }
+
+    public boolean supports(Class<?> messageType) {
+        return dispatchTable.get(messageType) != null;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Class<?>, MessageInvoker> table = new HashMap<>();
+        for (String beanName : beanFactory.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> beanType = beanFactory.getType(beanName, false);
+            if (beanType == null
+                    || !AnnotationUtils.isCandidateClass(beanType, Set.of(CommandHandler.class, QueryHandler.class))) {
+                continue;
+            }
+            Map<Method, MessageKind> handlers = MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                    (MethodIntrospector.MetadataLookup<MessageKind>) MessageBus::kindOf);
+            if (handlers.isEmpty()) {
+                continue;
+            }
+            Object bean = beanFactory.getBean(beanName);
+            handlers.forEach((method, kind) -> register(table, bean, method, kind));
+        }
+        dispatchTable = new DispatchTable(table);
+    }
+
+    // Fora do caminho quente, para manter send pequeno o bastante para ser inlineado
+    private static IllegalArgumentException noHandler(Class<?> messageType) {
+        return new IllegalArgumentException("No handler registered for message type: " + messageType.getName());
+    }
+
+    private void register(Map<Class<?>, MessageInvoker> table, Object bean, Method method, MessageKind kind) {
+        if (method.getParameterCount() != 1) {
+            throw new IllegalStateException("Message handler must take exactly one parameter: " + method);
+        }
+        Class<?> messageType = method.getParameterTypes()[0];
+        MessageInvoker invoker = handlerInvoker(bean, method);
+        // O primeiro interceptador fica mais externo, então a cadeia é montada de dentro para fora
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            invoker = interceptors.get(i).intercept(kind, messageType, invoker);
+        }
+        if (table.putIfAbsent(messageType, invoker) != null) {
+            throw new IllegalStateException("Duplicate handler for message type " + messageType.getName() + ": " + method);
+        }
+    }
+
+    // O invocador é gerado com LambdaMetafactory: uma classe por handler, chamada direta ao método,
+    // que o JIT consegue inlinear como um lambda comum. O receptor é o bean exposto pelo Spring,
+    // então proxies (cache, transação) continuam valendo.
+    @SuppressWarnings("unchecked")
+    private static MessageInvoker handlerInvoker(Object bean, Method method) {
+        Method declaration = annotatedDeclaration(method);
+        Class<?> beanType = declaration.getDeclaringClass();
+        Class<?> messageType = declaration.getParameterTypes()[0];
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle target = lookup.unreflect(declaration);
+            if (declaration.getReturnType() == void.class) {
+                Consumer<Object> consumer = (Consumer<Object>) LambdaMetafactory.metafactory(lookup, "accept",
+                                MethodType.methodType(Consumer.class, beanType),
+                                MethodType.methodType(void.class, Object.class),
+                                target, MethodType.methodType(void.class, messageType))
+                        .getTarget().invoke(bean);
+                return message -> {
+                    consumer.accept(message);
+                    return null;
+                };
+            }
+            return (MessageInvoker) LambdaMetafactory.metafactory(lookup, "invoke",
+                            MethodType.methodType(MessageInvoker.class, beanType), INVOKER_TYPE,
+                            target, MethodType.methodType(declaration.getReturnType(), messageType).wrap())
+                    .getTarget().invoke(bean);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Message handler must be public: " + method, e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create invoker for message handler: " + method, e);
+        }
+    }
+
+    // Subclasses geradas (proxies, mocks) sobrescrevem o método anotado; o invocador usa a declaração
+    // original, e a chamada virtual ainda chega à sobrescrita
+    private static Method annotatedDeclaration(Method method) {
+        for (Class<?> type = method.getDeclaringClass(); type != null; type = type.getSuperclass()) {
+            Method candidate = ReflectionUtils.findMethod(type, method.getName(), method.getParameterTypes());
+            if (candidate != null && candidate.getDeclaringClass() == type
+                    && (candidate.isAnnotationPresent(CommandHandler.class) || candidate.isAnnotationPresent(QueryHandler.class))) {
+                return candidate;
+            }
+        }
+        return method;
+    }
+
+    private static MessageKind kindOf(Method method) {
+        if (AnnotatedElementUtils.hasAnnotation(method, CommandHandler.class)) {
+            return MessageKind.COMMAND;
+        }
+        if (AnnotatedElementUtils.hasAnnotation(method, QueryHandler.class)) {
+            return MessageKind.QUERY;
+        }
+        return null;
+    }
+
+    /**
+     * Tabela de endereçamento aberto indexada pela identidade da classe, com no máximo metade das posições ocupadas.
+     * A busca é um hash de identidade e, em média, uma ou duas comparações de referência.
+     */
+    private static final class DispatchTable {
+
+        private final Class<?>[] types;
+        private final MessageInvoker[] invokers;
+        private final int mask;
+
+        private DispatchTable(Map<Class<?>, MessageInvoker> entries) {
+            int capacity = Integer.highestOneBit(Math.max(1, entries.size()) * 2) << 1;
+            this.types = new Class<?>[capacity];
+            this.invokers = new MessageInvoker[capacity];
+            this.mask = capacity - 1;
+            entries.forEach((type, invoker) -> {
+                int index = indexOf(type);
+                while (types[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                types[index] = type;
+                invokers[index] = invoker;
+            });
+        }
+
+        private MessageInvoker get(Class<?> type) {
+            for (int index = indexOf(type); ; index = (index + 1) & mask) {
+                Class<?> candidate = types[index];
+                if (candidate == type) {
+                    return invokers[index];
+                }
+                if (candidate == null) {
+                    return null;
+                }
+            }
+        }
+
+        private int indexOf(Class<?> type) {
+            int hash = System.identityHashCode(type);
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
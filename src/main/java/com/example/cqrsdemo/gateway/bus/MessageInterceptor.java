@@ -0,0 +1,12 @@
+package com.example.cqrsdemo.gateway.bus;
+
+/**
+ * Comportamento transversal do MessageBus (métricas, validação, novas tentativas, agrupamento).
+ * É chamado uma vez por tipo de mensagem, na montagem da tabela de despacho, e devolve o invocador
+ * que envolve {@code next}; devolver o próprio {@code next} deixa o tipo sem custo adicional.
+ * Os interceptadores são aplicados na ordem de {@code @Order}: o primeiro é o mais externo.
+ */
+public interface MessageInterceptor {
+
+    MessageInvoker intercept(MessageKind kind, Class<?> messageType, MessageInvoker next);
+}
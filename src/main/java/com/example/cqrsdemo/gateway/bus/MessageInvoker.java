@@ -0,0 +1,10 @@
+package com.example.cqrsdemo.gateway.bus;
+
+/**
+ * Etapa da cadeia de despacho de um tipo de mensagem: o handler ou um interceptador que o envolve
+ */
+@FunctionalInterface
+public interface MessageInvoker {
+
+    Object invoke(Object message);
+}
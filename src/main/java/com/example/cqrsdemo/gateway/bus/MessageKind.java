@@ -0,0 +1,6 @@
+package com.example.cqrsdemo.gateway.bus;
+
+public enum MessageKind {
+    COMMAND,
+    QUERY
+}
@@ -0,0 +1,17 @@
+package com.example.cqrsdemo.gateway.bus;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um método público de um bean Spring como handler da consulta recebida no seu único parâmetro.
+ * O MessageBus registra o método na inicialização; cada tipo de consulta aceita um único handler.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryHandler {
+}
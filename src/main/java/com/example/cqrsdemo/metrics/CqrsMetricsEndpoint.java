@@ -0,0 +1,75 @@
+package com.example.cqrsdemo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Resumo em /actuator/cqrs dos timers cqrs.*: contagem, falhas e média acumuladas, p50/p99/p999 e máximo da
+ * janela recente, em milissegundos, por tipo de comando, consulta e etapa. Os valores detalhados continuam em /actuator/metrics.
+ */
+@Component
+@Endpoint(id = "cqrs")
+public class CqrsMetricsEndpoint {
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public CqrsMetricsEndpoint(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> latencies() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        for (Meter meter : registry.getMeters()) {
+            String name = meter.getId().getName();
+            if (!(meter instanceof FunctionTimer timer) || !name.startsWith("cqrs.")) {
+                continue;
+            }
+            String tags = timer.getId().getTags().stream().map(Tag::getValue).collect(Collectors.joining(","));
+            result.put(name + "[" + tags + "]", summary(timer));
+        }
+        return result;
+    }
+
+    private Map<String, Object> summary(FunctionTimer timer) {
+        String name = timer.getId().getName();
+        List<Tag> tags = timer.getId().getTags();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", (long) timer.count());
+        double failures = registry.find(name + ".failures").tags(tags)
+                .counters().stream().mapToDouble(Counter::count).sum();
+        summary.put("failures", (long) failures);
+        summary.put("mean", timer.mean(TimeUnit.MILLISECONDS));
+        for (double percentile : OperationMetrics.PERCENTILES) {
+            Gauge gauge = registry.find(name + ".percentile").tags(tags)
+                    .tag("phi", Double.toString(percentile)).gauge();
+            summary.put("p" + format(percentile), gauge == null ? 0 : gauge.value() * 1000);
+        }
+        Gauge max = registry.find(name + ".max").tags(tags).gauge();
+        summary.put("max", max == null ? 0 : max.value() * 1000);
+        return summary;
+    }
+
+    // 0.5 -> 50, 0.99 -> 99, 0.999 -> 999
+    private static String format(double percentile) {
+        return new BigDecimal(Double.toString(percentile)).movePointRight(2)
+                .stripTrailingZeros().toPlainString().replace(".", "");
+    }
+}
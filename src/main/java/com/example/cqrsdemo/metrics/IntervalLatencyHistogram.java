@@ -0,0 +1,79 @@
+package com.example.cqrsdemo.metrics;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Par de {@link LatencyHistogram} que gira a cada janela fixa: as gravações vão para a janela atual e,
+ * na virada, ela passa a ser a anterior e a anterior é zerada para reaproveitamento.
+ * Percentis e máximo refletem só as duas últimas janelas (entre uma e duas janelas de dados), de modo que um
+ * pico antigo deixa de aparecer; contagem e tempo total continuam acumulados, como exige o FunctionTimer.
+ * A virada acontece na leitura, então a gravação continua sem locks e sem leituras extras do relógio.
+ */
+final class IntervalLatencyHistogram {
+
+    static final Duration DEFAULT_WINDOW = Duration.ofMinutes(1);
+
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private LatencyHistogram previous = new LatencyHistogram();
+    private long windowStart;
+    private long retiredCount;
+    private double retiredTotalNanos;
+
+    IntervalLatencyHistogram() {
+        this(DEFAULT_WINDOW, System::nanoTime);
+    }
+
+    IntervalLatencyHistogram(Duration window, LongSupplier clock) {
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+        this.windowStart = clock.getAsLong();
+    }
+
+    void record(long nanos) {
+        current.record(nanos);
+    }
+
+    synchronized long count() {
+        rotateIfDue();
+        return retiredCount + previous.count() + current.count();
+    }
+
+    synchronized double totalNanos() {
+        rotateIfDue();
+        return retiredTotalNanos + previous.totalNanos() + current.totalNanos();
+    }
+
+    synchronized double maxNanos() {
+        rotateIfDue();
+        return Math.max(previous.maxNanos(), current.maxNanos());
+    }
+
+    synchronized double percentileNanos(double quantile) {
+        rotateIfDue();
+        long[] snapshot = LatencyHistogram.newSnapshot();
+        long total = previous.addCountsTo(snapshot) + current.addCountsTo(snapshot);
+        return LatencyHistogram.percentileOf(snapshot, total, quantile, (long) maxNanos());
+    }
+
+    // Sem leituras por mais de uma janela, a virada é repetida (no máximo duas vezes, o que esvazia as duas)
+    private void rotateIfDue() {
+        long elapsed = clock.getAsLong() - windowStart;
+        if (elapsed < windowNanos) {
+            return;
+        }
+        long windows = elapsed / windowNanos;
+        for (long i = 0; i < Math.min(windows, 2); i++) {
+            LatencyHistogram retired = previous;
+            retiredCount += retired.count();
+            retiredTotalNanos += retired.totalNanos();
+            retired.reset();
+            previous = current;
+            current = retired;
+        }
+        windowStart += windows * windowNanos;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.cqrsdemo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências em nanossegundos com faixas log-lineares (no estilo do HdrHistogram):
+ * 32 subfaixas por potência de dois, erro relativo de no máximo ~3%, de 1 ns a ~18 minutos.
+ * A gravação é sem locks: um incremento atômico na faixa, uma soma num LongAdder e,
+ * só quando o valor supera o máximo, uma troca CAS. Os percentis são calculados na leitura.
+ * Os valores são acumulados desde a criação (ou o último {@link #reset()}); para métricas em janelas, veja
+ * {@link IntervalLatencyHistogram}. Também usado pelo gerador de carga em {@code src/loadtest}.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.getAndIncrement(bucketOf(value));
+        totalNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public double totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public double maxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Valor (limite superior da faixa) abaixo do qual está a fração {@code quantile} das gravações.
+     */
+    public double percentileNanos(double quantile) {
+        long[] snapshot = newSnapshot();
+        return percentileOf(snapshot, addCountsTo(snapshot), quantile, maxNanos.get());
+    }
+
+    // Soma as contagens por faixa em snapshot e devolve o total somado
+    long addCountsTo(long[] snapshot) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            snapshot[i] += count;
+            total += count;
+        }
+        return total;
+    }
+
+    // Zera o histograma para reaproveitá-lo na próxima janela; gravações concorrentes podem se perder
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    static long[] newSnapshot() {
+        return new long[BUCKETS];
+    }
+
+    static double percentileOf(long[] snapshot, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Valores abaixo de 32 ns têm faixa própria; acima, a faixa é (expoente, 5 bits seguintes ao bit mais alto)
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (Math.min(value >>> shift, 2L * SUB_BUCKETS - 1) - SUB_BUCKETS);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.cqrsdemo.metrics;
+
+import com.example.cqrsdemo.gateway.bus.MessageInterceptor;
+import com.example.cqrsdemo.gateway.bus.MessageInvoker;
+import com.example.cqrsdemo.gateway.bus.MessageKind;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Mede latência e vazão de cada tipo de mensagem do MessageBus, em cqrs.gateway.commands e cqrs.gateway.queries.
+ * É o interceptador mais externo, então o tempo medido inclui os demais (agrupamento, novas tentativas).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricsInterceptor implements MessageInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public MessageInvoker intercept(MessageKind kind, Class<?> messageType, MessageInvoker next) {
+        String name = kind == MessageKind.COMMAND ? "cqrs.gateway.commands" : "cqrs.gateway.queries";
+        OperationMetrics metrics = OperationMetrics.of(meterRegistry, name, "type", messageType.getSimpleName());
+        Function<Object, Object> target = next::invoke;
+        return message -> metrics.record(target, message);
+    }
+}
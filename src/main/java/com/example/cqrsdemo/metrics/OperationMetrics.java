@@ -0,0 +1,91 @@
+package com.example.cqrsdemo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Latência e vazão de uma operação (tipo de comando, consulta ou etapa do handler).
+ * A gravação vai para um {@link IntervalLatencyHistogram} sem locks; o custo por chamada fica em duas leituras
+ * de System.nanoTime e alguns incrementos atômicos, sem os vários buffers rotativos dos timers do Micrometer.
+ * No Micrometer o histograma aparece como um FunctionTimer (contagem e tempo total acumulados) e gauges
+ * {@code <nome>.percentile} (tag phi) e {@code <nome>.max} calculados sobre a janela recente (um a dois minutos),
+ * lidos só quando as métricas são consultadas.
+ * As falhas também entram no histograma e são contadas à parte em {@code <nome>.failures}.
+ */
+public final class OperationMetrics {
+
+    static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final IntervalLatencyHistogram histogram;
+    private final Counter failures;
+
+    private OperationMetrics(IntervalLatencyHistogram histogram, Counter failures) {
+        this.histogram = histogram;
+        this.failures = failures;
+    }
+
+    public static OperationMetrics of(MeterRegistry registry, String name, String tagKey, String tagValue) {
+        IntervalLatencyHistogram histogram = new IntervalLatencyHistogram();
+        FunctionTimer.builder(name, histogram, IntervalLatencyHistogram::count, IntervalLatencyHistogram::totalNanos,
+                        TimeUnit.NANOSECONDS)
+                .tag(tagKey, tagValue)
+                .register(registry);
+        for (double percentile : PERCENTILES) {
+            Gauge.builder(name + ".percentile", histogram, h -> h.percentileNanos(percentile) / 1_000_000_000d)
+                    .tags(tagKey, tagValue, "phi", Double.toString(percentile))
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+        Gauge.builder(name + ".max", histogram, h -> h.maxNanos() / 1_000_000_000d)
+                .tag(tagKey, tagValue)
+                .baseUnit("seconds")
+                .register(registry);
+        Counter failures = Counter.builder(name + ".failures")
+                .tag(tagKey, tagValue)
+                .register(registry);
+        return new OperationMetrics(histogram, failures);
+    }
+
+    public <T> T record(Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    // Variante sem captura: a ação recebe o argumento, evitando alocar um lambda por chamada
+    public <T, R> R record(Function<T, R> action, T argument) {
+        long start = System.nanoTime();
+        try {
+            return action.apply(argument);
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public void record(Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+}
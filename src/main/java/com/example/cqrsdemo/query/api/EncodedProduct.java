@@ -0,0 +1,11 @@
+package com.example.cqrsdemo.query.api;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * JSON de um produto, codificado uma vez por versão. {@code gzippedJson} é nulo quando a compressão
+ * está desligada ou o documento é pequeno demais para compensar. Os arrays são compartilhados
+ * entre as respostas e não devem ser alterados.
+ */
+public record EncodedProduct(byte[] json, @Nullable byte[] gzippedJson, @Nullable Long version) {
+}
@@ -0,0 +1,5 @@
+package com.example.cqrsdemo.query.api;
+
+public class GetCatalogVersionQuery {
+    // Classe marcadora para consulta da versão do catálogo, que avança a cada evento de produto
+}
@@ -0,0 +1,11 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Produto já serializado em JSON pelo ProductJsonCache, pronto para ser escrito na resposta
+@Data
+@AllArgsConstructor
+public class GetEncodedProductQuery {
+    private String id;
+}
@@ -0,0 +1,5 @@
+package com.example.cqrsdemo.query.api;
+
+public class GetInventoryStatsQuery {
+    // Classe marcadora para consulta dos totais do estoque
+}
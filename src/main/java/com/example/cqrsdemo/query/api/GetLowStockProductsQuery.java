@@ -0,0 +1,15 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Produtos com quantidade abaixo de {@code threshold}, em ordem de quantidade
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetLowStockProductsQuery {
+    private int threshold;
+}
@@ -0,0 +1,11 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Versão atual do produto no modelo de leitura, ou null se ele não existir; não materializa o produto
+@Data
+@AllArgsConstructor
+public class GetProductVersionQuery {
+    private String id;
+}
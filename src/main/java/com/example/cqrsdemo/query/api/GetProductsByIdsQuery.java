@@ -0,0 +1,13 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Vários produtos numa só consulta; ids repetidos são resolvidos uma vez e ids inexistentes são ignorados
+@Data
+@AllArgsConstructor
+public class GetProductsByIdsQuery {
+    private List<String> ids;
+}
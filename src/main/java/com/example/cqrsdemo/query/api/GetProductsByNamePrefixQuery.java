@@ -0,0 +1,15 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Produtos cujo nome começa com {@code prefix} (diferencia maiúsculas), em ordem de nome
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetProductsByNamePrefixQuery {
+    private String prefix;
+}
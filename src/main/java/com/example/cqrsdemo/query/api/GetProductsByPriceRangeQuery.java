@@ -0,0 +1,16 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Produtos com preço entre {@code minPrice} e {@code maxPrice} (inclusive), em ordem de preço
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetProductsByPriceRangeQuery {
+    private double minPrice;
+    private double maxPrice;
+}
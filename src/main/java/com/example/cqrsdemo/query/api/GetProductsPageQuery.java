@@ -0,0 +1,26 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Consulta paginada por cursor (keyset): devolve até {@code pageSize} produtos
+ * posicionados após o produto {@code afterId} na ordem de {@code sortBy}.
+ * Fora da ordem por id o cursor carrega também o valor da chave ({@code afterName} ou {@code afterPrice}),
+ * então a posição não depende do estado atual do produto do cursor, que pode ter mudado ou sido excluído
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetProductsPageQuery {
+    private int pageSize;
+    private String afterId;
+    private ProductSortKey sortBy = ProductSortKey.ID;
+    private String afterName;
+    private Double afterPrice;
+
+    public GetProductsPageQuery(int pageSize, String afterId, ProductSortKey sortBy) {
+        this(pageSize, afterId, sortBy, null, null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Totais do catálogo; {@code stockValue} é a soma exata de preço vezes quantidade,
+ * e os preços mínimo e máximo são nulos quando não há produtos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryStats {
+    private long productCount;
+    private long totalQuantity;
+    private BigDecimal stockValue;
+    private Double minPrice;
+    private Double maxPrice;
+}
@@ -0,0 +1,26 @@
+package com.example.cqrsdemo.query.api;
+
+import com.example.cqrsdemo.domain.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de produtos; {@code nextAfterId} é nulo quando não há mais resultados.
+ * Na ordem por nome ou preço, {@code nextAfterName} ou {@code nextAfterPrice} completam o cursor da próxima página
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<Product> items;
+    private String nextAfterId;
+    private String nextAfterName;
+    private Double nextAfterPrice;
+
+    public ProductPage(List<Product> items, String nextAfterId) {
+        this(items, nextAfterId, null, null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.cqrsdemo.query.api;
+
+/**
+ * Chaves de ordenação suportadas pela paginação por cursor
+ */
+public enum ProductSortKey {
+    ID,
+    NAME,
+    PRICE
+}
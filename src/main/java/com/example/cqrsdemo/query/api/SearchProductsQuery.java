@@ -0,0 +1,16 @@
+package com.example.cqrsdemo.query.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Busca por palavras no nome e na descrição; devolve até {@code limit} produtos, do mais ao menos relevante
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchProductsQuery {
+    private String text;
+    private int limit;
+}
@@ -0,0 +1,5 @@
+package com.example.cqrsdemo.query.api;
+
+public class StreamAllProductsQuery {
+    // Classe marcadora para leitura em fluxo de todos os produtos, sem materializar a lista
+}
@@ -0,0 +1,15 @@
+package com.example.cqrsdemo.query.feed;
+
+import com.example.cqrsdemo.domain.model.Product;
+import org.springframework.lang.Nullable;
+
+/**
+ * Notificação do feed de alterações; {@code product} traz o estado após a alteração e é nulo nas exclusões.
+ * O offset cresce a cada alteração e é o id do evento SSE, usado para retomar o feed.
+ */
+public record ProductChange(long offset, Type type, String productId, @Nullable Product product) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.cqrsdemo.query.feed;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Feed de alterações de produto entregue por Server-Sent Events.
+ * Cada alteração recebe um offset crescente e é serializada uma única vez, qualquer que seja o número de assinantes.
+ * Cada assinante tem um buffer próprio, limitado a {@code cqrs.change-feed.buffer-size} produtos distintos, e uma
+ * thread virtual que escreve na conexão: o listener só enfileira e nunca espera um cliente lento. Enquanto o cliente
+ * não consome, alterações do mesmo produto são conflacionadas e só o estado mais recente é entregue; se ainda assim
+ * o buffer estourar, o assinante recebe um evento {@code reset} para recarregar o catálogo pelas consultas.
+ * Um cliente que reconecta com {@code Last-Event-ID} retoma a partir do histórico das últimas
+ * {@code cqrs.change-feed.history-size} alterações; offsets mais antigos, ou de outra execução, também recebem {@code reset}.
+ * A sincronização usa {@link ReentrantLock} e {@link Condition} em vez de monitores: uma thread virtual que espera num
+ * {@code Object.wait()} prende a thread carregadora, e poucas centenas de assinantes ociosos esgotariam o escalonador.
+ */
+@Slf4j
+@Component
+public class ProductChangeFeed {
+
+    static final String RESET_EVENT = "reset";
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long heartbeatMillis;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Histórico circular e próximo offset, protegidos por lock. O primeiro offset vem do relógio deslocado 20 bits,
+    // então offsets de uma execução anterior ficam abaixo do histórico atual e não são confundidos com os novos
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Entry[] history;
+    private long nextOffset = System.currentTimeMillis() << 20;
+    private int retained;
+
+    @Autowired
+    public ProductChangeFeed(ObjectMapper objectMapper,
+                             @Value("${cqrs.change-feed.history-size:10000}") int historySize,
+                             @Value("${cqrs.change-feed.buffer-size:1024}") int bufferSize,
+                             @Value("${cqrs.change-feed.heartbeat:15s}") Duration heartbeat) {
+        this.objectMapper = objectMapper;
+        this.history = new Entry[Math.max(1, historySize)];
+        this.bufferSize = Math.max(1, bufferSize);
+        this.heartbeatMillis = heartbeat.toMillis();
+    }
+
+    @EventListener
+    public void on(ProductCreatedEvent event) {
+        publish(ProductChange.Type.CREATED, event.getProductId(), event.getProduct());
+    }
+
+    @EventListener
+    public void on(ProductUpdatedEvent event) {
+        publish(ProductChange.Type.UPDATED, event.getProductId(), event.getProduct());
+    }
+
+    @EventListener
+    public void on(ProductDeletedEvent event) {
+        publish(ProductChange.Type.DELETED, event.getProductId(), null);
+    }
+
+    /**
+     * Registra o emitter como assinante. Com {@code lastOffset} informado, entrega antes as alterações
+     * posteriores a ele que ainda estão no histórico; sem ele, só as alterações a partir de agora.
+     */
+    public void subscribe(@Nullable Long lastOffset, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        lock.lock();
+        try {
+            if (lastOffset != null && !replay(lastOffset, subscriber)) {
+                subscriber.reset(nextOffset - 1);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        Thread.ofVirtual().name("product-change-feed").start(subscriber::run);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getLastOffset() {
+        lock.lock();
+        try {
+            return nextOffset - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void publish(ProductChange.Type type, String productId, @Nullable Product product) {
+        lock.lock();
+        try {
+            long offset = nextOffset;
+            Entry entry = new Entry(offset, type.name().toLowerCase(Locale.ROOT), productId,
+                    toJson(new ProductChange(offset, type, productId, product)));
+            nextOffset++;
+            history[(int) (offset % history.length)] = entry;
+            retained = Math.min(retained + 1, history.length);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Falso quando o offset não pode ser retomado ou a retomada não cabe no buffer do assinante
+    private boolean replay(long lastOffset, Subscriber subscriber) {
+        long oldest = nextOffset - retained;
+        if (lastOffset < oldest - 1 || lastOffset >= nextOffset) {
+            return false;
+        }
+        for (long offset = lastOffset + 1; offset < nextOffset; offset++) {
+            if (!subscriber.offer(history[(int) (offset % history.length)])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String toJson(ProductChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize change for product " + change.productId(), e);
+        }
+    }
+
+    private record Entry(long offset, String name, String productId, String json) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // Pendências por produto, na ordem da alteração mais recente de cada um; protegidas por lock
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final LinkedHashMap<String, Entry> pending = new LinkedHashMap<>();
+        private long resetOffset = -1;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Conflaciona com a pendência do mesmo produto; se o buffer estourar, troca tudo por um reset
+        boolean offer(Entry entry) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return true;
+                }
+                pending.remove(entry.productId());
+                pending.put(entry.productId(), entry);
+                if (pending.size() > bufferSize) {
+                    reset(entry.offset());
+                    return false;
+                }
+                changed.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void reset(long offset) {
+            lock.lock();
+            try {
+                pending.clear();
+                resetOffset = offset;
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                pending.clear();
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+            subscribers.remove(this);
+        }
+
+        void run() {
+            try {
+                while (true) {
+                    long reset;
+                    List<Entry> batch;
+                    lock.lock();
+                    try {
+                        if (!closed && pending.isEmpty() && resetOffset < 0) {
+                            changed.await(heartbeatMillis, TimeUnit.MILLISECONDS);
+                        }
+                        if (closed) {
+                            return;
+                        }
+                        reset = resetOffset;
+                        resetOffset = -1;
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (reset >= 0) {
+                        emitter.send(SseEmitter.event().id(Long.toString(reset)).name(RESET_EVENT)
+                                .data("{\"offset\":" + reset + "}"));
+                    }
+                    for (Entry entry : batch) {
+                        emitter.send(SseEmitter.event().id(Long.toString(entry.offset())).name(entry.name())
+                                .data(entry.json()));
+                    }
+                    // Sem alterações no intervalo, um comentário mantém a conexão viva e revela clientes que saíram
+                    if (reset < 0 && batch.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Change feed subscriber disconnected: {}", e.getMessage());
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+            }
+        }
+    }
+}
@@ -1,30 +1,191 @@
 package com.example.cqrsdemo.query.handler;
 
 import com.example.cqrsdemo.domain.model.Product;
-import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.gateway.bus.QueryHandler;
 import com.example.cqrsdemo.query.api.GetAllProductsQuery;
+import com.example.cqrsdemo.query.api.GetInventoryStatsQuery;
+import com.example.cqrsdemo.query.api.GetLowStockProductsQuery;
 import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.api.GetProductVersionQuery;
+import com.example.cqrsdemo.query.api.GetProductsByIdsQuery;
+import com.example.cqrsdemo.query.api.GetProductsByNamePrefixQuery;
+import com.example.cqrsdemo.query.api.GetProductsByPriceRangeQuery;
+import com.example.cqrsdemo.query.api.GetProductsPageQuery;
+import com.example.cqrsdemo.query.api.InventoryStats;
+import com.example.cqrsdemo.query.api.ProductPage;
+import com.example.cqrsdemo.query.api.ProductSortKey;
+import com.example.cqrsdemo.query.api.SearchProductsQuery;
+import com.example.cqrsdemo.query.api.StreamAllProductsQuery;
+import com.example.cqrsdemo.query.projection.OffHeapProductStore;
+import com.example.cqrsdemo.query.projection.ProductReadModel;
+import com.example.cqrsdemo.query.projection.ProductReadModelRebuiltEvent;
+import com.example.cqrsdemo.query.projection.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class ProductQueryHandler {
 
-    private final ProductRepository productRepository;
+    public static final String PRODUCT_CACHE = "products";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    // Exatamente um dos dois modelos existe: o em heap, com índices ordenados e busca, ou o fora do heap,
+    // que pagina e busca por varredura
+    private final ProductReadModel readModel;
+    private final ProductSearchIndex searchIndex;
+    private final OffHeapProductStore offHeapStore;
 
     @Autowired
-    public ProductQueryHandler(ProductRepository productRepository) {
-        this.productRepository = productRepository;
+    public ProductQueryHandler(@Nullable ProductReadModel readModel, @Nullable ProductSearchIndex searchIndex,
+                               @Nullable OffHeapProductStore offHeapStore) {
+        this.readModel = readModel;
+        this.searchIndex = searchIndex;
+        this.offHeapStore = offHeapStore;
     }
 
+    // sync: leituras concorrentes do mesmo id ausente do cache esperam uma única carga em vez de repeti-la
+    @QueryHandler
+    @Cacheable(cacheNames = PRODUCT_CACHE, key = "#query.id", sync = true)
     public Product handle(GetProductQuery query) {
-        return productRepository.findById(query.getId())
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + query.getId()));
+        Optional<Product> product = offHeapStore != null
+                ? offHeapStore.findById(query.getId())
+                : readModel.findById(query.getId());
+        return product.orElseThrow(() -> new RuntimeException("Product not found with id: " + query.getId()));
+    }
+
+    // Uma única consulta ao modelo para a lista inteira, com cada id distinto resolvido uma vez
+    @QueryHandler
+    public List<Product> handle(GetProductsByIdsQuery query) {
+        if (query.getIds() == null || query.getIds().isEmpty()) {
+            return List.of();
+        }
+        Set<String> ids = new LinkedHashSet<>(query.getIds());
+        if (ids.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " ids per query, got " + ids.size());
+        }
+        return offHeapStore != null ? offHeapStore.findAllById(ids) : readModel.findAllById(ids);
     }
 
+    // Só a versão, para responder If-None-Match sem carregar o produto
+    @QueryHandler
+    public Long handle(GetProductVersionQuery query) {
+        if (offHeapStore != null) {
+            return offHeapStore.findVersion(query.getId());
+        }
+        return readModel.findById(query.getId()).map(Product::getVersion).orElse(null);
+    }
+
+    @QueryHandler
     public List<Product> handle(GetAllProductsQuery query) {
-        return productRepository.findAll();
+        return offHeapStore != null ? offHeapStore.findAll() : readModel.findAll();
+    }
+
+    @QueryHandler
+    public ProductPage handle(GetProductsPageQuery query) {
+        int pageSize = query.getPageSize() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(query.getPageSize(), MAX_PAGE_SIZE);
+
+        // Busca um item a mais para saber se existe próxima página
+        List<Product> items = offHeapStore != null
+                ? offHeapStore.findPage(query.getSortBy(), query.getAfterId(), query.getAfterName(),
+                        query.getAfterPrice(), pageSize + 1)
+                : readModel.findPage(query.getSortBy(), query.getAfterId(), query.getAfterName(),
+                        query.getAfterPrice(), pageSize + 1);
+        if (items.size() <= pageSize) {
+            return new ProductPage(items, null);
+        }
+        items = items.subList(0, pageSize);
+        // O cursor leva o valor da chave da última linha, não só o id
+        Product last = items.get(pageSize - 1);
+        return new ProductPage(items, last.getId(),
+                query.getSortBy() == ProductSortKey.NAME ? last.getName() : null,
+                query.getSortBy() == ProductSortKey.PRICE ? last.getPrice() : null);
+    }
+
+    @QueryHandler
+    public Stream<Product> handle(StreamAllProductsQuery query) {
+        return offHeapStore != null ? offHeapStore.stream() : readModel.stream();
+    }
+
+    @QueryHandler
+    public List<Product> handle(GetProductsByPriceRangeQuery query) {
+        return offHeapStore != null
+                ? offHeapStore.findByPriceBetween(query.getMinPrice(), query.getMaxPrice(), MAX_PAGE_SIZE)
+                : readModel.findByPriceBetween(query.getMinPrice(), query.getMaxPrice(), MAX_PAGE_SIZE);
+    }
+
+    @QueryHandler
+    public List<Product> handle(GetLowStockProductsQuery query) {
+        return offHeapStore != null
+                ? offHeapStore.findByQuantityBelow(query.getThreshold(), MAX_PAGE_SIZE)
+                : readModel.findByQuantityBelow(query.getThreshold(), MAX_PAGE_SIZE);
+    }
+
+    @QueryHandler
+    public List<Product> handle(GetProductsByNamePrefixQuery query) {
+        String prefix = query.getPrefix();
+        // Um prefixo vazio casaria com o catálogo inteiro; para percorrê-lo existe a paginação
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Name prefix must not be blank");
+        }
+        return offHeapStore != null
+                ? offHeapStore.findByNamePrefix(prefix, MAX_PAGE_SIZE)
+                : readModel.findByNamePrefix(prefix, MAX_PAGE_SIZE);
+    }
+
+    @QueryHandler
+    public List<Product> handle(SearchProductsQuery query) {
+        int limit = query.getLimit() <= 0 ? DEFAULT_SEARCH_LIMIT : Math.min(query.getLimit(), MAX_PAGE_SIZE);
+        if (offHeapStore != null) {
+            return offHeapStore.search(query.getText(), limit);
+        }
+
+        // O índice devolve ids em ordem de relevância; um produto excluído no meio tempo é ignorado
+        List<Product> products = new ArrayList<>(limit);
+        for (String productId : searchIndex.search(query.getText(), limit)) {
+            readModel.findById(productId).ifPresent(products::add);
+        }
+        return products;
+    }
+
+    @QueryHandler
+    public InventoryStats handle(GetInventoryStatsQuery query) {
+        return offHeapStore != null ? offHeapStore.stats() : readModel.stats();
+    }
+
+    // Invalidação do cache de GetProductQuery; executa depois do modelo de leitura aplicar o evento,
+    // então uma leitura concorrente que recarregue a entrada já encontra o estado novo
+
+    @EventListener
+    @CacheEvict(cacheNames = PRODUCT_CACHE, key = "#event.productId")
+    public void evict(ProductUpdatedEvent event) {
+    }
+
+    @EventListener
+    @CacheEvict(cacheNames = PRODUCT_CACHE, key = "#event.productId")
+    public void evict(ProductDeletedEvent event) {
+    }
+
+    // Antes de a versão do catálogo avançar, para que quem a lê não encontre entradas da visão anterior
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @CacheEvict(cacheNames = PRODUCT_CACHE, allEntries = true)
+    public void evict(ProductReadModelRebuiltEvent event) {
     }
-}
\ No newline at end of file
+}
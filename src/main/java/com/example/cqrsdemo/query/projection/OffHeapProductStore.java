@@ -0,0 +1,655 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.id.ProductId;
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.query.api.InventoryStats;
+import com.example.cqrsdemo.query.api.ProductSortKey;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento de produtos fora do heap para catálogos muito grandes, alimentado pelos eventos.
+ * Cada produto ocupa um bloco de layout fixo (ver {@link ProductView}) em slabs de {@link ByteBuffer} diretos,
+ * e um índice de endereçamento aberto em arrays primitivos localiza o bloco pelo id. No heap ficam só os slabs
+ * e alguns arrays primitivos, que o GC não percorre, então a quantidade de objetos e as pausas não crescem
+ * com o catálogo. As leituras por id são otimistas e não bloqueiam; as varreduras usam uma única
+ * {@link ProductView} e só materializam os produtos devolvidos.
+ * Quando ativo, substitui o {@link ProductReadModel} e o {@link ProductSearchIndex}.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.read-model.off-heap.enabled", havingValue = "true")
+public class OffHeapProductStore {
+
+    // Blocos em potências de dois a partir de 64 bytes; um produto típico cabe em 128
+    private static final int MIN_BLOCK_SHIFT = 6;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Registros lidos por aquisição do lock de leitura numa varredura, para não atrasar as escritas
+    private static final int SCAN_CHUNK = 1024;
+
+    // Pior resultado da busca na cabeça da fila: menor pontuação e, no empate, maior id
+    private static final Comparator<Match> WORST_MATCH_FIRST = Comparator
+            .comparingDouble(Match::score)
+            .thenComparing(match -> match.product().getId(), Comparator.reverseOrder());
+
+    private final ProductRepository productRepository;
+    private final int slabSize;
+    private final int maxBlockShift;
+
+    // Escritas exclusivas; leituras por id validam o carimbo e só tomam o lock de leitura se houve escrita concorrente
+    private final StampedLock lock = new StampedLock();
+
+    // Endereço de um bloco: índice do slab nos 32 bits altos, deslocamento nos 32 baixos
+    private ByteBuffer[] slabs = new ByteBuffer[0];
+    private int slabTop;
+
+    // Blocos liberados por classe de tamanho, reaproveitados antes de avançar no slab atual
+    private final long[][] freeBlocks;
+    private final int[] freeBlockCounts;
+
+    // Diretório de registros: posição -> endereço do bloco (-1 = livre) e hash do id,
+    // para descartar colisões do índice sem tocar a memória fora do heap
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int recordTop;
+    private int[] freeRecords = new int[16];
+    private int freeRecordCount;
+
+    // Índice por id com sondagem linear: posição do registro + 1, 0 = vazio; carga máxima de 50%
+    private int[] table = new int[2 * INITIAL_CAPACITY];
+    private int size;
+
+    // Totais do estoque, ajustados a cada escrita como no modelo de leitura em heap
+    private long totalQuantity;
+    private BigDecimal stockValue = BigDecimal.ZERO;
+
+    @Autowired
+    public OffHeapProductStore(ProductRepository productRepository,
+                               @Value("${cqrs.read-model.off-heap.slab-size:16MB}") DataSize slabSize) {
+        if (slabSize.toBytes() < 4096 || slabSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Off-heap slab size must be between 4KB and 2GB: " + slabSize);
+        }
+        this.productRepository = productRepository;
+        this.slabSize = (int) slabSize.toBytes();
+        this.maxBlockShift = 31 - Integer.numberOfLeadingZeros(this.slabSize);
+        this.freeBlocks = new long[maxBlockShift - MIN_BLOCK_SHIFT + 1][16];
+        this.freeBlockCounts = new int[maxBlockShift - MIN_BLOCK_SHIFT + 1];
+        Arrays.fill(addresses, -1);
+    }
+
+    // Carga inicial a partir do estado atual; eventos já aplicados têm precedência
+    @PostConstruct
+    public void hydrate() {
+        for (Product product : productRepository.findAll()) {
+            put(product, false);
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductCreatedEvent event) {
+        put(event.getProduct(), true);
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductUpdatedEvent event) {
+        put(event.getProduct(), true);
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductDeletedEvent event) {
+        String id = event.getProductId();
+        long stamp = lock.writeLock();
+        try {
+            int bucket = find(id, hash(id));
+            if (bucket < 0) {
+                return;
+            }
+            int record = table[bucket] - 1;
+            ProductView view = viewOf(addresses[record]);
+            subtractTotals(view.getPrice(), view.getQuantity());
+            freeBlock(addresses[record], blockShift(view.recordSize()));
+            addresses[record] = -1;
+            freeRecord(record);
+            removeBucket(bucket);
+            size--;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Optional<Product> findById(String id) {
+        int hash = hash(id);
+        return Optional.ofNullable(optimisticRead(() -> {
+            int bucket = find(id, hash);
+            return bucket < 0 ? null : viewOf(addresses[table[bucket] - 1]).toProduct();
+        }));
+    }
+
+    // Todos os ids numa única leitura otimista, em vez de uma validação por id; os inexistentes são ignorados
+    public List<Product> findAllById(Collection<String> ids) {
+        return optimisticRead(() -> {
+            List<Product> result = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                int bucket = find(id, hash(id));
+                if (bucket >= 0) {
+                    result.add(viewOf(addresses[table[bucket] - 1]).toProduct());
+                }
+            }
+            return result;
+        });
+    }
+
+    // Lê só o campo de versão do bloco, sem materializar o produto
+    public Long findVersion(String id) {
+        int hash = hash(id);
+        return optimisticRead(() -> {
+            int bucket = find(id, hash);
+            return bucket < 0 ? null : viewOf(addresses[table[bucket] - 1]).getVersion();
+        });
+    }
+
+    /**
+     * Percorre os produtos na ordem de armazenamento, segurando o lock de leitura por trechos do diretório.
+     * A visão é reutilizada entre chamadas e a ação não deve escrever neste armazenamento.
+     */
+    public void forEach(Consumer<ProductView> action) {
+        ProductView view = new ProductView();
+        for (int start = 0; ; start += SCAN_CHUNK) {
+            long stamp = lock.readLock();
+            try {
+                int end = Math.min(recordTop, start + SCAN_CHUNK);
+                if (start >= end) {
+                    return;
+                }
+                for (int record = start; record < end; record++) {
+                    long address = addresses[record];
+                    if (address >= 0) {
+                        view.moveTo(slabOf(address), offsetOf(address));
+                        action.accept(view);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Materializa apenas os produtos aceitos pelo filtro, que é avaliado sobre a visão.
+     */
+    public List<Product> findAll(Predicate<ProductView> filter) {
+        List<Product> result = new ArrayList<>();
+        forEach(view -> {
+            if (filter.test(view)) {
+                result.add(view.toProduct());
+            }
+        });
+        return result;
+    }
+
+    public List<Product> findAll() {
+        return findAll(view -> true);
+    }
+
+    /**
+     * Percorre todos os produtos sem copiar o catálogo, na ordem de armazenamento.
+     * Fracamente consistente: produtos criados depois do início podem não aparecer.
+     */
+    public Stream<Product> stream() {
+        int records;
+        long stamp = lock.readLock();
+        try {
+            records = recordTop;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return IntStream.range(0, records).mapToObj(this::productAt).filter(Objects::nonNull);
+    }
+
+    // Consultas por faixa: varredura O(n) sobre a visão, sem índices secundários no heap; devolvem os até
+    // limit primeiros na mesma ordem do ProductReadModel
+
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice, int limit) {
+        return first(view -> view.getPrice() >= minPrice && view.getPrice() <= maxPrice,
+                view -> sortKeyOf(view, false), ProductReadModel.BY_PRICE, null, limit);
+    }
+
+    public List<Product> findByQuantityBelow(int threshold, int limit) {
+        return first(view -> view.getQuantity() < threshold,
+                view -> sortKeyOf(view, false), ProductReadModel.BY_QUANTITY, null, limit);
+    }
+
+    public List<Product> findByNamePrefix(String prefix, int limit) {
+        return first(view -> view.nameStartsWith(prefix),
+                view -> sortKeyOf(view, true), ProductReadModel.BY_NAME, null, limit);
+    }
+
+    /**
+     * Página por cursor na mesma ordem e com o mesmo cursor do {@link ProductReadModel#findPage}.
+     * Sem índices ordenados, é uma varredura O(n), como as consultas por faixa.
+     */
+    public List<Product> findPage(ProductSortKey sortBy, @Nullable String afterId, @Nullable String afterName,
+                                  @Nullable Double afterPrice, int limit) {
+        ProductSortKey key = sortBy == null ? ProductSortKey.ID : sortBy;
+        Product cursor = ProductReadModel.cursorOf(key, afterId, afterName, afterPrice);
+        return first(view -> true, view -> sortKeyOf(view, key == ProductSortKey.NAME),
+                ProductReadModel.orderOf(key), cursor, limit);
+    }
+
+    /**
+     * Busca textual por varredura, no lugar do {@link ProductSearchIndex}: mesmos termos, mesma regra de prefixo
+     * e mesmos pesos, mas sem o IDF, que depende das frequências mantidas pelo índice. Devolve os até
+     * {@code limit} produtos mais relevantes, do mais ao menos relevante.
+     */
+    public List<Product> search(String text, int limit) {
+        List<String> terms = ProductSearchIndex.queryTerms(text);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<Match> top = new PriorityQueue<>(Math.min(limit, SCAN_CHUNK), WORST_MATCH_FIRST);
+        forEach(view -> {
+            double score = ProductSearchIndex.score(view.getName(), view.getDescription(), terms);
+            if (score == 0 || top.size() == limit && score < top.peek().score()) {
+                return;
+            }
+            Match match = new Match(view.toProduct(), score);
+            if (top.size() < limit) {
+                top.add(match);
+            } else if (WORST_MATCH_FIRST.compare(match, top.peek()) > 0) {
+                top.poll();
+                top.add(match);
+            }
+        });
+
+        Product[] ranked = new Product[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = top.poll().product();
+        }
+        return List.of(ranked);
+    }
+
+    /**
+     * Contagem, quantidade e valor em O(1); os preços mínimo e máximo exigem uma varredura, sem alocação.
+     */
+    public InventoryStats stats() {
+        long count;
+        long quantity;
+        BigDecimal value;
+        long stamp = lock.readLock();
+        try {
+            count = size;
+            quantity = totalQuantity;
+            value = stockValue;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        double[] range = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        forEach(view -> {
+            range[0] = Math.min(range[0], view.getPrice());
+            range[1] = Math.max(range[1], view.getPrice());
+        });
+        boolean empty = range[0] > range[1];
+        return new InventoryStats(count, quantity, value, empty ? null : range[0], empty ? null : range[1]);
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int current = size;
+        if (lock.validate(stamp)) {
+            return current;
+        }
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Memória fora do heap reservada pelos slabs, em bytes.
+     */
+    public long allocatedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) slabs.length * slabSize;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // A memória dos slabs descartados é devolvida quando o GC coleta os buffers
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            slabs = new ByteBuffer[0];
+            slabTop = 0;
+            Arrays.fill(freeBlockCounts, 0);
+            Arrays.fill(addresses, -1);
+            Arrays.fill(table, 0);
+            recordTop = 0;
+            freeRecordCount = 0;
+            size = 0;
+            totalQuantity = 0;
+            stockValue = BigDecimal.ZERO;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void put(Product product, boolean replace) {
+        // Ids UUID ocupam 16 bytes em vez dos 36 do texto
+        ProductId binaryId = ProductId.tryParse(product.getId());
+        byte[] textId = binaryId == null ? utf8(product.getId()) : null;
+        byte[] name = utf8(product.getName());
+        byte[] description = utf8(product.getDescription());
+        int shift = blockShift(ProductView.recordSize(binaryId, textId, name, description));
+        int hash = hash(product.getId());
+
+        long stamp = lock.writeLock();
+        try {
+            if (2 * (size + 1) > table.length) {
+                resizeTable();
+            }
+            int bucket = find(product.getId(), hash);
+            Long version = product.getVersion();
+            long address;
+            if (bucket >= 0) {
+                if (!replace) {
+                    return;
+                }
+                int record = table[bucket] - 1;
+                address = addresses[record];
+                ProductView current = viewOf(address);
+                subtractTotals(current.getPrice(), current.getQuantity());
+                // O registro é reescrito no mesmo bloco enquanto couber na mesma classe
+                int currentShift = blockShift(current.recordSize());
+                if (currentShift != shift) {
+                    freeBlock(address, currentShift);
+                    address = allocateBlock(shift);
+                    addresses[record] = address;
+                }
+            } else {
+                int record = allocateRecord();
+                address = allocateBlock(shift);
+                addresses[record] = address;
+                hashes[record] = hash;
+                table[-bucket - 1] = record + 1;
+                size++;
+            }
+            ProductView.write(slabOf(address), offsetOf(address), version, product.getPrice(), product.getQuantity(),
+                    binaryId, textId, name, description);
+            totalQuantity += product.getQuantity();
+            stockValue = stockValue.add(stockValue(product.getPrice(), product.getQuantity()));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Posição do id no índice, ou {@code -(posição livre) - 1} se ele não estiver armazenado.
+     */
+    private int find(String id, int hash) {
+        int[] buckets = table;
+        int mask = buckets.length - 1;
+        ProductView view = new ProductView();
+        for (int bucket = hash & mask, probes = 0; probes < buckets.length; bucket = (bucket + 1) & mask, probes++) {
+            int entry = buckets[bucket];
+            if (entry == 0) {
+                return -bucket - 1;
+            }
+            int record = entry - 1;
+            if (hashes[record] == hash) {
+                long address = addresses[record];
+                view.moveTo(slabOf(address), offsetOf(address));
+                if (view.idEquals(id)) {
+                    return bucket;
+                }
+            }
+        }
+        // Só acontece numa leitura otimista que viu o índice pela metade; a validação descarta o resultado
+        throw new IllegalStateException("Off-heap index is full");
+    }
+
+    // Remoção com deslocamento para trás: mantém as sequências de sondagem sem marcadores de remoção
+    private void removeBucket(int bucket) {
+        int mask = table.length - 1;
+        int hole = bucket;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = hashes[table[next] - 1] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    // O índice antigo não é alterado depois da troca, então leituras otimistas em andamento não entram em laço
+    private void resizeTable() {
+        int[] resized = new int[table.length * 2];
+        int mask = resized.length - 1;
+        for (int entry : table) {
+            if (entry != 0) {
+                int bucket = hashes[entry - 1] & mask;
+                while (resized[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                resized[bucket] = entry;
+            }
+        }
+        table = resized;
+    }
+
+    private int allocateRecord() {
+        if (freeRecordCount > 0) {
+            return freeRecords[--freeRecordCount];
+        }
+        if (recordTop == addresses.length) {
+            int capacity = addresses.length * 2;
+            long[] grown = Arrays.copyOf(addresses, capacity);
+            Arrays.fill(grown, recordTop, capacity, -1);
+            hashes = Arrays.copyOf(hashes, capacity);
+            addresses = grown;
+        }
+        return recordTop++;
+    }
+
+    private void freeRecord(int record) {
+        if (freeRecordCount == freeRecords.length) {
+            freeRecords = Arrays.copyOf(freeRecords, freeRecordCount * 2);
+        }
+        freeRecords[freeRecordCount++] = record;
+    }
+
+    private long allocateBlock(int shift) {
+        int sizeClass = shift - MIN_BLOCK_SHIFT;
+        if (freeBlockCounts[sizeClass] > 0) {
+            return freeBlocks[sizeClass][--freeBlockCounts[sizeClass]];
+        }
+        int blockSize = 1 << shift;
+        if (slabs.length == 0 || slabTop + blockSize > slabSize) {
+            // A sobra do slab anterior vira blocos livres das classes que ainda cabem nela
+            for (int remaining = slabSize - slabTop; slabs.length > 0 && remaining >= 1 << MIN_BLOCK_SHIFT; ) {
+                int tailShift = 31 - Integer.numberOfLeadingZeros(remaining);
+                freeBlock(address(slabs.length - 1, slabTop), tailShift);
+                slabTop += 1 << tailShift;
+                remaining -= 1 << tailShift;
+            }
+            ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+            grown[slabs.length] = ByteBuffer.allocateDirect(slabSize);
+            slabs = grown;
+            slabTop = 0;
+        }
+        long address = address(slabs.length - 1, slabTop);
+        slabTop += blockSize;
+        return address;
+    }
+
+    private void freeBlock(long address, int shift) {
+        int sizeClass = shift - MIN_BLOCK_SHIFT;
+        if (freeBlockCounts[sizeClass] == freeBlocks[sizeClass].length) {
+            freeBlocks[sizeClass] = Arrays.copyOf(freeBlocks[sizeClass], freeBlockCounts[sizeClass] * 2);
+        }
+        freeBlocks[sizeClass][freeBlockCounts[sizeClass]++] = address;
+    }
+
+    private int blockShift(int recordSize) {
+        int shift = Math.max(MIN_BLOCK_SHIFT, 32 - Integer.numberOfLeadingZeros(recordSize - 1));
+        if (shift > maxBlockShift) {
+            throw new IllegalArgumentException("Product record of " + recordSize + " bytes exceeds slab size " + slabSize);
+        }
+        return shift;
+    }
+
+    private Product productAt(int record) {
+        return optimisticRead(() -> {
+            long address = record < addresses.length ? addresses[record] : -1;
+            return address < 0 ? null : viewOf(address).toProduct();
+        });
+    }
+
+    // Leitura sem lock; se uma escrita concorrente invalidou o carimbo, refaz sob o lock de leitura.
+    // Uma leitura otimista pode ver estruturas pela metade e falhar, o que também leva à nova tentativa
+    private <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private ProductView viewOf(long address) {
+        ProductView view = new ProductView();
+        view.moveTo(slabOf(address), offsetOf(address));
+        return view;
+    }
+
+    private ByteBuffer slabOf(long address) {
+        return slabs[(int) (address >>> 32)];
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    private static long address(int slab, int offset) {
+        return (long) slab << 32 | offset;
+    }
+
+    private void subtractTotals(double price, int quantity) {
+        totalQuantity -= quantity;
+        stockValue = stockValue.subtract(stockValue(price, quantity));
+    }
+
+    private static BigDecimal stockValue(double price, int quantity) {
+        return BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity));
+    }
+
+    /**
+     * Os até {@code limit} primeiros produtos aceitos pelo filtro na ordem informada, depois de {@code after}
+     * quando há cursor. Uma varredura guarda só essas posições num heap limitado: a comparação usa a chave
+     * montada da visão e apenas os candidatos a alguma delas são materializados.
+     */
+    private List<Product> first(Predicate<ProductView> filter, Function<ProductView, Product> keyOf,
+                                Comparator<Product> order, @Nullable Product after, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Pior posição na cabeça da fila, para descartá-la quando surgir uma melhor
+        PriorityQueue<Product> top = new PriorityQueue<>(Math.min(limit, SCAN_CHUNK), order.reversed());
+        forEach(view -> {
+            if (!filter.test(view)) {
+                return;
+            }
+            Product candidate = keyOf.apply(view);
+            if (after != null && order.compare(candidate, after) <= 0
+                    || top.size() == limit && order.compare(candidate, top.peek()) >= 0) {
+                return;
+            }
+            if (top.size() == limit) {
+                top.poll();
+            }
+            top.add(view.toProduct());
+        });
+
+        Product[] result = new Product[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll();
+        }
+        return List.of(result);
+    }
+
+    // Id, preço e quantidade, lidos sem alocar além do id; o nome só quando a ordem o compara
+    private static Product sortKeyOf(ProductView view, boolean withName) {
+        Product key = new Product();
+        key.setId(view.getId());
+        key.setPrice(view.getPrice());
+        key.setQuantity(view.getQuantity());
+        if (withName) {
+            key.setName(view.getName());
+        }
+        return key;
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Match(Product product, double score) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.event.ProductEvent;
+import com.example.cqrsdemo.gateway.bus.QueryHandler;
+import com.example.cqrsdemo.query.api.GetCatalogVersionQuery;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão do catálogo inteiro, incrementada a cada evento de produto; base dos ETags das consultas sobre o catálogo.
+ * Avança depois que o modelo de leitura e o índice de busca aplicaram o evento, então quem lê a versão nova
+ * já encontra os dados novos. Começa no instante da inicialização deslocado 20 bits, para não repetir
+ * valores de uma execução anterior a menos que ela tenha aplicado mais de um milhão de eventos por milissegundo.
+ */
+@Component
+public class ProductCatalogVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() << 20);
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void on(ProductEvent event) {
+        version.incrementAndGet();
+    }
+
+    // Depois da reconstrução do modelo de leitura e do descarte do cache de produtos
+    @EventListener
+    public void on(ProductReadModelRebuiltEvent event) {
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    @QueryHandler
+    public Long handle(GetCatalogVersionQuery query) {
+        return version.get();
+    }
+}
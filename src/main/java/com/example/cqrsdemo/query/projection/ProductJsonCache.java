@@ -0,0 +1,157 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.gateway.bus.QueryHandler;
+import com.example.cqrsdemo.query.api.EncodedProduct;
+import com.example.cqrsdemo.query.api.GetEncodedProductQuery;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.Deflater;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON de cada produto, serializado quando o evento de criação ou atualização chega e não a cada leitura.
+ * Usa o mesmo {@link ObjectMapper} das respostas, então os bytes são idênticos aos que o Jackson escreveria.
+ * Com {@code cqrs.read-model.json-cache.gzip=true} guarda também a versão comprimida, na compressão máxima,
+ * já que ela é calculada uma vez por versão do produto; documentos menores que {@code gzip-min-size} não são comprimidos.
+ *
+ * <p>O cache é derivado do modelo de leitura ({@link ProductReadModel} ou {@link OffHeapProductStore}): a carga
+ * inicial e a recarga depois de uma reconstrução vêm dele, e os eventos de produto chegam aqui depois de aplicados
+ * a ele. A versão de cada entrada é a confirmada no banco, trazida pelo próprio evento.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.read-model.json-cache.enabled", havingValue = "true")
+public class ProductJsonCache {
+
+    // Exatamente um dos dois modelos existe, como no ProductQueryHandler
+    private final ProductReadModel readModel;
+    private final OffHeapProductStore offHeapStore;
+    private final ObjectWriter writer;
+    private final boolean gzip;
+    private final long gzipMinSize;
+    private final ConcurrentMap<String, EncodedProduct> products = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductJsonCache(@Nullable ProductReadModel readModel,
+                            @Nullable OffHeapProductStore offHeapStore,
+                            ObjectMapper objectMapper,
+                            @Value("${cqrs.read-model.json-cache.gzip:false}") boolean gzip,
+                            @Value("${cqrs.read-model.json-cache.gzip-min-size:256B}") DataSize gzipMinSize) {
+        this.readModel = readModel;
+        this.offHeapStore = offHeapStore;
+        this.writer = objectMapper.writerFor(Product.class);
+        this.gzip = gzip;
+        this.gzipMinSize = gzipMinSize.toBytes();
+    }
+
+    // Carga inicial a partir do modelo de leitura, já hidratado; eventos já aplicados têm precedência
+    @PostConstruct
+    public void hydrate() {
+        load(offHeapStore != null ? offHeapStore.stream() : readModel.stream());
+    }
+
+    // Logo depois do modelo de leitura, para que um produto presente aqui já exista nele
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void on(ProductCreatedEvent event) {
+        put(event.getProduct());
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void on(ProductUpdatedEvent event) {
+        put(event.getProduct());
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void on(ProductDeletedEvent event) {
+        products.remove(event.getProductId());
+    }
+
+    // A reconstrução pode ter mudado qualquer produto sem evento próprio. Recarrega antes de a versão do catálogo
+    // avançar, como o cache de produtos do ProductQueryHandler, sem regredir uma versão que um evento concorrente
+    // já gravou, e remove o que não existe mais na visão nova
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductReadModelRebuiltEvent event) {
+        load(readModel.stream());
+        products.keySet().removeIf(id -> readModel.findById(id).isEmpty());
+    }
+
+    @QueryHandler
+    public EncodedProduct handle(GetEncodedProductQuery query) {
+        EncodedProduct encoded = products.get(query.getId());
+        if (encoded == null) {
+            throw new RuntimeException("Product not found with id: " + query.getId());
+        }
+        return encoded;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public void clear() {
+        products.clear();
+    }
+
+    private void put(Product product) {
+        products.put(product.getId(), encode(product));
+    }
+
+    private void load(Stream<Product> source) {
+        source.forEach(product -> products.merge(product.getId(), encode(product), ProductJsonCache::newer));
+    }
+
+    private static EncodedProduct newer(EncodedProduct current, EncodedProduct fresh) {
+        return current.version() != null && fresh.version() != null && current.version() > fresh.version()
+                ? current : fresh;
+    }
+
+    EncodedProduct encode(Product product) {
+        byte[] json;
+        try {
+            json = writer.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product " + product.getId(), e);
+        }
+        byte[] gzipped = gzip && json.length >= gzipMinSize ? gzip(json) : null;
+        return new EncodedProduct(json, gzipped, product.getVersion());
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,728 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.query.api.InventoryStats;
+import com.example.cqrsdemo.query.api.ProductSortKey;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Modelo de leitura em memória alimentado pelos eventos de produto.
+ * As consultas são respondidas a partir desta visão, sem acessar o banco de escrita.
+ * As instâncias devolvidas são compartilhadas entre leitores e não devem ser alteradas.
+ * Os listeners executam antes dos demais, para que caches derivados já encontrem a visão atualizada.
+ * Com {@code cqrs.read-model.shards} maior que 1 a visão é dividida em shards pelo id, com hash consistente;
+ * cada shard tem seus próprios mapas, índices e totais, então publicadores concorrentes de produtos em shards
+ * diferentes não disputam as mesmas estruturas. Os eventos são aplicados na thread que os publica, um escritor
+ * por vez em cada shard; as leituras que montam um resultado são otimistas e validadas, então nunca veem um
+ * produto entre a remoção e a reinserção nos índices nem totais de outro momento. Consultas que cruzam shards
+ * consultam todos em paralelo e intercalam os resultados, já ordenados em cada shard.
+ * Com {@code cqrs.read-model.off-heap.enabled=true} é substituído pelo {@link OffHeapProductStore}.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.read-model.off-heap.enabled", havingValue = "false", matchIfMissing = true)
+public class ProductReadModel {
+
+    static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+    static final Comparator<Product> BY_NAME = Comparator
+            .comparing(Product::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Product::getId);
+
+    static final Comparator<Product> BY_PRICE = Comparator
+            .comparingDouble(Product::getPrice)
+            .thenComparing(Product::getId);
+
+    static final Comparator<Product> BY_QUANTITY = Comparator
+            .comparingInt(Product::getQuantity)
+            .thenComparing(Product::getId);
+
+    // Nenhum id real é vazio, então um id vazio posiciona a sonda antes de todos os produtos com a mesma chave
+    private static final String LOWEST_ID = "";
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Um produto fica sempre no mesmo shard: o hash do id escolhe um dos SHARD_BUCKETS baldes virtuais
+    // e cada balde pertence a um shard, distribuído por jump consistent hash
+    private static final int SHARD_BUCKETS = 1024;
+
+    private final Shard[] shards;
+    private final Shard[] shardByBucket = new Shard[SHARD_BUCKETS];
+
+    @Autowired
+    public ProductReadModel(ProductRepository productRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${cqrs.read-model.shards:1}") int shards) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        int count = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            this.shards[i] = new Shard();
+        }
+        for (int bucket = 0; bucket < SHARD_BUCKETS; bucket++) {
+            shardByBucket[bucket] = this.shards[jumpHash(bucket, count)];
+        }
+    }
+
+    // Carga inicial a partir do estado atual; eventos já aplicados têm precedência
+    @PostConstruct
+    public void hydrate() {
+        Projection[] targets = new Projection[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            targets[i] = shards[i].current;
+        }
+        load(targets, productRepository.findAll(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reconstrói a visão a partir do banco sem interromper as leituras: os produtos são divididos em partições
+     * e carregados em paralelo numa visão nova, que recebe os eventos ao vivo durante a carga e substitui
+     * a atual ao final. Com um shard as partições vêm do hash do id e {@code parallelism <= 0} usa todos os
+     * processadores; com vários, cada shard é uma partição e a troca acontece shard a shard.
+     * Ao final publica {@link ProductReadModelRebuiltEvent}, que descarta o cache de produtos e avança a versão do catálogo.
+     */
+    public synchronized RebuildResult rebuild(int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        Projection[] next = new Projection[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            next[i] = new Projection(true);
+            shards[i].rebuilding = next[i];
+        }
+        int partitions;
+        int products = 0;
+        try {
+            partitions = load(next, productRepository.findAll(), threads);
+            for (int i = 0; i < shards.length; i++) {
+                next[i].stopTrackingDeletes();
+                // Nesta ordem: um evento que ainda viu a visão em reconstrução já a atualizou, e os seguintes
+                // encontram a nova visão como atual
+                shards[i].replace(next[i]);
+                products += next[i].products.size();
+            }
+        } finally {
+            for (Shard shard : shards) {
+                shard.rebuilding = null;
+            }
+        }
+        eventPublisher.publishEvent(new ProductReadModelRebuiltEvent(products));
+        return new RebuildResult(products, partitions,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductCreatedEvent event) {
+        shardOf(event.getProductId()).apply(view -> view.put(copyOf(event.getProduct())));
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductUpdatedEvent event) {
+        shardOf(event.getProductId()).apply(view -> view.put(copyOf(event.getProduct())));
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductDeletedEvent event) {
+        shardOf(event.getProductId()).apply(view -> view.delete(event.getProductId()));
+    }
+
+    public Optional<Product> findById(String id) {
+        return Optional.ofNullable(shardOf(id).current.products.get(id));
+    }
+
+    // Na ordem dos ids; os inexistentes são ignorados
+    public List<Product> findAllById(Collection<String> ids) {
+        List<Product> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Product product = shardOf(id).current.products.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    public List<Product> findAll() {
+        return gather(view -> view.byId.values(), BY_ID, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Devolve até {@code limit} produtos posicionados após o cursor na ordem informada.
+     * Fora da ordem por id o cursor é o par (valor da chave, id) da última linha entregue, usado como sonda no índice:
+     * o produto do cursor pode ter mudado de nome ou preço, ou sido excluído, sem deslocar a página seguinte.
+     */
+    public List<Product> findPage(ProductSortKey sortBy, @Nullable String afterId, @Nullable String afterName,
+                                  @Nullable Double afterPrice, int limit) {
+        Product cursor = sortBy == null || sortBy == ProductSortKey.ID ? null
+                : cursorOf(sortBy, afterId, afterName, afterPrice);
+        return readAll(() -> {
+            List<Iterator<Product>> iterators = new ArrayList<>(shards.length);
+            for (Shard shard : shards) {
+                iterators.add(iteratorAfter(shard.current, sortBy, afterId, cursor));
+            }
+            Iterator<Product> iterator = merge(iterators, orderOf(sortBy));
+            List<Product> page = new ArrayList<>(Math.min(limit, 1024));
+            while (page.size() < limit && iterator.hasNext()) {
+                page.add(iterator.next());
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Percorre todos os produtos em ordem de id sem copiar a coleção.
+     * Única leitura sem retrato: o iterador é fracamente consistente e reflete escritas concorrentes sem falhar.
+     */
+    public Stream<Product> stream() {
+        if (shards.length == 1) {
+            return shards[0].current.byId.values().stream();
+        }
+        List<Iterator<Product>> iterators = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            iterators.add(shard.current.byId.values().iterator());
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merge(iterators, BY_ID),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    // Consultas por faixa: cada shard percorre só o início do trecho do índice, até limit produtos
+
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice, int limit) {
+        if (minPrice > maxPrice) {
+            return List.of();
+        }
+        // O limite superior exclusivo em nextUp(maxPrice) inclui todos os ids com preço igual a maxPrice
+        Product from = probe(minPrice, 0, null);
+        Product to = probe(Math.nextUp(maxPrice), 0, null);
+        return gather(view -> first(view.byPrice.subSet(from, true, to, false), limit), BY_PRICE, limit);
+    }
+
+    public List<Product> findByQuantityBelow(int threshold, int limit) {
+        Product bound = probe(0, threshold, null);
+        return gather(view -> first(view.byQuantity.headSet(bound, false), limit), BY_QUANTITY, limit);
+    }
+
+    public List<Product> findByNamePrefix(String prefix, int limit) {
+        Product from = probe(0, 0, prefix);
+        return gather(view -> {
+            List<Product> result = new ArrayList<>();
+            for (Product product : view.byName.tailSet(from, true)) {
+                if (result.size() >= limit || product.getName() == null || !product.getName().startsWith(prefix)) {
+                    break;
+                }
+                result.add(product);
+            }
+            return result;
+        }, BY_NAME, limit);
+    }
+
+    /**
+     * Totais do estoque em O(shards), sem percorrer o catálogo, num retrato único de todos os shards:
+     * contagem, quantidade, valor e preços mínimo e máximo refletem os mesmos eventos.
+     */
+    public InventoryStats stats() {
+        return readAll(() -> {
+            Totals totals = Totals.EMPTY;
+            Double minPrice = null;
+            Double maxPrice = null;
+            for (Shard shard : shards) {
+                Projection view = shard.current;
+                totals = totals.add(view.totals.get());
+                Iterator<Product> cheapest = view.byPrice.iterator();
+                Iterator<Product> priciest = view.byPrice.descendingIterator();
+                if (cheapest.hasNext()) {
+                    double price = cheapest.next().getPrice();
+                    minPrice = minPrice == null ? price : Math.min(minPrice, price);
+                }
+                if (priciest.hasNext()) {
+                    double price = priciest.next().getPrice();
+                    maxPrice = maxPrice == null ? price : Math.max(maxPrice, price);
+                }
+            }
+            return new InventoryStats(totals.count(), totals.quantity(), totals.value(), minPrice, maxPrice);
+        });
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.current.products.size();
+        }
+        return size;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.replace(new Projection(false));
+        }
+    }
+
+    private Shard shardOf(String id) {
+        return shardByBucket[bucketOf(id)];
+    }
+
+    // Cada shard responde com a sua parte, já ordenada e num retrato coerente do shard; a ordenação final só
+    // intercala as sequências, em O(n log shards). Os shards são consultados em paralelo no pool comum; com um só
+    // núcleo, em sequência. Cada shard já devolve no máximo limit produtos; da intercalação ficam os limit primeiros
+    private List<Product> gather(Function<Projection, Collection<Product>> query, Comparator<Product> order, int limit) {
+        if (shards.length == 1) {
+            return shards[0].read(view -> new ArrayList<>(query.apply(view)));
+        }
+        List<Collection<Product>> parts;
+        if (ForkJoinPool.getCommonPoolParallelism() > 1) {
+            parts = Arrays.stream(shards).parallel()
+                    .map(shard -> shard.read(view -> (Collection<Product>) new ArrayList<>(query.apply(view))))
+                    .toList();
+        } else {
+            parts = new ArrayList<>(shards.length);
+            for (Shard shard : shards) {
+                parts.add(shard.read(view -> new ArrayList<>(query.apply(view))));
+            }
+        }
+        List<Product> result = new ArrayList<>();
+        for (Collection<Product> part : parts) {
+            result.addAll(part);
+        }
+        result.sort(order);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Retrato de todos os shards ao mesmo tempo: a leitura roda sem lock e só é repetida, com o lock de leitura
+     * de cada shard na ordem dos shards, se algum evento foi aplicado no meio. Os escritores tomam um único lock,
+     * então a ordem fixa não tem como travar. O resultado precisa ser materializado pelo leitor.
+     */
+    private <T> T readAll(Supplier<T> reader) {
+        long[] stamps = new long[shards.length];
+        boolean optimistic = true;
+        for (int i = 0; i < shards.length && optimistic; i++) {
+            stamps[i] = shards[i].lock.tryOptimisticRead();
+            optimistic = stamps[i] != 0;
+        }
+        if (optimistic) {
+            T result = reader.get();
+            if (validate(stamps)) {
+                return result;
+            }
+        }
+        int locked = 0;
+        try {
+            for (; locked < shards.length; locked++) {
+                stamps[locked] = shards[locked].lock.readLock();
+            }
+            return reader.get();
+        } finally {
+            for (int i = 0; i < locked; i++) {
+                shards[i].lock.unlockRead(stamps[i]);
+            }
+        }
+    }
+
+    private boolean validate(long[] stamps) {
+        for (int i = 0; i < shards.length; i++) {
+            if (!shards[i].lock.validate(stamps[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // size() das visões de um ConcurrentSkipListSet percorre o trecho inteiro, então a lista cresce sob demanda
+    private static List<Product> first(Collection<Product> products, int limit) {
+        List<Product> result = new ArrayList<>();
+        for (Product product : products) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(product);
+        }
+        return result;
+    }
+
+    /**
+     * Carrega {@code source} nas visões de destino, uma por shard, e devolve o número de partições.
+     * Com um shard a carga é dividida pelo hash do id em {@code parallelism} partições; com vários, cada shard
+     * é uma partição. Cada partição é carregada por uma tarefa do fork-join e os totais são somados no fim.
+     */
+    private static int load(Projection[] targets, List<Product> source, int parallelism) {
+        int partitions = targets.length > 1 ? targets.length : parallelism;
+        List<List<Product>> parts = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            parts.add(new ArrayList<>(source.size() / partitions + 1));
+        }
+        for (Product product : source) {
+            parts.get(targets.length > 1
+                    ? jumpHash(bucketOf(product.getId()), partitions)
+                    : partition(product.getId(), partitions)).add(product);
+        }
+        if (partitions == 1) {
+            targets[0].load(parts.get(0));
+            return 1;
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, partitions))) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions);
+            for (int i = 0; i < partitions; i++) {
+                Projection target = targets[targets.length > 1 ? i : 0];
+                List<Product> part = parts.get(i);
+                tasks.add(pool.submit(() -> target.load(part)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        return partitions;
+    }
+
+    static int partition(String id, int partitions) {
+        int hash = id.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    static int shardOf(String id, int shards) {
+        return jumpHash(bucketOf(id), shards);
+    }
+
+    // Finalizador do MurmurHash3 para que ids parecidos não caiam em baldes vizinhos
+    private static int bucketOf(String id) {
+        int hash = id.hashCode() * 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash & (SHARD_BUCKETS - 1);
+    }
+
+    /**
+     * Jump consistent hash (Lamping e Veach): espalha as chaves por igual e, se o número de shards mudar
+     * de n para n + 1, só 1/(n + 1) delas troca de shard, todas para o shard novo.
+     */
+    static int jumpHash(long key, int shards) {
+        long bucket = -1;
+        long next = 0;
+        while (next < shards) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    static Comparator<Product> orderOf(ProductSortKey sortBy) {
+        if (sortBy == null || sortBy == ProductSortKey.ID) {
+            return BY_ID;
+        }
+        return sortBy == ProductSortKey.NAME ? BY_NAME : BY_PRICE;
+    }
+
+    private static Iterator<Product> iteratorAfter(Projection view, ProductSortKey sortBy, String afterId, Product cursor) {
+        if (sortBy == null || sortBy == ProductSortKey.ID) {
+            return afterId == null
+                    ? view.byId.values().iterator()
+                    : view.byId.tailMap(afterId, false).values().iterator();
+        }
+        NavigableSet<Product> index = sortBy == ProductSortKey.NAME ? view.byName : view.byPrice;
+        return cursor == null ? index.iterator() : index.tailSet(cursor, false).iterator();
+    }
+
+    private static Iterator<Product> merge(List<Iterator<Product>> iterators, Comparator<Product> order) {
+        return iterators.size() == 1 ? iterators.get(0) : new MergingIterator(iterators, order);
+    }
+
+    // Sonda com a posição do cursor na ordem de sortBy; nula na primeira página
+    @Nullable
+    static Product cursorOf(ProductSortKey sortBy, @Nullable String afterId, @Nullable String afterName,
+                            @Nullable Double afterPrice) {
+        if (afterId == null) {
+            return null;
+        }
+        if (sortBy == ProductSortKey.PRICE && afterPrice == null) {
+            throw new IllegalArgumentException("afterPrice is required to page by PRICE after product " + afterId);
+        }
+        // Sem o nome, a sonda nula fica antes de todos os nomes e a página se repetiria indefinidamente
+        if (sortBy == ProductSortKey.NAME && afterName == null) {
+            throw new IllegalArgumentException("afterName is required to page by NAME after product " + afterId);
+        }
+        Product cursor = probe(afterPrice == null ? 0 : afterPrice, 0, afterName);
+        cursor.setId(afterId);
+        return cursor;
+    }
+
+    // Sonda de busca nos índices ordenados; nunca é armazenada
+    private static Product probe(double price, int quantity, String name) {
+        Product probe = new Product();
+        probe.setId(LOWEST_ID);
+        probe.setPrice(price);
+        probe.setQuantity(quantity);
+        probe.setName(name);
+        return probe;
+    }
+
+    public record RebuildResult(int products, int partitions, long elapsedMillis) {
+    }
+
+    // Visão servida às consultas e, durante uma reconstrução, a visão nova que recebe os eventos junto com ela
+    private static final class Shard {
+
+        private volatile Projection current = new Projection(false);
+        private volatile Projection rebuilding;
+
+        // Um escritor por vez no shard; leituras otimistas validadas pelo carimbo, como no OffHeapProductStore
+        private final StampedLock lock = new StampedLock();
+
+        // Aplicado na thread que publica, sem passagem para outra thread, para que os listeners seguintes encontrem
+        // a visão atualizada. A visão em reconstrução recebe o evento antes da atual; ver rebuild
+        void apply(Consumer<Projection> change) {
+            long stamp = lock.writeLock();
+            try {
+                Projection next = rebuilding;
+                if (next != null) {
+                    change.accept(next);
+                }
+                Projection live = current;
+                if (live != next) {
+                    change.accept(live);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Sob o lock de escrita, para que uma leitura otimista em andamento seja repetida na visão nova
+        void replace(Projection view) {
+            long stamp = lock.writeLock();
+            try {
+                current = view;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Retrato coerente do shard: sem lock quando nenhum evento é aplicado durante a leitura, e repetida
+        // com o lock de leitura quando é. O resultado precisa ser materializado pelo leitor
+        <T> T read(Function<Projection, T> reader) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                T result = reader.apply(current);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return reader.apply(current);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    // Intercala iteradores já ordenados, mantendo o próximo de cada um num heap
+    private static final class MergingIterator implements Iterator<Product> {
+
+        private final PriorityQueue<Head> heads;
+
+        MergingIterator(List<Iterator<Product>> sources, Comparator<Product> order) {
+            this.heads = new PriorityQueue<>(sources.size(), Comparator.comparing(Head::product, order));
+            for (Iterator<Product> source : sources) {
+                advance(source);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Product next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.rest());
+            return head.product();
+        }
+
+        private void advance(Iterator<Product> source) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+
+        private record Head(Product product, Iterator<Product> rest) {
+        }
+    }
+
+    // Mapa por id, índices ordenados e totais de uma versão da visão
+    private static final class Projection {
+
+        final ConcurrentMap<String, Product> products = new ConcurrentHashMap<>();
+
+        // Índices ordenados usados pela paginação por cursor, pela leitura em fluxo e pelas consultas por faixa
+        final ConcurrentSkipListMap<String, Product> byId = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListSet<Product> byName = new ConcurrentSkipListSet<>(BY_NAME);
+        final ConcurrentSkipListSet<Product> byPrice = new ConcurrentSkipListSet<>(BY_PRICE);
+        final ConcurrentSkipListSet<Product> byQuantity = new ConcurrentSkipListSet<>(BY_QUANTITY);
+
+        // Totais do estoque, ajustados pela diferença de cada evento; a troca atômica mantém a soma exata
+        // mesmo com produtos diferentes sendo alterados ao mesmo tempo
+        final AtomicReference<Totals> totals = new AtomicReference<>(Totals.EMPTY);
+
+        // Ids excluídos durante a carga de uma reconstrução, para que a carga não traga de volta
+        // um produto lido do banco antes da exclusão
+        private volatile Set<String> deletedWhileLoading;
+
+        Projection(boolean trackDeletes) {
+            this.deletedWhileLoading = trackDeletes ? ConcurrentHashMap.newKeySet() : null;
+        }
+
+        void stopTrackingDeletes() {
+            deletedWhileLoading = null;
+        }
+
+        // compute serializa escritas concorrentes do mesmo id, mantendo os índices coerentes
+        void put(Product product) {
+            products.compute(product.getId(), (id, existing) -> {
+                if (existing != null) {
+                    unindex(existing);
+                }
+                index(product);
+                totals.updateAndGet(previous -> (existing == null ? previous : previous.minus(existing)).plus(product));
+                return product;
+            });
+        }
+
+        void delete(String productId) {
+            products.compute(productId, (id, existing) -> {
+                Set<String> deleted = deletedWhileLoading;
+                if (deleted != null) {
+                    deleted.add(id);
+                }
+                if (existing != null) {
+                    unindex(existing);
+                    totals.updateAndGet(previous -> previous.minus(existing));
+                }
+                return null;
+            });
+        }
+
+        // Produtos lidos do banco não sobrescrevem o que os eventos já aplicaram nem revivem excluídos
+        void load(List<Product> source) {
+            Totals loaded = Totals.EMPTY;
+            for (Product product : source) {
+                Product copy = copyOf(product);
+                boolean[] added = new boolean[1];
+                products.compute(copy.getId(), (id, existing) -> {
+                    Set<String> deleted = deletedWhileLoading;
+                    if (existing != null || (deleted != null && deleted.contains(id))) {
+                        return existing;
+                    }
+                    index(copy);
+                    added[0] = true;
+                    return copy;
+                });
+                if (added[0]) {
+                    loaded = loaded.plus(copy);
+                }
+            }
+            Totals partition = loaded;
+            totals.updateAndGet(previous -> previous.add(partition));
+        }
+
+        private void index(Product product) {
+            byId.put(product.getId(), product);
+            byName.add(product);
+            byPrice.add(product);
+            byQuantity.add(product);
+        }
+
+        private void unindex(Product product) {
+            byId.remove(product.getId());
+            byName.remove(product);
+            byPrice.remove(product);
+            byQuantity.remove(product);
+        }
+    }
+
+    // Valor em BigDecimal a partir da representação decimal do preço, para que somas e subtrações se anulem
+    private record Totals(long count, long quantity, BigDecimal value) {
+
+        static final Totals EMPTY = new Totals(0, 0, BigDecimal.ZERO);
+
+        Totals plus(Product product) {
+            return new Totals(count + 1, quantity + product.getQuantity(), value.add(stockValue(product)));
+        }
+
+        Totals minus(Product product) {
+            return new Totals(count - 1, quantity - product.getQuantity(), value.subtract(stockValue(product)));
+        }
+
+        Totals add(Totals other) {
+            return new Totals(count + other.count, quantity + other.quantity, value.add(other.value));
+        }
+
+        private static BigDecimal stockValue(Product product) {
+            return BigDecimal.valueOf(product.getPrice()).multiply(BigDecimal.valueOf(product.getQuantity()));
+        }
+    }
+
+    // A entidade do evento pertence ao lado de escrita; a visão guarda sua própria cópia
+    static Product copyOf(Product source) {
+        Product copy = new Product();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setPrice(source.getPrice());
+        copy.setQuantity(source.getQuantity());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+}
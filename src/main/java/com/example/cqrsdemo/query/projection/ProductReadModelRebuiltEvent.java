@@ -0,0 +1,8 @@
+package com.example.cqrsdemo.query.projection;
+
+/**
+ * Publicado depois que {@link ProductReadModel#rebuild(int)} troca a visão: qualquer produto pode ter mudado
+ * sem um evento próprio, então caches derivados são descartados e a versão do catálogo avança.
+ */
+public record ProductReadModelRebuiltEvent(int products) {
+}
@@ -0,0 +1,324 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória sobre o nome e a descrição dos produtos, mantido pelos eventos.
+ * Cada termo da busca casa por prefixo; todos os termos precisam casar e os resultados
+ * são ordenados por relevância (TF-IDF, com peso maior para o nome e para termos exatos).
+ * Depende do {@link ProductReadModel} e fica desativado junto com ele no modo fora do heap,
+ * em que o {@link OffHeapProductStore} busca por varredura.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.read-model.off-heap.enabled", havingValue = "false", matchIfMissing = true)
+public class ProductSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    // Um termo que só casa por prefixo vale metade do termo exato
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Pior resultado na cabeça da fila: menor pontuação e, no empate, maior id
+    private static final Comparator<Hit> WORST_FIRST = Comparator
+            .comparingDouble(Hit::score)
+            .thenComparing(Hit::productId, Comparator.reverseOrder());
+
+    private final ProductReadModel readModel;
+
+    // termo -> ids dos produtos que o contêm; ordenado para expandir prefixos
+    private final ConcurrentSkipListMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+
+    // id do produto -> termos indexados, para remover as entradas antigas sem reindexar o catálogo
+    // e pontuar candidatos sem voltar ao mapa de termos
+    private final ConcurrentMap<String, IndexedTerm[]> documents = new ConcurrentHashMap<>();
+
+    // Leituras não bloqueiam; as escritas são serializadas para manter termos e documentos coerentes
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Autowired
+    public ProductSearchIndex(ProductReadModel readModel) {
+        this.readModel = readModel;
+    }
+
+    // Carga inicial a partir da visão já hidratada; eventos já aplicados têm precedência
+    @PostConstruct
+    public void hydrate() {
+        readModel.stream().forEach(product -> {
+            writeLock.lock();
+            try {
+                if (!documents.containsKey(product.getId())) {
+                    index(product);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        });
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductCreatedEvent event) {
+        put(event.getProduct());
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductUpdatedEvent event) {
+        put(event.getProduct());
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void on(ProductDeletedEvent event) {
+        writeLock.lock();
+        try {
+            unindex(event.getProductId());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Devolve os ids dos até {@code limit} produtos mais relevantes para {@code text}, do mais ao menos relevante.
+     */
+    public List<String> search(String text, int limit) {
+        List<String> terms = queryTerms(text);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Os candidatos vêm do termo mais seletivo; os demais são conferidos nos termos de cada candidato
+        String driver = mostSelective(terms);
+        int documentCount = Math.max(documents.size(), 1);
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, 1024), WORST_FIRST);
+        for (Map.Entry<String, Set<String>> entry : expand(driver).entrySet()) {
+            for (String productId : entry.getValue()) {
+                IndexedTerm[] document = documents.get(productId);
+                // Um produto com vários termos que começam com o prefixo é avaliado só a partir do primeiro deles,
+                // o que dispensa um conjunto de candidatos já vistos
+                if (document == null || !entry.getKey().equals(firstMatch(document, driver))) {
+                    continue;
+                }
+                double score = score(document, terms, documentCount);
+                if (score == 0 || top.size() == limit && score < top.peek().score()) {
+                    continue;
+                }
+                Hit hit = new Hit(productId, score);
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (WORST_FIRST.compare(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+        }
+
+        String[] ranked = new String[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = top.poll().productId();
+        }
+        return List.of(ranked);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public void clear() {
+        writeLock.lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Termos distintos da busca, na ordem em que aparecem.
+     */
+    static List<String> queryTerms(String text) {
+        return new ArrayList<>(new LinkedHashSet<>(tokenize(text)));
+    }
+
+    /**
+     * Pontuação de um produto fora do índice, usada pela busca por varredura do {@link OffHeapProductStore}:
+     * mesmos pesos e regra de prefixo do índice, sem o IDF; zero se algum termo não casar.
+     */
+    static double score(String name, String description, List<String> queryTerms) {
+        Map<String, Integer> weights = weigh(name, description);
+        double score = 0;
+        for (String queryTerm : queryTerms) {
+            double best = 0;
+            for (Map.Entry<String, Integer> term : weights.entrySet()) {
+                if (term.getKey().startsWith(queryTerm)) {
+                    double termScore = term.getValue();
+                    best = Math.max(best, term.getKey().length() == queryTerm.length() ? termScore : termScore * PREFIX_FACTOR);
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    /**
+     * Termos em minúsculas e sem acentos, separados por qualquer caractere que não seja letra ou dígito.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized.toLowerCase())) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void put(Product product) {
+        writeLock.lock();
+        try {
+            unindex(product.getId());
+            index(product);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void index(Product product) {
+        Map<String, Integer> weights = weigh(product.getName(), product.getDescription());
+        IndexedTerm[] document = new IndexedTerm[weights.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Set<String> products = postings.computeIfAbsent(entry.getKey(), term -> ConcurrentHashMap.newKeySet());
+            products.add(product.getId());
+            document[i++] = new IndexedTerm(entry.getKey(), entry.getValue(), products);
+        }
+        Arrays.sort(document, Comparator.comparing(IndexedTerm::text));
+        documents.put(product.getId(), document);
+    }
+
+    // Peso de cada termo do produto: soma das ocorrências no nome e na descrição
+    private static Map<String, Integer> weigh(String name, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(name)) {
+            weights.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(description)) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        return weights;
+    }
+
+    private void unindex(String productId) {
+        IndexedTerm[] document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (IndexedTerm term : document) {
+            term.products().remove(productId);
+            if (term.products().isEmpty()) {
+                postings.remove(term.text(), term.products());
+            }
+        }
+    }
+
+    // Termos do índice que começam com o prefixo informado
+    private NavigableMap<String, Set<String>> expand(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private String mostSelective(List<String> terms) {
+        String best = null;
+        long bestCount = Long.MAX_VALUE;
+        for (String term : terms) {
+            long count = 0;
+            for (Set<String> products : expand(term).values()) {
+                count += products.size();
+                if (count >= bestCount) {
+                    break;
+                }
+            }
+            if (count < bestCount) {
+                best = term;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    // Os termos do documento estão em ordem alfabética
+    private static String firstMatch(IndexedTerm[] document, String prefix) {
+        for (IndexedTerm term : document) {
+            if (term.text().startsWith(prefix)) {
+                return term.text();
+            }
+        }
+        return null;
+    }
+
+    // Soma, para cada termo da busca, o melhor termo do produto que casa com ele; zero se algum não casar
+    private static double score(IndexedTerm[] document, List<String> queryTerms, int documentCount) {
+        double score = 0;
+        for (String queryTerm : queryTerms) {
+            double best = 0;
+            for (IndexedTerm term : document) {
+                if (term.text().startsWith(queryTerm)) {
+                    // IDF: termos raros no catálogo pesam mais
+                    double termScore = term.weight() * Math.log(1 + (double) documentCount / Math.max(term.products().size(), 1));
+                    best = Math.max(best, term.text().length() == queryTerm.length() ? termScore : termScore * PREFIX_FACTOR);
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    // O conjunto de produtos é o mesmo do índice de termos, então seu tamanho é a frequência do termo no catálogo
+    private record IndexedTerm(String text, int weight, Set<String> products) {
+    }
+
+    private record Hit(String productId, double score) {
+    }
+}
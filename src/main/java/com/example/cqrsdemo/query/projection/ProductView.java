@@ -0,0 +1,190 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.id.ProductId;
+import com.example.cqrsdemo.domain.model.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Visão reutilizável (flyweight) sobre um produto guardado pelo {@link OffHeapProductStore}.
+ * Os campos numéricos são lidos direto da memória fora do heap; só os textos e {@link #toProduct()}
+ * criam objetos. A visão é reposicionada a cada registro e vale apenas durante a chamada que a recebeu.
+ */
+public final class ProductView {
+
+    // Layout do bloco: cabeçalho fixo seguido do id (16 bytes se for um ProductId canônico, senão UTF-8),
+    // do nome e da descrição em UTF-8
+    static final int VERSION_OFFSET = 0;             // long: versão + 1, 0 = nula
+    static final int PRICE_OFFSET = 8;               // double
+    static final int QUANTITY_OFFSET = 16;           // int
+    static final int ID_LENGTH_OFFSET = 20;          // int: bytes do id, BINARY_ID = ProductId
+    static final int NAME_LENGTH_OFFSET = 24;        // int: bytes do nome, -1 = nulo
+    static final int DESCRIPTION_LENGTH_OFFSET = 28; // int: bytes da descrição, -1 = nula
+    static final int HEADER_SIZE = 32;
+
+    private static final int BINARY_ID = -1;
+    private static final int BINARY_ID_SIZE = 16;
+
+    private ByteBuffer slab;
+    private int offset;
+
+    ProductView() {
+    }
+
+    void moveTo(ByteBuffer slab, int offset) {
+        this.slab = slab;
+        this.offset = offset;
+    }
+
+    public String getId() {
+        int length = idLength();
+        if (length == BINARY_ID) {
+            return ProductId.toString(slab.getLong(offset + HEADER_SIZE), slab.getLong(offset + HEADER_SIZE + 8));
+        }
+        return readString(offset + HEADER_SIZE, length);
+    }
+
+    public String getName() {
+        return readString(nameStart(), slab.getInt(offset + NAME_LENGTH_OFFSET));
+    }
+
+    public String getDescription() {
+        return readString(nameStart() + Math.max(slab.getInt(offset + NAME_LENGTH_OFFSET), 0),
+                slab.getInt(offset + DESCRIPTION_LENGTH_OFFSET));
+    }
+
+    public double getPrice() {
+        return slab.getDouble(offset + PRICE_OFFSET);
+    }
+
+    public int getQuantity() {
+        return slab.getInt(offset + QUANTITY_OFFSET);
+    }
+
+    public Long getVersion() {
+        long stored = slab.getLong(offset + VERSION_OFFSET);
+        return stored == 0 ? null : stored - 1;
+    }
+
+    /**
+     * Compara o nome com o prefixo sem criar a string do nome quando o prefixo é ASCII.
+     */
+    public boolean nameStartsWith(String prefix) {
+        int length = slab.getInt(offset + NAME_LENGTH_OFFSET);
+        if (length < 0) {
+            return false;
+        }
+        int start = nameStart();
+        if (length < prefix.length()) {
+            // Em UTF-8 cada caractere ocupa ao menos um byte
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c >= 0x80) {
+                return getName().startsWith(prefix);
+            }
+            if (slab.get(start + i) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Product toProduct() {
+        Product product = new Product();
+        product.setId(getId());
+        product.setName(getName());
+        product.setDescription(getDescription());
+        product.setPrice(getPrice());
+        product.setQuantity(getQuantity());
+        product.setVersion(getVersion());
+        return product;
+    }
+
+    boolean idEquals(String id) {
+        int length = idLength();
+        if (length == BINARY_ID) {
+            // Compara os dois longs, sem converter o id guardado em texto
+            return ProductId.isCanonical(id)
+                    && slab.getLong(offset + HEADER_SIZE) == ProductId.high(id)
+                    && slab.getLong(offset + HEADER_SIZE + 8) == ProductId.low(id);
+        }
+        if (length < id.length()) {
+            return false;
+        }
+        int start = offset + HEADER_SIZE;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c >= 0x80) {
+                return getId().equals(id);
+            }
+            if (slab.get(start + i) != c) {
+                return false;
+            }
+        }
+        return length == id.length();
+    }
+
+    // Tamanho exato do registro, de onde sai a classe do bloco que ele ocupa
+    int recordSize() {
+        return HEADER_SIZE + idSize()
+                + Math.max(slab.getInt(offset + NAME_LENGTH_OFFSET), 0)
+                + Math.max(slab.getInt(offset + DESCRIPTION_LENGTH_OFFSET), 0);
+    }
+
+    // Exatamente um entre binaryId e textId é informado
+    static int recordSize(ProductId binaryId, byte[] textId, byte[] name, byte[] description) {
+        return HEADER_SIZE + (binaryId != null ? BINARY_ID_SIZE : textId.length)
+                + (name == null ? 0 : name.length) + (description == null ? 0 : description.length);
+    }
+
+    static void write(ByteBuffer slab, int offset, Long version, double price, int quantity,
+                      ProductId binaryId, byte[] textId, byte[] name, byte[] description) {
+        slab.putLong(offset + VERSION_OFFSET, version == null ? 0 : version + 1);
+        slab.putDouble(offset + PRICE_OFFSET, price);
+        slab.putInt(offset + QUANTITY_OFFSET, quantity);
+        slab.putInt(offset + ID_LENGTH_OFFSET, binaryId != null ? BINARY_ID : textId.length);
+        slab.putInt(offset + NAME_LENGTH_OFFSET, name == null ? -1 : name.length);
+        slab.putInt(offset + DESCRIPTION_LENGTH_OFFSET, description == null ? -1 : description.length);
+        int position = offset + HEADER_SIZE;
+        if (binaryId != null) {
+            slab.putLong(position, binaryId.high());
+            slab.putLong(position + 8, binaryId.low());
+            position += BINARY_ID_SIZE;
+        } else {
+            slab.put(position, textId);
+            position += textId.length;
+        }
+        if (name != null) {
+            slab.put(position, name);
+            position += name.length;
+        }
+        if (description != null) {
+            slab.put(position, description);
+        }
+    }
+
+    private int idLength() {
+        return slab.getInt(offset + ID_LENGTH_OFFSET);
+    }
+
+    private int idSize() {
+        int length = idLength();
+        return length == BINARY_ID ? BINARY_ID_SIZE : length;
+    }
+
+    private int nameStart() {
+        return offset + HEADER_SIZE + idSize();
+    }
+
+    private String readString(int position, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        slab.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
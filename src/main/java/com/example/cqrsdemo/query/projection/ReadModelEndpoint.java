@@ -0,0 +1,33 @@
+package com.example.cqrsdemo.query.projection;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code POST /actuator/read-model} reconstrói o {@link ProductReadModel} a partir do banco, em paralelo e sem
+ * interromper as leituras. O paralelismo vem de {@code cqrs.read-model.rebuild.parallelism} (0 = processadores).
+ */
+@Component
+@Endpoint(id = "read-model")
+@ConditionalOnProperty(name = "cqrs.read-model.off-heap.enabled", havingValue = "false", matchIfMissing = true)
+public class ReadModelEndpoint {
+
+    private final ProductReadModel readModel;
+    private final int parallelism;
+
+    @Autowired
+    public ReadModelEndpoint(ProductReadModel readModel,
+                             @Value("${cqrs.read-model.rebuild.parallelism:0}") int parallelism) {
+        this.readModel = readModel;
+        this.parallelism = parallelism;
+    }
+
+    @WriteOperation
+    public ProductReadModel.RebuildResult rebuild() {
+        return readModel.rebuild(parallelism);
+    }
+}
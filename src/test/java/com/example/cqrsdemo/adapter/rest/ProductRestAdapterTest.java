@@ -1,12 +1,25 @@
 
 package com.example.cqrsdemo.adapter.rest;
 
+import com.example.cqrsdemo.codec.ProductBinaryCodec;
+import com.example.cqrsdemo.codec.ProductBinaryHttpMessageConverter;
 import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
 import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.controller.BinaryETagAdvice;
 import com.example.cqrsdemo.domain.model.Product;
 import com.example.cqrsdemo.gateway.CqrsApiGateway;
+import com.example.cqrsdemo.query.api.EncodedProduct;
 import com.example.cqrsdemo.query.api.GetAllProductsQuery;
+import com.example.cqrsdemo.query.api.GetCatalogVersionQuery;
+import com.example.cqrsdemo.query.api.GetEncodedProductQuery;
 import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.api.GetProductsByIdsQuery;
+import com.example.cqrsdemo.query.api.GetProductVersionQuery;
+import com.example.cqrsdemo.query.api.GetProductsPageQuery;
+import com.example.cqrsdemo.query.api.ProductPage;
+import com.example.cqrsdemo.query.api.ProductSortKey;
+import com.example.cqrsdemo.query.api.StreamAllProductsQuery;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,13 +27,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,7 +67,13 @@ class ProductRestAdapterTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(restAdapter).build();
+        // Mesma ordem da aplicação: JSON primeiro, formato binário só quando pedido
+        mockMvc = MockMvcBuilders.standaloneSetup(restAdapter)
+                .setMessageConverters(new ByteArrayHttpMessageConverter(), new StringHttpMessageConverter(),
+                        new MappingJackson2HttpMessageConverter(),
+                        new ProductBinaryHttpMessageConverter())
+                .setControllerAdvice(new BinaryETagAdvice())
+                .build();
         objectMapper = new ObjectMapper();
 
         // Setup product
@@ -70,16 +100,16 @@ class ProductRestAdapterTest {
         command.setPrice(100.0);
         command.setQuantity(10);
 
-        when(apiGateway.sendCommand(any(CreateProductCommand.class))).thenReturn("123");
+        when(apiGateway.sendCommandAsync(any(CreateProductCommand.class))).thenReturn(CompletableFuture.completedFuture("123"));
 
         // Act & Assert
-        mockMvc.perform(post("/api/products")
+        performAsync(post("/api/products")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(command)))
                 .andExpect(status().isCreated())
                 .andExpect(content().string("123"));
 
-        verify(apiGateway, times(1)).sendCommand(any(CreateProductCommand.class));
+        verify(apiGateway, times(1)).sendCommandAsync(any(CreateProductCommand.class));
     }
 
     @Test
@@ -91,56 +121,302 @@ class ProductRestAdapterTest {
         command.setPrice(150.0);
         command.setQuantity(15);
 
-        doNothing().when(apiGateway).sendCommand(any(UpdateProductCommand.class));
+        when(apiGateway.sendCommandAsync(any(UpdateProductCommand.class))).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act & Assert
-        mockMvc.perform(put("/api/products/123")
+        performAsync(put("/api/products/123")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(command)))
                 .andExpect(status().isOk());
 
-        verify(apiGateway, times(1)).sendCommand(any(UpdateProductCommand.class));
+        verify(apiGateway, times(1)).sendCommandAsync(any(UpdateProductCommand.class));
     }
 
     @Test
     void deleteProduct_ShouldReturnNoContentStatus() throws Exception {
         // Arrange
-        doNothing().when(apiGateway).sendCommand(any());
+        when(apiGateway.sendCommandAsync(any(DeleteProductCommand.class))).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act & Assert
-        mockMvc.perform(delete("/api/products/123"))
+        performAsync(delete("/api/products/123"))
                 .andExpect(status().isNoContent());
 
-        verify(apiGateway, times(1)).sendCommand(any());
+        verify(apiGateway, times(1)).sendCommandAsync(any(DeleteProductCommand.class));
     }
 
     @Test
     void getProduct_ShouldReturnProductAndOkStatus() throws Exception {
         // Arrange
-        when(apiGateway.sendQuery(any(GetProductQuery.class))).thenReturn(product);
+        when(apiGateway.sendQueryAsync(any(GetProductQuery.class))).thenReturn(CompletableFuture.completedFuture(product));
 
         // Act & Assert
-        mockMvc.perform(get("/api/products/123"))
+        performAsync(get("/api/products/123"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value("123"))
                 .andExpect(jsonPath("$.name").value("Test Product"));
 
-        verify(apiGateway, times(1)).sendQuery(any(GetProductQuery.class));
+        verify(apiGateway, times(1)).sendQueryAsync(any(GetProductQuery.class));
     }
 
     @Test
     void getAllProducts_ShouldReturnProductListAndOkStatus() throws Exception {
         // Arrange
-        when(apiGateway.sendQuery(any(GetAllProductsQuery.class))).thenReturn(products);
+        when(apiGateway.sendQueryAsync(any(GetAllProductsQuery.class))).thenReturn(CompletableFuture.completedFuture(products));
 
         // Act & Assert
-        mockMvc.perform(get("/api/products"))
+        performAsync(get("/api/products"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("123"))
                 .andExpect(jsonPath("$[1].id").value("456"))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(2));
 
-        verify(apiGateway, times(1)).sendQuery(any(GetAllProductsQuery.class));
+        verify(apiGateway, times(1)).sendQueryAsync(any(GetAllProductsQuery.class));
+    }
+
+    @Test
+    void getAllProducts_WithBinaryAccept_ShouldReturnBinaryProductList() throws Exception {
+        // Arrange
+        when(apiGateway.sendQueryAsync(any(GetAllProductsQuery.class))).thenReturn(CompletableFuture.completedFuture(products));
+
+        // Act
+        byte[] body = performAsync(get("/api/products").accept(ProductBinaryHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProductBinaryHttpMessageConverter.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        List<?> decoded = ProductBinaryCodec.decode(ByteBuffer.wrap(body), List.class);
+        assertEquals(products, decoded);
+    }
+
+    @Test
+    void getProduct_WithBinaryAccept_ShouldUseRepresentationSpecificETag() throws Exception {
+        // Arrange
+        product.setVersion(4L);
+        when(apiGateway.sendQuery(any(GetProductVersionQuery.class))).thenReturn(4L);
+        when(apiGateway.sendQueryAsync(any(GetProductQuery.class))).thenReturn(CompletableFuture.completedFuture(product));
+
+        // Act & Assert
+        performAsync(get("/api/products/123").accept(ProductBinaryHttpMessageConverter.MEDIA_TYPE)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"p3-bin\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"p4-bin\""));
+        performAsync(get("/api/products/123").accept(ProductBinaryHttpMessageConverter.MEDIA_TYPE)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"p4-bin\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p4-bin\""));
+        performAsync(get("/api/products/123").header(HttpHeaders.IF_NONE_MATCH, "\"p3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p4\""));
+    }
+
+    @Test
+    void createProduct_WithBinaryBody_ShouldDecodeCommand() throws Exception {
+        // Arrange
+        CreateProductCommand command = new CreateProductCommand();
+        command.setName("Binary Product");
+        command.setPrice(10.5);
+        command.setQuantity(3);
+
+        when(apiGateway.sendCommandAsync(any(CreateProductCommand.class))).thenReturn(CompletableFuture.completedFuture("123"));
+
+        // Act & Assert
+        performAsync(post("/api/products")
+                        .contentType(ProductBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(ProductBinaryCodec.encode(command)))
+                .andExpect(status().isCreated());
+
+        verify(apiGateway).sendCommandAsync(command);
+    }
+
+    @Test
+    void createProduct_WithBinaryBodyOfAnotherMessage_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        DeleteProductCommand command = new DeleteProductCommand();
+        command.setId("123");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products")
+                        .contentType(ProductBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(ProductBinaryCodec.encode(command)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(apiGateway);
+    }
+
+    @Test
+    void createProduct_WithBinaryStringLongerThanTheBody_ShouldReturnBadRequest() throws Exception {
+        // Arrange: o tamanho do nome (byte 3, logo após tipo, versão e tamanho do corpo) passa do fim da mensagem
+        CreateProductCommand command = new CreateProductCommand();
+        command.setName("Binary Product");
+        byte[] body = ProductBinaryCodec.encode(command);
+        body[3] = 0x7F;
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products")
+                        .contentType(ProductBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(apiGateway);
+    }
+
+    @Test
+    void getProductsPage_ShouldReturnPageWithCursor() throws Exception {
+        // Arrange
+        when(apiGateway.sendQueryAsync(any(GetProductsPageQuery.class))).thenReturn(CompletableFuture.completedFuture(new ProductPage(products, "456")));
+
+        // Act & Assert
+        performAsync(get("/api/products/page").param("size", "2").param("sort", "PRICE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextAfterId").value("456"));
+
+        verify(apiGateway, times(1)).sendQueryAsync(new GetProductsPageQuery(2, null, ProductSortKey.PRICE));
+    }
+
+    @Test
+    void getProduct_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoadingProduct() throws Exception {
+        // Arrange
+        when(apiGateway.sendQuery(any(GetProductVersionQuery.class))).thenReturn(3L);
+
+        // Act & Assert
+        performAsync(get("/api/products/123").header(HttpHeaders.IF_NONE_MATCH, "\"p3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p3\""));
+
+        verify(apiGateway, never()).sendQueryAsync(any(GetProductQuery.class));
+    }
+
+    @Test
+    void getProduct_ShouldReturnVersionAsETag() throws Exception {
+        // Arrange
+        product.setVersion(4L);
+        when(apiGateway.sendQuery(any(GetProductVersionQuery.class))).thenReturn(4L);
+        when(apiGateway.sendQueryAsync(any(GetProductQuery.class))).thenReturn(CompletableFuture.completedFuture(product));
+
+        // Act & Assert
+        performAsync(get("/api/products/123").header(HttpHeaders.IF_NONE_MATCH, "\"p3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p4\""));
+    }
+
+    @Test
+    void getProduct_WithJsonCache_ShouldWriteCachedBytesWithoutProductQuery() throws Exception {
+        // Arrange
+        byte[] json = objectMapper.writeValueAsBytes(product);
+        byte[] gzipped = {31, -117, 8, 0};
+        when(apiGateway.supports(GetEncodedProductQuery.class)).thenReturn(true);
+        when(apiGateway.sendQuery(any(GetEncodedProductQuery.class))).thenReturn(new EncodedProduct(json, gzipped, 2L));
+
+        // Act & Assert
+        performAsync(get("/api/products/123"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(json))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p2\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        performAsync(get("/api/products/123").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p2-gz\""))
+                .andExpect(content().bytes(gzipped));
+        when(apiGateway.sendQuery(any(GetProductVersionQuery.class))).thenReturn(2L);
+        performAsync(get("/api/products/123").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"p2-gz\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p2-gz\""));
+
+        verify(apiGateway, never()).sendQueryAsync(any(GetProductQuery.class));
+    }
+
+    @Test
+    void getAllProducts_WithCurrentCatalogVersion_ShouldReturnNotModifiedWithoutQuerying() throws Exception {
+        // Arrange
+        when(apiGateway.sendQuery(any(GetCatalogVersionQuery.class))).thenReturn(7L);
+
+        // Act & Assert
+        performAsync(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, "\"c6\", W/\"c7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c7\""));
+
+        verify(apiGateway, never()).sendQueryAsync(any(GetAllProductsQuery.class));
+    }
+
+    @Test
+    void getAllProducts_WithStaleCatalogVersion_ShouldReturnListAndCurrentETag() throws Exception {
+        // Arrange
+        when(apiGateway.sendQuery(any(GetCatalogVersionQuery.class))).thenReturn(8L);
+        when(apiGateway.sendQueryAsync(any(GetAllProductsQuery.class))).thenReturn(CompletableFuture.completedFuture(products));
+
+        // Act & Assert
+        performAsync(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, "\"c7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c8\""))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void getProductsByIds_ShouldSendOneQueryForAllIds() throws Exception {
+        // Arrange
+        when(apiGateway.sendQueryAsync(any(GetProductsByIdsQuery.class))).thenReturn(CompletableFuture.completedFuture(products));
+
+        // Act & Assert
+        performAsync(get("/api/products/by-ids").param("ids", "123,456"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        verify(apiGateway, times(1)).sendQueryAsync(new GetProductsByIdsQuery(List.of("123", "456")));
+    }
+
+    @Test
+    void streamProducts_ShouldWriteOneJsonDocumentPerLine() throws Exception {
+        // Arrange
+        MockMvc streamingMvc = MockMvcBuilders.standaloneSetup(new ProductRestAdapter(apiGateway, objectMapper)).build();
+        when(apiGateway.sendQuery(any(GetCatalogVersionQuery.class))).thenReturn(1L);
+        when(apiGateway.sendQuery(any(StreamAllProductsQuery.class))).thenReturn(products.stream());
+
+        // Act
+        MvcResult result = streamingMvc.perform(get("/api/products/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        streamingMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c1\""));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("123", objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("456", objectMapper.readTree(lines[1]).get("id").asText());
+    }
+
+    @Test
+    void getProduct_WhenQueryFails_ShouldPropagateErrorAfterAsyncDispatch() {
+        // Arrange
+        when(apiGateway.sendQueryAsync(any(GetProductQuery.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Product not found with id: 999")));
+
+        // Act & Assert
+        Exception exception = assertThrows(Exception.class, () -> performAsync(get("/api/products/999")));
+        assertEquals("Product not found with id: 999", rootCause(exception).getMessage());
+    }
+
+    // Os endpoints respondem de forma assíncrona: a resposta só existe após o despacho assíncrono
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package com.example.cqrsdemo.auditlog;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileEventAuditLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void load_ShouldReplayEventsOfTheAggregate() {
+        try (FileEventAuditLog store = open(100)) {
+            // Arrange
+            store.append(new ProductCreatedEvent(product("p1", "Created", 0L)));
+            store.append(new ProductCreatedEvent(product("p2", "Other", 0L)));
+            store.append(new ProductUpdatedEvent(product("p1", "Updated", null)));
+
+            // Act
+            Product product = store.load("p1").orElseThrow();
+
+            // Assert
+            assertEquals("Updated", product.getName());
+            assertEquals(1L, product.getVersion());
+            assertEquals(3, store.getLastSequence());
+        }
+    }
+
+    @Test
+    void load_ShouldReturnEmptyForDeletedOrUnknownProducts() {
+        try (FileEventAuditLog store = open(100)) {
+            // Arrange
+            store.append(new ProductCreatedEvent(product("p1", "Created", 0L)));
+            store.append(new ProductDeletedEvent("p1"));
+
+            // Act & Assert
+            assertTrue(store.load("p1").isEmpty());
+            assertTrue(store.load("unknown").isEmpty());
+        }
+    }
+
+    @Test
+    void load_ShouldStartFromSnapshotsAndSurviveReopening() throws IOException {
+        // Arrange: snapshots a cada 3 eventos e segmentos pequenos para forçar a troca de arquivo
+        try (FileEventAuditLog store = open(3)) {
+            store.append(new ProductCreatedEvent(product("p1", "v0", 0L)));
+            for (int i = 1; i <= 100; i++) {
+                store.append(new ProductUpdatedEvent(product("p1", "v" + i, null)));
+            }
+        }
+
+        // Act
+        try (FileEventAuditLog reopened = open(3)) {
+            Product product = reopened.load("p1").orElseThrow();
+
+            // Assert
+            assertEquals("v100", product.getName());
+            assertEquals(100L, product.getVersion());
+            assertEquals(101, reopened.getLastSequence());
+            assertTrue(segmentFiles().size() > 1);
+
+            // Continua gravando após a reabertura
+            reopened.append(new ProductUpdatedEvent(product("p1", "v101", null)));
+            assertEquals("v101", reopened.load("p1").orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void replay_ShouldDeliverEventsInOrderWithoutSnapshots() {
+        try (FileEventAuditLog store = open(2)) {
+            // Arrange
+            store.append(new ProductCreatedEvent(product("p1", "v0", 0L)));
+            store.append(new ProductUpdatedEvent(product("p1", "v1", null)));
+            store.append(new ProductUpdatedEvent(product("p1", "v2", null)));
+            store.append(new ProductDeletedEvent("p1"));
+
+            // Act
+            List<ProductEvent> events = new ArrayList<>();
+            store.replay(2, events::add);
+
+            // Assert
+            assertEquals(3, events.size());
+            assertEquals("v1", ((ProductUpdatedEvent) events.get(0)).getProduct().getName());
+            assertEquals("v2", ((ProductUpdatedEvent) events.get(1)).getProduct().getName());
+            assertInstanceOf(ProductDeletedEvent.class, events.get(2));
+        }
+    }
+
+    @Test
+    void replay_ShouldStopAtTheEndOfSegmentsWithoutRoomForAnotherHeader() {
+        // Arrange: cada exclusão ocupa 23 bytes, então o primeiro segmento de 48 bytes fica com 2 bytes sobrando
+        try (FileEventAuditLog store = new FileEventAuditLog(directory, 48, 100, Duration.ZERO, 100)) {
+            store.append(new ProductDeletedEvent("p1"));
+            store.append(new ProductDeletedEvent("p1"));
+            store.append(new ProductDeletedEvent("p1"));
+
+            // Act
+            List<ProductEvent> events = new ArrayList<>();
+            store.replay(1, events::add);
+
+            // Assert
+            assertEquals(3, events.size());
+        }
+    }
+
+    @Test
+    void reopen_ShouldIgnoreTornRecordAtTheEnd() throws IOException {
+        // Arrange
+        try (FileEventAuditLog store = open(100)) {
+            store.append(new ProductCreatedEvent(product("p1", "Created", 0L)));
+        }
+        // Simula uma escrita interrompida: tamanho gravado, corpo inválido
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 0);
+            long end = 4 + length.flip().getInt();
+            channel.write(ByteBuffer.allocate(8).putInt(64).putInt(12345).flip(), end);
+        }
+
+        // Act
+        try (FileEventAuditLog store = open(100)) {
+            store.append(new ProductUpdatedEvent(product("p1", "Updated", null)));
+
+            // Assert
+            assertEquals(2, store.getLastSequence());
+            assertEquals("Updated", store.load("p1").orElseThrow().getName());
+        }
+    }
+
+    private FileEventAuditLog open(int snapshotEvery) {
+        return new FileEventAuditLog(directory, SEGMENT_SIZE, 100, Duration.ZERO, snapshotEvery);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Product product(String id, String name, Long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription("Description of " + name);
+        product.setPrice(10.0);
+        product.setQuantity(1);
+        product.setVersion(version);
+        return product;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.cqrsdemo.codec;
+
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductBinaryCodecTest {
+
+    @Test
+    void product_ShouldRoundTripWithExactSize() {
+        // Arrange
+        Product product = product(UUID.randomUUID().toString(), "Café ☕ 𝄞", 1999.99, -3, 7L);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        // Act
+        ProductBinaryCodec.encode(product, buffer);
+        int written = buffer.position();
+        Product decoded = ProductBinaryCodec.decode(buffer.flip(), Product.class);
+
+        // Assert
+        assertEquals(product, decoded);
+        assertEquals(ProductBinaryCodec.sizeOf(product), written);
+        // UUID em 16 bytes: bem menor que o JSON equivalente
+        assertTrue(written < 70, "encoded size " + written);
+    }
+
+    @Test
+    void product_ShouldReplaceLoneSurrogatesLikeStringGetBytes() {
+        // Arrange: um surrogate isolado ocupa um byte, então o tamanho UTF-8 é igual ao número de chars
+        String name = "ab\uD800c";
+        Product product = product("a", name, 1, 1, null);
+
+        // Act
+        Product decoded = ProductBinaryCodec.decode(ByteBuffer.wrap(ProductBinaryCodec.encode(product)), Product.class);
+
+        // Assert
+        assertEquals(new String(name.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), decoded.getName());
+        assertEquals("ab?c", decoded.getName());
+    }
+
+    @Test
+    void messages_ShouldRoundTripThroughOneReusedBuffer() {
+        // Arrange
+        UpdateProductCommand update = new UpdateProductCommand();
+        update.setId("not-a-uuid");
+        update.setName("Updated");
+        update.setPrice(2.5);
+        update.setQuantity(Integer.MIN_VALUE);
+        update.setExpectedVersion(0L);
+        DeleteProductCommand delete = new DeleteProductCommand();
+        delete.setId(UUID.randomUUID().toString().toUpperCase());
+        List<Product> products = List.of(product("a", null, 0, 0, null), product("b", "B", 1, 1, 1L));
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+
+        // Act
+        ProductBinaryCodec.encode(update, buffer);
+        ProductBinaryCodec.encode(delete, buffer);
+        ProductBinaryCodec.encode(new ProductCreatedEvent(products.get(1)), buffer);
+        ProductBinaryCodec.encode(new ProductDeletedEvent("a"), buffer);
+        ProductBinaryCodec.encode(products, buffer);
+        buffer.flip();
+
+        // Assert
+        assertEquals(update, ProductBinaryCodec.decode(buffer));
+        assertEquals(delete, ProductBinaryCodec.decode(buffer));
+        assertEquals(products.get(1), ProductBinaryCodec.decode(buffer, ProductCreatedEvent.class).getProduct());
+        assertEquals("a", ProductBinaryCodec.decode(buffer, ProductDeletedEvent.class).getProductId());
+        assertEquals(products, ProductBinaryCodec.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void decode_ShouldSkipFieldsAddedByNewerSchemas() {
+        // Arrange: um escritor mais novo acrescentou um campo de 3 bytes ao fim do produto
+        Product product = product("p1", "Product", 10, 2, 1L);
+        byte[] current = ProductBinaryCodec.encode(product);
+        ByteBuffer newer = ByteBuffer.allocate(current.length + 4);
+        newer.put(current, 0, 2);
+        newer.put((byte) (current[2] + 3));
+        newer.put(current, 3, current.length - 3);
+        newer.put(new byte[]{9, 9, 9});
+        newer.put(ProductBinaryCodec.encode(new ProductDeletedEvent("next"))[0]);
+
+        // Act
+        newer.flip().limit(newer.limit() - 1);
+        Product decoded = ProductBinaryCodec.decode(newer, Product.class);
+
+        // Assert
+        assertEquals(product, decoded);
+        assertFalse(newer.hasRemaining());
+    }
+
+    @Test
+    void decode_ShouldUseDefaultsForFieldsMissingFromOlderSchemas() {
+        // Arrange: um escritor mais antigo só conhecia id e nome
+        byte[] current = ProductBinaryCodec.encode(product("p1", "Old", 10, 2, 1L));
+        int oldBodyLength = 1 + 1 + 2 + 1 + 3 + 1;
+        ByteBuffer older = ByteBuffer.allocate(3 + oldBodyLength);
+        older.put(current, 0, 2);
+        older.put((byte) oldBodyLength);
+        older.put(current, 3, oldBodyLength);
+
+        // Act
+        Product decoded = ProductBinaryCodec.decode(older.flip(), Product.class);
+
+        // Assert
+        assertEquals("p1", decoded.getId());
+        assertEquals("Old", decoded.getName());
+        assertNull(decoded.getDescription());
+        assertEquals(0, decoded.getQuantity());
+        assertNull(decoded.getVersion());
+    }
+
+    @Test
+    void decode_ShouldRejectStringsThatRunPastTheirRecord() {
+        // Arrange: lista com dois produtos; o nome do primeiro passa a declarar um byte além do fim do registro dele,
+        // ainda dentro do buffer. Layout: [tipo][versão][tamanho][contagem][tipo][versão][tamanho][id 'a'][nome]...
+        byte[] bytes = ProductBinaryCodec.encode(List.of(product("a", "A", 1, 1, 1L), product("b", "B", 2, 2, 2L)));
+        int nameAt = 10;
+        int recordEnd = 7 + bytes[6];
+        bytes[nameAt] = (byte) (recordEnd - (nameAt + 1) + 2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ProductBinaryCodec.decode(ByteBuffer.wrap(bytes)));
+        // Fora do heap o mesmo tamanho não pode alocar um array do tamanho pedido pelo remetente
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        assertThrows(IllegalArgumentException.class, () -> ProductBinaryCodec.decode(direct));
+    }
+
+    private static Product product(String id, String name, double price, int quantity, Long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        product.setVersion(version);
+        return product;
+    }
+}
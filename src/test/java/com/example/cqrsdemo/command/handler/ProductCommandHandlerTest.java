@@ -0,0 +1,189 @@
+package com.example.cqrsdemo.command.handler;
+
+import com.example.cqrsdemo.auditlog.FileEventAuditLog;
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.domain.id.ProductIdGenerator;
+import com.example.cqrsdemo.domain.id.TimeOrderedProductIdGenerator;
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductEventPublisher;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCommandHandlerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductEventPublisher eventPublisher;
+
+    @Spy
+    private ProductIdGenerator idGenerator = new TimeOrderedProductIdGenerator();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ProductCommandHandler commandHandler;
+
+    private UpdateProductCommand updateCommand;
+    private DeleteProductCommand deleteCommand;
+
+    @BeforeEach
+    void setUp() {
+        updateCommand = new UpdateProductCommand();
+        updateCommand.setId("123");
+        updateCommand.setName("Updated Product");
+        updateCommand.setDescription("Updated Description");
+        updateCommand.setPrice(150.0);
+        updateCommand.setQuantity(15);
+
+        deleteCommand = new DeleteProductCommand();
+        deleteCommand.setId("123");
+    }
+
+    @Test
+    void handleCreateProductCommand_ShouldSaveAndPublishCreatedEvent() {
+        // Arrange
+        CreateProductCommand command = new CreateProductCommand();
+        command.setName("Test Product");
+        command.setPrice(100.0);
+        command.setQuantity(10);
+
+        // Act
+        String productId = commandHandler.handleCreateProductCommand(command);
+
+        // Assert
+        ArgumentCaptor<Product> saved = ArgumentCaptor.forClass(Product.class);
+        verify(productRepository).save(saved.capture());
+        assertEquals(productId, saved.getValue().getId());
+        verify(eventPublisher).publish(any(ProductCreatedEvent.class));
+    }
+
+    @Test
+    void handleUpdateProductCommand_ShouldUpdateWithoutReadingFirstAndPublishCommittedVersion() {
+        // Arrange
+        when(productRepository.updateAndGetVersion("123", "Updated Product", "Updated Description", 150.0, 15))
+                .thenReturn(Optional.of(5L));
+
+        // Act
+        commandHandler.handleUpdateProductCommand(updateCommand);
+
+        // Assert
+        verify(productRepository, never()).findById(anyString());
+        ArgumentCaptor<ProductUpdatedEvent> event = ArgumentCaptor.forClass(ProductUpdatedEvent.class);
+        verify(eventPublisher).publish(event.capture());
+        assertEquals("Updated Product", event.getValue().getProduct().getName());
+        assertEquals(5L, event.getValue().getProduct().getVersion());
+    }
+
+    @Test
+    void handleUpdateProductCommand_WithExpectedVersion_ShouldPublishNextVersion() {
+        // Arrange
+        updateCommand.setExpectedVersion(3L);
+        when(productRepository.updateByIdAndVersion("123", "Updated Product", "Updated Description", 150.0, 15, 3L))
+                .thenReturn(1);
+
+        // Act
+        commandHandler.handleUpdateProductCommand(updateCommand);
+
+        // Assert
+        ArgumentCaptor<ProductUpdatedEvent> event = ArgumentCaptor.forClass(ProductUpdatedEvent.class);
+        verify(eventPublisher).publish(event.capture());
+        assertEquals(4L, event.getValue().getProduct().getVersion());
+    }
+
+    @Test
+    void handleUpdateProductCommand_ShouldReportNotFoundFromAffectedRows() {
+        // Arrange
+        when(productRepository.updateAndGetVersion(anyString(), anyString(), anyString(), anyDouble(), anyInt()))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> commandHandler.handleUpdateProductCommand(updateCommand));
+        assertEquals("Product not found with id: 123", error.getMessage());
+        verify(productRepository, never()).existsById(anyString());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void handleUpdateProductCommand_WithStaleVersion_ShouldReportConflict() {
+        // Arrange
+        updateCommand.setExpectedVersion(1L);
+        when(productRepository.updateByIdAndVersion(anyString(), anyString(), anyString(), anyDouble(), anyInt(), eq(1L)))
+                .thenReturn(0);
+        when(productRepository.existsById("123")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> commandHandler.handleUpdateProductCommand(updateCommand));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void handleDeleteProductCommand_ShouldDeleteWithSingleStatement() {
+        // Arrange
+        when(productRepository.deleteProductById("123")).thenReturn(1);
+
+        // Act
+        commandHandler.handleDeleteProductCommand(deleteCommand);
+
+        // Assert
+        verify(productRepository, never()).findById(anyString());
+        verify(eventPublisher).publish(any(ProductDeletedEvent.class));
+    }
+
+    @Test
+    void handleDeleteProductCommand_WithMissingProduct_ShouldThrow() {
+        // Arrange
+        when(productRepository.deleteProductById("123")).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> commandHandler.handleDeleteProductCommand(deleteCommand));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void handleDeleteProductCommand_WhenAuditLogFails_ShouldStillPublish() {
+        // Arrange
+        FileEventAuditLog auditLog = mock(FileEventAuditLog.class);
+        when(auditLog.append(any(ProductDeletedEvent.class))).thenThrow(new IllegalStateException("Audit log is closed"));
+        ProductCommandHandler handler = new ProductCommandHandler(productRepository, eventPublisher, auditLog,
+                idGenerator, meterRegistry);
+        when(productRepository.deleteProductById("123")).thenReturn(1);
+
+        // Act
+        handler.handleDeleteProductCommand(deleteCommand);
+
+        // Assert
+        verify(auditLog).append(any(ProductDeletedEvent.class));
+        verify(eventPublisher).publish(any(ProductDeletedEvent.class));
+    }
+}
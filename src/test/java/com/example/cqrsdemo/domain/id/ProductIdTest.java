@@ -0,0 +1,44 @@
+package com.example.cqrsdemo.domain.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductIdTest {
+
+    @Test
+    void tryParse_ShouldRoundTripCanonicalUuids() {
+        // Arrange
+        UUID uuid = UUID.randomUUID();
+
+        // Act
+        ProductId id = ProductId.tryParse(uuid.toString());
+
+        // Assert
+        assertEquals(uuid.getMostSignificantBits(), id.high());
+        assertEquals(uuid.getLeastSignificantBits(), id.low());
+        assertEquals(uuid.toString(), id.toString());
+    }
+
+    @Test
+    void tryParse_ShouldRejectTextThatWouldNotRoundTrip() {
+        // Act & Assert
+        assertNull(ProductId.tryParse(null));
+        assertNull(ProductId.tryParse("123"));
+        assertNull(ProductId.tryParse(UUID.randomUUID().toString().toUpperCase()));
+        assertNull(ProductId.tryParse("0000000g-0000-7000-8000-000000000000"));
+    }
+
+    @Test
+    void compareTo_ShouldMatchCanonicalTextOrder() {
+        // Arrange
+        ProductId small = ProductId.tryParse("7fffffff-ffff-7fff-bfff-ffffffffffff");
+        ProductId large = ProductId.tryParse("80000000-0000-7000-8000-000000000000");
+
+        // Act & Assert
+        assertTrue(small.compareTo(large) < 0);
+        assertTrue(small.toString().compareTo(large.toString()) < 0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.cqrsdemo.domain.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedProductIdGeneratorTest {
+
+    @Test
+    void next_ShouldProduceVersion7UuidsWithClockTimestamp() {
+        // Arrange
+        TimeOrderedProductIdGenerator generator = new TimeOrderedProductIdGenerator(() -> 1_700_000_000_123L);
+
+        // Act
+        ProductId id = generator.next();
+
+        // Assert
+        UUID uuid = UUID.fromString(id.toString());
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(1_700_000_000_123L, id.timestamp());
+    }
+
+    @Test
+    void next_ShouldStayMonotonicWhenClockStallsOrGoesBack() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(1_000);
+        TimeOrderedProductIdGenerator generator = new TimeOrderedProductIdGenerator(clock::get);
+
+        // Act
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.set(900);
+            }
+            ids.add(generator.nextId());
+        }
+
+        // Assert
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, ids.get(i - 1) + " >= " + ids.get(i));
+        }
+        // 10.000 ids esgotam o contador de 4.096 por milissegundo e avançam o relógio lógico
+        assertEquals(1_002, ProductId.tryParse(ids.get(ids.size() - 1)).timestamp());
+    }
+
+    @Test
+    void next_ShouldBeUniqueAndOrderedPerThreadUnderContention() throws Exception {
+        // Arrange
+        TimeOrderedProductIdGenerator generator = new TimeOrderedProductIdGenerator();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        Set<ProductId> all = new HashSet<>();
+        try {
+            List<Future<List<ProductId>>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    List<ProductId> ids = new ArrayList<>();
+                    for (int i = 0; i < 10_000; i++) {
+                        ids.add(generator.next());
+                    }
+                    return ids;
+                }));
+            }
+            for (Future<List<ProductId>> result : results) {
+                List<ProductId> ids = result.get();
+
+                // Assert
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+                }
+                all.addAll(ids);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(40_000, all.size());
+    }
+}
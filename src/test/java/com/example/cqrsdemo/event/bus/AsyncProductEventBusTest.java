@@ -0,0 +1,155 @@
+package com.example.cqrsdemo.event.bus;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AsyncProductEventBusTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private AsyncProductEventBus eventBus;
+
+    @AfterEach
+    void tearDown() {
+        if (eventBus != null) {
+            eventBus.stop();
+        }
+    }
+
+    @Test
+    void publish_ShouldPreserveOrderPerProduct() throws Exception {
+        // Arrange
+        int eventsPerProduct = 500;
+        CountDownLatch delivered = new CountDownLatch(eventsPerProduct * 4);
+        Map<String, List<ProductEvent>> received = new ConcurrentHashMap<>();
+        ApplicationEventPublisher listener = event -> {
+            ProductEvent productEvent = (ProductEvent) event;
+            received.computeIfAbsent(productEvent.getProductId(), id -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(productEvent);
+            delivered.countDown();
+        };
+        eventBus = new AsyncProductEventBus(listener, productRepository, 2, 64, 16, BackpressurePolicy.BLOCK, true);
+        eventBus.start();
+        List<List<ProductEvent>> published = new ArrayList<>();
+
+        // Act
+        for (String id : List.of("p1", "p2", "p3", "p4")) {
+            List<ProductEvent> events = new ArrayList<>();
+            for (int i = 0; i < eventsPerProduct; i++) {
+                events.add(new ProductDeletedEvent(id));
+            }
+            published.add(events);
+        }
+        for (int i = 0; i < eventsPerProduct; i++) {
+            for (List<ProductEvent> events : published) {
+                eventBus.publish(events.get(i));
+            }
+        }
+
+        // Assert
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        for (List<ProductEvent> events : published) {
+            String productId = events.get(0).getProductId();
+            List<ProductEvent> actual = received.get(productId);
+            for (int i = 0; i < eventsPerProduct; i++) {
+                assertSame(events.get(i), actual.get(i));
+            }
+        }
+    }
+
+    @Test
+    void publish_ShouldNotRunListenersOnCallerThread() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        List<Thread> listenerThreads = new ArrayList<>();
+        eventBus = new AsyncProductEventBus(event -> {
+            listenerThreads.add(Thread.currentThread());
+            awaitQuietly(release);
+            delivered.countDown();
+        }, productRepository, 1, 8, 8, BackpressurePolicy.BLOCK, false);
+        eventBus.start();
+
+        // Act
+        eventBus.publish(new ProductDeletedEvent("p1"));
+        release.countDown();
+
+        // Assert
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertNotSame(caller, listenerThreads.get(0));
+    }
+
+    @Test
+    void publish_FailFast_ShouldRepairRejectedProductFromDatabaseInsteadOfThrowing() {
+        // Arrange (sem start: nada é consumido até a faixa encher)
+        Product stored = new Product();
+        stored.setId("p3");
+        stored.setVersion(4L);
+        when(productRepository.findById("p3")).thenReturn(Optional.of(stored));
+        List<ProductEvent> received = Collections.synchronizedList(new ArrayList<>());
+        eventBus = new AsyncProductEventBus(event -> received.add((ProductEvent) event), productRepository,
+                1, 2, 8, BackpressurePolicy.FAIL_FAST, true);
+        eventBus.publish(new ProductDeletedEvent("p1"));
+        eventBus.publish(new ProductDeletedEvent("p2"));
+
+        // Act
+        assertDoesNotThrow(() -> eventBus.publish(new ProductDeletedEvent("p3")));
+        eventBus.start();
+        eventBus.stop();
+
+        // Assert
+        assertEquals(1, eventBus.getDroppedEvents());
+        assertEquals(0, eventBus.getPendingRepairs());
+        assertEquals(3, received.size());
+        ProductUpdatedEvent repaired = assertInstanceOf(ProductUpdatedEvent.class, received.get(2));
+        assertEquals(4L, repaired.getProduct().getVersion());
+    }
+
+    @Test
+    void publish_DropOldest_ShouldKeepNewestEventsAndRepairTheDroppedProduct() {
+        // Arrange
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        eventBus = new AsyncProductEventBus(event -> received.add(((ProductEvent) event).getProductId()),
+                productRepository, 1, 2, 8, BackpressurePolicy.DROP_OLDEST, true);
+
+        // Act
+        eventBus.publish(new ProductDeletedEvent("p1"));
+        eventBus.publish(new ProductDeletedEvent("p2"));
+        eventBus.publish(new ProductDeletedEvent("p3"));
+        eventBus.start();
+        eventBus.stop();
+
+        // Assert
+        assertEquals(1, eventBus.getDroppedEvents());
+        // p1 não existe mais no banco, então o reparo entrega a remoção depois dos eventos que ficaram
+        assertEquals(List.of("p2", "p3", "p1"), received);
+        verify(productRepository).findById("p1");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.cqrsdemo.gateway;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.handler.ProductCommandHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommandBatcherTest {
+
+    @Mock
+    private ProductCommandHandler commandHandler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CommandBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new CommandBatcher(commandHandler, transactionManager, 8, Duration.ofMillis(1), 16);
+    }
+
+    @Test
+    void execute_WhenNotStarted_ShouldRunCommandOnCallerThread() {
+        // Arrange
+        CreateProductCommand command = new CreateProductCommand();
+        when(commandHandler.handleCreateProductCommand(command)).thenReturn("p1");
+
+        // Act
+        Object result = batcher.execute(command);
+
+        // Assert
+        assertEquals("p1", result);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void execute_AfterStop_ShouldNotWaitForTheStoppedWorker() {
+        // Arrange
+        CreateProductCommand command = new CreateProductCommand();
+        when(commandHandler.handleCreateProductCommand(command)).thenReturn("p2");
+        batcher.start();
+        batcher.stop();
+
+        // Act
+        Object result = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> batcher.execute(command));
+
+        // Assert
+        assertEquals("p2", result);
+        assertFalse(batcher.isRunning());
+    }
+}
@@ -6,21 +6,38 @@ import com.example.cqrsdemo.command.api.DeleteProductCommand;
 import com.example.cqrsdemo.command.api.UpdateProductCommand;
 import com.example.cqrsdemo.command.handler.ProductCommandHandler;
 import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.gateway.bus.MessageBus;
+import com.example.cqrsdemo.metrics.MetricsInterceptor;
 import com.example.cqrsdemo.query.api.GetAllProductsQuery;
 import com.example.cqrsdemo.query.api.GetProductQuery;
 import com.example.cqrsdemo.query.handler.ProductQueryHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -33,7 +50,8 @@ class CqrsApiGatewayTest {
     @Mock
     private ProductQueryHandler queryHandler;
 
-    @InjectMocks
+    private MeterRegistry meterRegistry;
+    private ExecutorService asyncExecutor;
     private CqrsApiGateway apiGateway;
 
     private CreateProductCommand createCommand;
@@ -46,6 +64,16 @@ class CqrsApiGatewayTest {
 
     @BeforeEach
     void setUp() {
+        // Setup gateway: o MessageBus descobre os handlers mockados como descobriria os beans reais
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("productCommandHandler", commandHandler);
+        beanFactory.addBean("productQueryHandler", queryHandler);
+        meterRegistry = new SimpleMeterRegistry();
+        MessageBus messageBus = new MessageBus(beanFactory, List.of(new MetricsInterceptor(meterRegistry)));
+        messageBus.afterSingletonsInstantiated();
+        asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        apiGateway = new CqrsApiGateway(messageBus, asyncExecutor, Duration.ofSeconds(5));
+
         // Setup create command
         createCommand = new CreateProductCommand();
         createCommand.setName("Test Product");
@@ -86,6 +114,11 @@ class CqrsApiGatewayTest {
         productList = Arrays.asList(product, product2);
     }
 
+    @AfterEach
+    void tearDown() {
+        asyncExecutor.close();
+    }
+
     @Test
     void sendCommand_CreateProductCommand_ShouldDelegateToCommandHandler() {
         // Arrange
@@ -150,4 +183,75 @@ class CqrsApiGatewayTest {
         assertEquals(2, result.size());
         verify(queryHandler, times(1)).handle(getAllProductsQuery);
     }
+
+    @Test
+    void sendCommand_ShouldRecordLatencyAndFailuresPerMessageType() {
+        // Arrange
+        when(commandHandler.handleCreateProductCommand(any(CreateProductCommand.class))).thenReturn("123");
+        doThrow(new RuntimeException("Product not found with id: 123"))
+                .when(commandHandler).handleDeleteProductCommand(any(DeleteProductCommand.class));
+
+        // Act
+        apiGateway.sendCommand(createCommand);
+        apiGateway.sendCommand(createCommand);
+        assertThrows(RuntimeException.class, () -> apiGateway.sendCommand(deleteCommand));
+
+        // Assert
+        assertEquals(2, meterRegistry.get("cqrs.gateway.commands").tag("type", "CreateProductCommand").functionTimer().count());
+        assertEquals(1, meterRegistry.get("cqrs.gateway.commands").tag("type", "DeleteProductCommand").functionTimer().count());
+        assertEquals(1, meterRegistry.get("cqrs.gateway.commands.failures").tag("type", "DeleteProductCommand").counter().count());
+        assertEquals(0, meterRegistry.get("cqrs.gateway.commands").tag("type", "UpdateProductCommand").functionTimer().count());
+    }
+
+    @Test
+    void sendCommandAsync_CreateProductCommand_ShouldCompleteOnVirtualThread() {
+        // Arrange
+        AtomicBoolean virtual = new AtomicBoolean();
+        when(commandHandler.handleCreateProductCommand(any(CreateProductCommand.class))).thenAnswer(invocation -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            return "123";
+        });
+
+        // Act
+        String productId = apiGateway.sendCommandAsync(createCommand).join();
+
+        // Assert
+        assertEquals("123", productId);
+        assertTrue(virtual.get());
+    }
+
+    @Test
+    void sendQueryAsync_WhenHandlerFails_ShouldCompleteExceptionally() {
+        // Arrange
+        when(queryHandler.handle(any(GetProductQuery.class))).thenThrow(new RuntimeException("Product not found with id: 123"));
+
+        // Act
+        CompletableFuture<Product> result = apiGateway.sendQueryAsync(getProductQuery);
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertEquals("Product not found with id: 123", exception.getCause().getMessage());
+    }
+
+    @Test
+    void sendAsync_WhenTimeoutExpires_ShouldFailAndInterruptHandler() throws Exception {
+        // Arrange
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(queryHandler.handle(any(GetAllProductsQuery.class))).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return productList;
+        });
+
+        // Act
+        CompletableFuture<List<Product>> result = apiGateway.sendAsync(getAllProductsQuery, Duration.ofMillis(50));
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
 }
@@ -0,0 +1,167 @@
+package com.example.cqrsdemo.gateway;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.gateway.bus.MessageInvoker;
+import com.example.cqrsdemo.gateway.bus.MessageKind;
+import com.example.cqrsdemo.query.api.GetProductQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCommandLanesTest {
+
+    private ProductCommandLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        lanes = new ProductCommandLanes(4, 64);
+        lanes.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.stop();
+    }
+
+    @Test
+    void intercept_ShouldOnlyWrapCommandsTargetingAProduct() {
+        // Arrange
+        MessageInvoker next = message -> "handled";
+
+        // Act & Assert
+        assertNotSame(next, lanes.intercept(MessageKind.COMMAND, UpdateProductCommand.class, next));
+        assertSame(next, lanes.intercept(MessageKind.COMMAND, CreateProductCommand.class, next));
+        assertSame(next, lanes.intercept(MessageKind.QUERY, GetProductQuery.class, next));
+    }
+
+    @Test
+    void commandsForSameProduct_ShouldRunOneAtATimeInSubmissionOrder() throws Exception {
+        // Arrange
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> applied = new CopyOnWriteArrayList<>();
+        MessageInvoker invoker = lanes.intercept(MessageKind.COMMAND, UpdateProductCommand.class, message -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            applied.add(((UpdateProductCommand) message).getQuantity());
+            inFlight.decrementAndGet();
+            return null;
+        });
+
+        // Act: um único chamador envia em sequência; vários chamadores disputam o mesmo produto
+        for (int i = 0; i < 100; i++) {
+            invoker.invoke(update("123", i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 100; i < 500; i++) {
+                UpdateProductCommand command = update("123", i);
+                futures.add(executor.submit(() -> invoker.invoke(command)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(1, maxInFlight.get());
+        assertEquals(500, applied.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, applied.get(i));
+        }
+    }
+
+    @Test
+    void commandsForDifferentProducts_ShouldRunInParallel() throws Exception {
+        // Arrange: cada comando só termina quando o outro também começou
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        MessageInvoker invoker = lanes.intercept(MessageKind.COMMAND, UpdateProductCommand.class, message -> {
+            bothStarted.countDown();
+            try {
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        String first = "product-a";
+        String second = productOnAnotherLane(first);
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> a = executor.submit(() -> invoker.invoke(update(first, 1)));
+            Future<Object> b = executor.submit(() -> invoker.invoke(update(second, 2)));
+
+            // Assert
+            assertEquals(true, a.get(10, TimeUnit.SECONDS));
+            assertEquals(true, b.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failedCommand_ShouldRethrowOriginalExceptionToCaller() {
+        // Arrange
+        MessageInvoker invoker = lanes.intercept(MessageKind.COMMAND, UpdateProductCommand.class, message -> {
+            throw new RuntimeException("Product not found with id: 999");
+        });
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> invoker.invoke(update("999", 1)));
+        assertEquals("Product not found with id: 999", exception.getMessage());
+    }
+
+    @Test
+    void commandsAfterStop_ShouldRunOnCallerThread() {
+        // Arrange
+        MessageInvoker invoker = lanes.intercept(MessageKind.COMMAND, UpdateProductCommand.class,
+                message -> Thread.currentThread().getName());
+        lanes.stop();
+
+        // Act
+        Object thread = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> invoker.invoke(update("123", 1)));
+
+        // Assert
+        assertFalse(thread.toString().startsWith("product-command-lane-"));
+    }
+
+    private static UpdateProductCommand update(String id, int quantity) {
+        UpdateProductCommand command = new UpdateProductCommand();
+        command.setId(id);
+        command.setName("Product " + id);
+        command.setQuantity(quantity);
+        return command;
+    }
+
+    // Mesmo hash usado pelas faixas, para garantir que os dois produtos caiam em faixas diferentes
+    private static String productOnAnotherLane(String productId) {
+        for (int i = 0; ; i++) {
+            String candidate = "product-" + i;
+            if (laneOf(candidate) != laneOf(productId)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static int laneOf(String productId) {
+        int hash = productId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), 4);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.cqrsdemo.gateway.bus;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MessageBusTest {
+
+    @Test
+    void send_ShouldRunInterceptorsInOrderAroundHandler() {
+        // Arrange
+        List<String> calls = new ArrayList<>();
+        MessageBus messageBus = busWith(List.of(tracing("outer", calls), tracing("inner", calls)), new GreetingHandlers(calls));
+
+        // Act
+        String result = messageBus.send(new Greet("World"));
+
+        // Assert
+        assertEquals("Hello, World", result);
+        assertEquals(List.of("outer:QUERY:Greet", "inner:QUERY:Greet", "handler"), calls);
+    }
+
+    @Test
+    void send_VoidCommandHandler_ShouldReturnNull() {
+        // Arrange
+        List<String> calls = new ArrayList<>();
+        MessageBus messageBus = busWith(List.of(), new GreetingHandlers(calls));
+
+        // Act
+        Object result = messageBus.send(new Forget("World"));
+
+        // Assert
+        assertNull(result);
+        assertEquals(List.of("forget World"), calls);
+    }
+
+    @Test
+    void send_UnknownMessageType_ShouldThrowException() {
+        // Arrange
+        MessageBus messageBus = busWith(List.of(), new GreetingHandlers(new ArrayList<>()));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> messageBus.send("not a message"));
+    }
+
+    @Test
+    void afterSingletonsInstantiated_DuplicateHandler_ShouldFail() {
+        // Arrange
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("first", new GreetingHandlers(new ArrayList<>()));
+        beanFactory.addBean("second", new GreetingHandlers(new ArrayList<>()));
+        MessageBus messageBus = new MessageBus(beanFactory, List.of());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, messageBus::afterSingletonsInstantiated);
+    }
+
+    private static MessageBus busWith(List<MessageInterceptor> interceptors, Object handlers) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("handlers", handlers);
+        MessageBus messageBus = new MessageBus(beanFactory, interceptors);
+        messageBus.afterSingletonsInstantiated();
+        return messageBus;
+    }
+
+    private static MessageInterceptor tracing(String name, List<String> calls) {
+        return (kind, messageType, next) -> message -> {
+            calls.add(name + ":" + kind + ":" + messageType.getSimpleName());
+            return next.invoke(message);
+        };
+    }
+
+    public record Greet(String name) {
+    }
+
+    public record Forget(String name) {
+    }
+
+    public static class GreetingHandlers {
+
+        private final List<String> calls;
+
+        GreetingHandlers(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @QueryHandler
+        public String greet(Greet query) {
+            calls.add("handler");
+            return "Hello, " + query.name();
+        }
+
+        @CommandHandler
+        public void forget(Forget command) {
+            calls.add("forget " + command.name());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.cqrsdemo.integration;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.gateway.CqrsApiGateway;
+import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.projection.ProductReadModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "cqrs.gateway.batching.enabled=true",
+        "cqrs.gateway.batching.window=5ms"
+})
+@ActiveProfiles("test")
+class CommandBatchingIntegrationTest {
+
+    @Autowired
+    private CqrsApiGateway apiGateway;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductReadModel readModel;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        readModel.clear();
+    }
+
+    @Test
+    void concurrentCommands_ShouldEachGetTheirOwnResult() throws Exception {
+        // 1. Criar produtos concorrentemente; um comando inválido vai no meio
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<String>> creates = new ArrayList<>();
+        try {
+            for (int i = 0; i < 100; i++) {
+                CreateProductCommand command = new CreateProductCommand();
+                command.setName("Batched Product " + i);
+                command.setPrice(i);
+                command.setQuantity(i);
+                creates.add(executor.submit(() -> apiGateway.sendCommand(command)));
+            }
+            UpdateProductCommand missing = new UpdateProductCommand();
+            missing.setId("missing");
+            missing.setName("Missing");
+            Future<?> failed = executor.submit(() -> apiGateway.sendCommand(missing));
+
+            // 2. Cada chamador recebe seu próprio id, e só o comando inválido falha
+            HashSet<String> ids = new HashSet<>();
+            for (Future<String> create : creates) {
+                ids.add(create.get());
+            }
+            assertEquals(100, ids.size());
+            Exception error = assertThrows(Exception.class, failed::get);
+            assertTrue(error.getCause().getMessage().contains("missing"));
+        } finally {
+            executor.shutdown();
+        }
+
+        // 3. Todos os produtos foram gravados e projetados
+        assertEquals(100, productRepository.count());
+        assertEquals(100, readModel.size());
+    }
+
+    @Test
+    void updateCommand_ShouldBeVisibleAfterSendCommandReturns() {
+        // 1. Criar e atualizar pelo gateway agrupado
+        CreateProductCommand create = new CreateProductCommand();
+        create.setName("Batched Product");
+        create.setPrice(10.0);
+        create.setQuantity(1);
+        String productId = apiGateway.sendCommand(create);
+
+        UpdateProductCommand update = new UpdateProductCommand();
+        update.setId(productId);
+        update.setName("Batched Product Updated");
+        update.setPrice(20.0);
+        update.setQuantity(2);
+        apiGateway.sendCommand(update);
+
+        // 2. A consulta já enxerga a atualização
+        assertEquals("Batched Product Updated", apiGateway.sendQuery(new GetProductQuery(productId)).getName());
+    }
+}
@@ -1,17 +1,23 @@
 package com.example.cqrsdemo.integration;
 
 import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
 import com.example.cqrsdemo.command.api.UpdateProductCommand;
 import com.example.cqrsdemo.domain.model.Product;
 import com.example.cqrsdemo.domain.repository.ProductRepository;
 import com.example.cqrsdemo.gateway.CqrsApiGateway;
 import com.example.cqrsdemo.query.api.GetAllProductsQuery;
+import com.example.cqrsdemo.query.api.GetCatalogVersionQuery;
 import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.api.GetProductVersionQuery;
+import com.example.cqrsdemo.query.projection.ProductReadModel;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -28,12 +34,19 @@ class CqrsIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductReadModel readModel;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private String productId;
 
     @BeforeEach
     void setUp() {
         // Limpar o banco de dados antes de cada teste
         productRepository.deleteAll();
+        readModel.clear();
     }
 
     @AfterEach
@@ -92,4 +105,79 @@ class CqrsIntegrationTest {
         assertEquals(1, products.size());
         assertEquals(productId, products.get(0).getId());
     }
+
+    @Test
+    void testVersionedUpdateAndDelete() {
+        // 1. Criar um produto; a versão inicial é 0
+        CreateProductCommand createCommand = new CreateProductCommand();
+        createCommand.setName("Versioned Product");
+        createCommand.setPrice(10.0);
+        createCommand.setQuantity(1);
+        productId = apiGateway.sendCommand(createCommand);
+
+        Product product = apiGateway.sendQuery(new GetProductQuery(productId));
+        assertEquals(0L, product.getVersion());
+
+        // 2. Atualizar com a versão correta incrementa a versão do produto e a do catálogo
+        long catalogVersion = apiGateway.sendQuery(new GetCatalogVersionQuery());
+        UpdateProductCommand updateCommand = new UpdateProductCommand();
+        updateCommand.setId(productId);
+        updateCommand.setName("Versioned Product v1");
+        updateCommand.setPrice(20.0);
+        updateCommand.setQuantity(2);
+        updateCommand.setExpectedVersion(0L);
+        apiGateway.sendCommand(updateCommand);
+
+        assertEquals(1L, productRepository.findById(productId).orElseThrow().getVersion());
+        assertEquals(1L, apiGateway.sendQuery(new GetProductQuery(productId)).getVersion());
+        assertEquals(1L, apiGateway.sendQuery(new GetProductVersionQuery(productId)));
+        assertEquals(catalogVersion + 1, apiGateway.sendQuery(new GetCatalogVersionQuery()));
+
+        // 3. Um escritor com versão desatualizada não sobrescreve a alteração
+        updateCommand.setName("Stale Writer");
+        assertThrows(OptimisticLockingFailureException.class, () -> apiGateway.sendCommand(updateCommand));
+        assertEquals("Versioned Product v1", productRepository.findById(productId).orElseThrow().getName());
+
+        // 4. Atualização sem versão esperada continua incrementando
+        updateCommand.setExpectedVersion(null);
+        updateCommand.setName("Blind Writer");
+        apiGateway.sendCommand(updateCommand);
+        assertEquals(2L, productRepository.findById(productId).orElseThrow().getVersion());
+        assertEquals(2L, apiGateway.sendQuery(new GetProductQuery(productId)).getVersion());
+
+        // 5. Excluir e excluir de novo: a segunda vez informa produto inexistente
+        DeleteProductCommand deleteCommand = new DeleteProductCommand();
+        deleteCommand.setId(productId);
+        apiGateway.sendCommand(deleteCommand);
+        assertFalse(productRepository.existsById(productId));
+        assertNull(apiGateway.sendQuery(new GetProductVersionQuery(productId)));
+        assertThrows(RuntimeException.class, () -> apiGateway.sendCommand(deleteCommand));
+    }
+
+    @Test
+    void testBlindUpdateOfProductWithoutStoredVersion() {
+        // 1. Um produto gravado sem versão, como as linhas anteriores ao controle de versão
+        CreateProductCommand createCommand = new CreateProductCommand();
+        createCommand.setName("Unversioned Product");
+        createCommand.setPrice(10.0);
+        createCommand.setQuantity(1);
+        productId = apiGateway.sendCommand(createCommand);
+        jdbcTemplate.update("update products set version = null where id = ?", productId);
+
+        // 2. A atualização cega inicia a versão no banco, e o modelo de leitura recebe a versão confirmada
+        UpdateProductCommand updateCommand = new UpdateProductCommand();
+        updateCommand.setId(productId);
+        updateCommand.setName("Unversioned Product v1");
+        updateCommand.setPrice(20.0);
+        updateCommand.setQuantity(2);
+        apiGateway.sendCommand(updateCommand);
+
+        assertEquals(1L, productRepository.findById(productId).orElseThrow().getVersion());
+        assertEquals(1L, apiGateway.sendQuery(new GetProductVersionQuery(productId)));
+
+        // 3. As próximas seguem incrementando a partir dela
+        apiGateway.sendCommand(updateCommand);
+        assertEquals(2L, productRepository.findById(productId).orElseThrow().getVersion());
+        assertEquals(2L, apiGateway.sendQuery(new GetProductQuery(productId)).getVersion());
+    }
 }
@@ -0,0 +1,87 @@
+package com.example.cqrsdemo.integration;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.gateway.CqrsApiGateway;
+import com.example.cqrsdemo.query.api.GetInventoryStatsQuery;
+import com.example.cqrsdemo.query.api.GetLowStockProductsQuery;
+import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.api.GetProductsPageQuery;
+import com.example.cqrsdemo.query.api.ProductSortKey;
+import com.example.cqrsdemo.query.api.SearchProductsQuery;
+import com.example.cqrsdemo.query.projection.OffHeapProductStore;
+import com.example.cqrsdemo.query.projection.ProductReadModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "cqrs.read-model.off-heap.enabled=true")
+@ActiveProfiles("test")
+class OffHeapReadModelIntegrationTest {
+
+    @Autowired
+    private CqrsApiGateway apiGateway;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OffHeapProductStore offHeapStore;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        offHeapStore.clear();
+    }
+
+    @Test
+    void queries_ShouldBeServedFromOffHeapStore() {
+        // 1. O modelo em heap não é criado
+        assertTrue(context.getBeansOfType(ProductReadModel.class).isEmpty());
+
+        // 2. Criar, atualizar e consultar
+        CreateProductCommand create = new CreateProductCommand();
+        create.setName("Off-heap Product");
+        create.setDescription("Stored in a direct buffer");
+        create.setPrice(10.0);
+        create.setQuantity(5);
+        String id = apiGateway.sendCommand(create);
+
+        UpdateProductCommand update = new UpdateProductCommand();
+        update.setId(id);
+        update.setName("Off-heap Product");
+        update.setPrice(12.0);
+        update.setQuantity(2);
+        apiGateway.sendCommand(update);
+
+        Product product = apiGateway.sendQuery(new GetProductQuery(id));
+        assertEquals(12.0, product.getPrice());
+        assertEquals(1, apiGateway.sendQuery(new GetLowStockProductsQuery(3)).size());
+        assertEquals(2, apiGateway.sendQuery(new GetInventoryStatsQuery()).getTotalQuantity());
+
+        // 3. Paginação e busca por varredura
+        assertEquals(List.of(id), apiGateway.sendQuery(new GetProductsPageQuery(10, null, ProductSortKey.PRICE))
+                .getItems().stream().map(Product::getId).toList());
+        assertEquals(List.of(id), apiGateway.sendQuery(new SearchProductsQuery("off", 0))
+                .stream().map(Product::getId).toList());
+
+        // 4. A exclusão remove o produto do armazenamento
+        DeleteProductCommand delete = new DeleteProductCommand();
+        delete.setId(id);
+        apiGateway.sendCommand(delete);
+        assertEquals(0, offHeapStore.size());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.cqrsdemo.integration;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.gateway.CqrsApiGateway;
+import com.example.cqrsdemo.query.api.EncodedProduct;
+import com.example.cqrsdemo.query.api.GetEncodedProductQuery;
+import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"cqrs.read-model.json-cache.enabled=true", "cqrs.read-model.json-cache.gzip=true"})
+@ActiveProfiles("test")
+class ProductJsonCacheIntegrationTest {
+
+    @Autowired
+    private CqrsApiGateway apiGateway;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void encodedProduct_ShouldFollowUpdatesAndDeletes() throws Exception {
+        assertTrue(apiGateway.supports(GetEncodedProductQuery.class));
+
+        // 1. O JSON guardado é o mesmo que o Jackson escreveria para o produto consultado
+        CreateProductCommand createCommand = new CreateProductCommand();
+        createCommand.setName("Encoded Product");
+        createCommand.setPrice(10.0);
+        createCommand.setQuantity(1);
+        String productId = apiGateway.sendCommand(createCommand);
+
+        EncodedProduct encoded = apiGateway.sendQuery(new GetEncodedProductQuery(productId));
+        assertArrayEquals(objectMapper.writeValueAsBytes(apiGateway.sendQuery(new GetProductQuery(productId))), encoded.json());
+        assertEquals(0L, encoded.version());
+
+        // 2. A atualização substitui os bytes
+        UpdateProductCommand updateCommand = new UpdateProductCommand();
+        updateCommand.setId(productId);
+        updateCommand.setName("Encoded Product Updated");
+        updateCommand.setPrice(20.0);
+        updateCommand.setQuantity(2);
+        apiGateway.sendCommand(updateCommand);
+
+        encoded = apiGateway.sendQuery(new GetEncodedProductQuery(productId));
+        assertEquals("Encoded Product Updated", objectMapper.readTree(encoded.json()).get("name").asText());
+        assertEquals(1L, encoded.version());
+
+        // 3. A exclusão remove a entrada
+        DeleteProductCommand deleteCommand = new DeleteProductCommand();
+        deleteCommand.setId(productId);
+        apiGateway.sendCommand(deleteCommand);
+
+        assertThrows(RuntimeException.class, () -> apiGateway.sendQuery(new GetEncodedProductQuery(productId)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.cqrsdemo.integration;
+
+import com.example.cqrsdemo.command.api.CreateProductCommand;
+import com.example.cqrsdemo.command.api.DeleteProductCommand;
+import com.example.cqrsdemo.command.api.UpdateProductCommand;
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.gateway.CqrsApiGateway;
+import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.handler.ProductQueryHandler;
+import com.example.cqrsdemo.query.projection.ProductCatalogVersion;
+import com.example.cqrsdemo.query.projection.ProductReadModel;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductQueryCacheIntegrationTest {
+
+    @Autowired
+    private CqrsApiGateway apiGateway;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductCatalogVersion catalogVersion;
+
+    @MockitoSpyBean
+    private ProductReadModel readModel;
+
+    @Test
+    void cachedReads_ShouldNeverBeStaleAfterWrites() {
+        Cache<Object, Object> cache = ((CaffeineCache) cacheManager.getCache(ProductQueryHandler.PRODUCT_CACHE)).getNativeCache();
+        CacheStats before = cache.stats();
+
+        // 1. Criar e consultar duas vezes: a segunda leitura vem do cache
+        CreateProductCommand createCommand = new CreateProductCommand();
+        createCommand.setName("Cached Product");
+        createCommand.setPrice(10.0);
+        createCommand.setQuantity(1);
+        String productId = apiGateway.sendCommand(createCommand);
+
+        GetProductQuery query = new GetProductQuery(productId);
+        apiGateway.sendQuery(query);
+        apiGateway.sendQuery(query);
+
+        CacheStats afterReads = cache.stats().minus(before);
+        assertEquals(1, afterReads.missCount());
+        assertEquals(1, afterReads.hitCount());
+
+        // 2. A atualização invalida a entrada
+        UpdateProductCommand updateCommand = new UpdateProductCommand();
+        updateCommand.setId(productId);
+        updateCommand.setName("Cached Product Updated");
+        updateCommand.setPrice(20.0);
+        updateCommand.setQuantity(2);
+        apiGateway.sendCommand(updateCommand);
+
+        assertEquals("Cached Product Updated", apiGateway.sendQuery(query).getName());
+
+        // 3. A exclusão também
+        DeleteProductCommand deleteCommand = new DeleteProductCommand();
+        deleteCommand.setId(productId);
+        apiGateway.sendCommand(deleteCommand);
+
+        assertThrows(RuntimeException.class, () -> apiGateway.sendQuery(query));
+        assertNull(cache.getIfPresent(productId));
+    }
+
+    @Test
+    void concurrentMisses_ShouldShareASingleLoad() throws Exception {
+        Cache<Object, Object> cache = ((CaffeineCache) cacheManager.getCache(ProductQueryHandler.PRODUCT_CACHE)).getNativeCache();
+        CreateProductCommand createCommand = new CreateProductCommand();
+        createCommand.setName("Hot Product");
+        createCommand.setPrice(10.0);
+        createCommand.setQuantity(1);
+        String productId = apiGateway.sendCommand(createCommand);
+        CacheStats before = cache.stats();
+
+        // Uma carga lenta, para que todas as leituras cheguem enquanto ela está em andamento
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            return invocation.callRealMethod();
+        }).when(readModel).findById(productId);
+
+        // Várias threads pedem o mesmo id ausente do cache ao mesmo tempo: só uma executa a consulta
+        int readers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(readers)) {
+            List<Future<Product>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return apiGateway.sendQuery(new GetProductQuery(productId));
+                }));
+            }
+            start.countDown();
+            for (Future<Product> result : results) {
+                assertEquals("Hot Product", result.get(10, TimeUnit.SECONDS).getName());
+            }
+        }
+
+        verify(readModel, times(1)).findById(productId);
+        assertEquals(1, cache.stats().minus(before).missCount());
+    }
+
+    @Test
+    void rebuild_ShouldClearCachedProductsAndAdvanceCatalogVersion() {
+        Cache<Object, Object> cache = ((CaffeineCache) cacheManager.getCache(ProductQueryHandler.PRODUCT_CACHE)).getNativeCache();
+        CreateProductCommand createCommand = new CreateProductCommand();
+        createCommand.setName("Rebuilt Product");
+        createCommand.setPrice(10.0);
+        createCommand.setQuantity(1);
+        String productId = apiGateway.sendCommand(createCommand);
+        apiGateway.sendQuery(new GetProductQuery(productId));
+        assertNotNull(cache.getIfPresent(productId));
+        long versionBefore = catalogVersion.current();
+
+        readModel.rebuild(1);
+
+        assertNull(cache.getIfPresent(productId));
+        assertTrue(catalogVersion.current() > versionBefore);
+    }
+}
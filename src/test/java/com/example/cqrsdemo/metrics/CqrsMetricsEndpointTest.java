@@ -0,0 +1,37 @@
+package com.example.cqrsdemo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CqrsMetricsEndpointTest {
+
+    @Test
+    void latencies_ShouldSummarizeCqrsTimers() {
+        // Arrange
+        MeterRegistry registry = new SimpleMeterRegistry();
+        OperationMetrics metrics = OperationMetrics.of(registry, "cqrs.gateway.queries", "type", "GetProductQuery");
+        registry.timer("http.server.requests");
+        metrics.record(() -> "ok");
+        assertThrows(IllegalStateException.class, () -> metrics.record(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Act
+        Map<String, Map<String, Object>> latencies = new CqrsMetricsEndpoint(registry).latencies();
+
+        // Assert
+        assertEquals(1, latencies.size());
+        Map<String, Object> summary = latencies.get("cqrs.gateway.queries[GetProductQuery]");
+        assertEquals(2L, summary.get("count"));
+        assertEquals(1L, summary.get("failures"));
+        assertTrue(summary.keySet().containsAll(List.of("p50", "p99", "p999", "max")));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.cqrsdemo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IntervalLatencyHistogramTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    @Test
+    void percentileNanos_ShouldForgetWindowsOlderThanThePreviousOne() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        IntervalLatencyHistogram histogram = new IntervalLatencyHistogram(WINDOW, clock::get);
+        histogram.record(1_000_000_000L);
+        clock.addAndGet(WINDOW.toNanos());
+        double maxWithSpike = histogram.maxNanos();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1_000L);
+        }
+
+        // Act
+        clock.addAndGet(WINDOW.toNanos());
+        double p999 = histogram.percentileNanos(0.999);
+        double max = histogram.maxNanos();
+
+        // Assert
+        assertEquals(1_000_000_000L, maxWithSpike, 1_000_000_000L / 32.0);
+        assertEquals(1_000, p999, 1_000 / 32.0);
+        assertEquals(1_000, max);
+    }
+
+    @Test
+    void count_ShouldStayCumulativeAcrossRotations() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        IntervalLatencyHistogram histogram = new IntervalLatencyHistogram(WINDOW, clock::get);
+        histogram.record(2_000L);
+        histogram.record(3_000L);
+
+        // Act
+        clock.addAndGet(5 * WINDOW.toNanos());
+        long count = histogram.count();
+        double total = histogram.totalNanos();
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(5_000, total);
+        assertEquals(0, histogram.percentileNanos(0.5));
+        assertEquals(0, histogram.maxNanos());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.cqrsdemo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketOf_ShouldKeepRelativeErrorWithinSubBucketResolution() {
+        for (long value = 0; value < 1_000_000_000L; value = value * 3 / 2 + 1) {
+            // Arrange
+            int bucket = LatencyHistogram.bucketOf(value);
+
+            // Act
+            long upperBound = LatencyHistogram.upperBoundOf(bucket);
+
+            // Assert
+            assertTrue(upperBound >= value, "upper bound below value " + value);
+            assertTrue(upperBound - value <= Math.max(1, value / 32), "bucket too wide for value " + value);
+        }
+    }
+
+    @Test
+    void percentileNanos_ShouldReportQuantilesOfRecordedValues() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        // Act
+        double p50 = histogram.percentileNanos(0.5);
+        double p99 = histogram.percentileNanos(0.99);
+
+        // Assert
+        assertEquals(1000, histogram.count());
+        assertEquals(500_000, p50, 500_000 / 32.0);
+        assertEquals(990_000, p99, 990_000 / 32.0);
+        assertEquals(1_000_000, histogram.maxNanos());
+        assertEquals(1000L * 1001 / 2 * 1_000, histogram.totalNanos());
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.cqrsdemo.query.feed;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeFeedTest {
+
+    private ProductChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void subscriber_ShouldReceiveChangesAsTheyHappen() throws Exception {
+        // Arrange
+        feed = feed(16);
+        CapturingEmitter emitter = new CapturingEmitter(null);
+        feed.subscribe(null, emitter);
+
+        // Act
+        feed.on(new ProductCreatedEvent(product("a", "Mouse")));
+        String created = emitter.next();
+        feed.on(new ProductDeletedEvent("a"));
+        String deleted = emitter.next();
+
+        // Assert
+        assertTrue(created.contains("event:created"));
+        assertTrue(created.contains("\"name\":\"Mouse\""));
+        assertTrue(deleted.contains("id:" + feed.getLastOffset()));
+        assertTrue(deleted.contains("event:deleted"));
+        assertTrue(deleted.contains("\"product\":null"));
+    }
+
+    @Test
+    void slowSubscriber_ShouldReceiveOnlyLatestChangePerProduct() throws Exception {
+        // Arrange
+        feed = feed(16);
+        CountDownLatch release = new CountDownLatch(1);
+        CapturingEmitter emitter = new CapturingEmitter(release);
+        feed.subscribe(null, emitter);
+        feed.on(new ProductCreatedEvent(product("a", "v1")));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+
+        // Act
+        feed.on(new ProductUpdatedEvent(product("a", "v2")));
+        feed.on(new ProductCreatedEvent(product("b", "Teclado")));
+        feed.on(new ProductUpdatedEvent(product("a", "v3")));
+        release.countDown();
+
+        // Assert
+        assertTrue(emitter.next().contains("\"name\":\"v1\""));
+        assertTrue(emitter.next().contains("\"name\":\"Teclado\""));
+        assertTrue(emitter.next().contains("\"name\":\"v3\""));
+        assertNull(emitter.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void bufferOverflow_ShouldReplacePendingChangesWithReset() throws Exception {
+        // Arrange
+        feed = feed(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CapturingEmitter emitter = new CapturingEmitter(release);
+        feed.subscribe(null, emitter);
+        feed.on(new ProductCreatedEvent(product("a", "Mouse")));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+
+        // Act
+        feed.on(new ProductCreatedEvent(product("b", "Teclado")));
+        feed.on(new ProductCreatedEvent(product("c", "Monitor")));
+        feed.on(new ProductCreatedEvent(product("d", "Cabo")));
+        release.countDown();
+
+        // Assert
+        assertTrue(emitter.next().contains("event:created"));
+        String reset = emitter.next();
+        assertTrue(reset.contains("event:reset"));
+        assertTrue(reset.contains("id:" + feed.getLastOffset()));
+        assertNull(emitter.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_ShouldResumeFromHistoryOrResetWhenOffsetIsUnknown() throws Exception {
+        // Arrange
+        feed = feed(16);
+        feed.on(new ProductCreatedEvent(product("a", "Mouse")));
+        long afterFirst = feed.getLastOffset();
+        feed.on(new ProductCreatedEvent(product("b", "Teclado")));
+        feed.on(new ProductUpdatedEvent(product("b", "Teclado sem fio")));
+
+        // Act
+        CapturingEmitter resumed = new CapturingEmitter(null);
+        feed.subscribe(afterFirst, resumed);
+        CapturingEmitter stale = new CapturingEmitter(null);
+        feed.subscribe(afterFirst - 100, stale);
+
+        // Assert
+        String replayed = resumed.next();
+        assertTrue(replayed.contains("id:" + feed.getLastOffset()));
+        assertTrue(replayed.contains("\"name\":\"Teclado sem fio\""));
+        assertTrue(stale.next().contains("event:reset"));
+        assertEquals(2, feed.getSubscriberCount());
+    }
+
+    @Test
+    void idleSubscribers_ShouldNotPinTheVirtualThreadCarriers() throws Exception {
+        // Arrange: mais assinantes ociosos que o limite de 256 carregadoras do escalonador de threads virtuais
+        feed = feed(16);
+        List<CapturingEmitter> emitters = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            CapturingEmitter emitter = new CapturingEmitter(null);
+            feed.subscribe(null, emitter);
+            emitters.add(emitter);
+        }
+        Thread.sleep(200);
+
+        // Act
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread.ofVirtual().start(ran::countDown);
+        feed.on(new ProductCreatedEvent(product("a", "Mouse")));
+
+        // Assert
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        for (CapturingEmitter emitter : emitters) {
+            assertTrue(emitter.next().contains("event:created"));
+        }
+    }
+
+    private static ProductChangeFeed feed(int bufferSize) {
+        return new ProductChangeFeed(new ObjectMapper(), 100, bufferSize, Duration.ofMinutes(1));
+    }
+
+    private static Product product(String id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(10.0);
+        product.setQuantity(1);
+        return product;
+    }
+
+    // Guarda cada evento já formatado; com latch, o primeiro envio fica bloqueado como num cliente lento
+    private static class CapturingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        CapturingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            events.add(builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            return event;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.cqrsdemo.query.handler;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.query.api.GetProductQuery;
+import com.example.cqrsdemo.query.api.GetProductsByIdsQuery;
+import com.example.cqrsdemo.query.api.GetProductsByNamePrefixQuery;
+import com.example.cqrsdemo.query.api.GetProductsPageQuery;
+import com.example.cqrsdemo.query.api.ProductPage;
+import com.example.cqrsdemo.query.api.ProductSortKey;
+import com.example.cqrsdemo.query.api.SearchProductsQuery;
+import com.example.cqrsdemo.query.api.StreamAllProductsQuery;
+import com.example.cqrsdemo.query.projection.OffHeapProductStore;
+import com.example.cqrsdemo.query.projection.ProductReadModel;
+import com.example.cqrsdemo.query.projection.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductQueryHandlerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductReadModel readModel;
+    private ProductSearchIndex searchIndex;
+    private ProductQueryHandler queryHandler;
+
+    @BeforeEach
+    void setUp() {
+        readModel = new ProductReadModel(productRepository, event -> { }, 1);
+        searchIndex = new ProductSearchIndex(readModel);
+        queryHandler = new ProductQueryHandler(readModel, searchIndex, null);
+
+        readModel.on(new ProductCreatedEvent(product("a", "Pear", 3.0)));
+        readModel.on(new ProductCreatedEvent(product("b", "Apple", 5.0)));
+        readModel.on(new ProductCreatedEvent(product("c", "Melon", 1.0)));
+        readModel.on(new ProductCreatedEvent(product("d", "Banana", 5.0)));
+        searchIndex.hydrate();
+    }
+
+    @Test
+    void handleGetProductQuery_ShouldThrowWhenProductIsMissing() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> queryHandler.handle(new GetProductQuery("missing")));
+    }
+
+    @Test
+    void handlePageQuery_ShouldWalkAllPagesInIdOrder() {
+        // Act
+        ProductPage first = queryHandler.handle(new GetProductsPageQuery(3, null, ProductSortKey.ID));
+        ProductPage second = queryHandler.handle(new GetProductsPageQuery(3, first.getNextAfterId(), ProductSortKey.ID));
+
+        // Assert
+        assertEquals(List.of("a", "b", "c"), ids(first));
+        assertEquals("c", first.getNextAfterId());
+        assertEquals(List.of("d"), ids(second));
+        assertNull(second.getNextAfterId());
+    }
+
+    @Test
+    void handlePageQuery_ShouldUseSortKeyWithIdAsTieBreaker() {
+        // Act
+        ProductPage byPrice = queryHandler.handle(new GetProductsPageQuery(10, "a", ProductSortKey.PRICE, null, 3.0));
+        ProductPage byName = queryHandler.handle(new GetProductsPageQuery(2, null, ProductSortKey.NAME));
+
+        // Assert
+        assertEquals(List.of("b", "d"), ids(byPrice));
+        assertEquals(List.of("b", "d"), ids(byName));
+        assertEquals("d", byName.getNextAfterId());
+        assertEquals("Banana", byName.getNextAfterName());
+    }
+
+    @Test
+    void handlePageQuery_ShouldResumeFromCursorValueWhenCursorProductChanges() {
+        // Arrange: ordem por preço c(1), a(3), b(5), d(5)
+        ProductPage first = queryHandler.handle(new GetProductsPageQuery(2, null, ProductSortKey.PRICE));
+        readModel.on(new ProductUpdatedEvent(product("a", "Pear", 9.0)));
+        readModel.on(new ProductDeletedEvent("c"));
+
+        // Act
+        ProductPage second = queryHandler.handle(new GetProductsPageQuery(2, first.getNextAfterId(),
+                ProductSortKey.PRICE, first.getNextAfterName(), first.getNextAfterPrice()));
+
+        // Assert
+        assertEquals(List.of("c", "a"), ids(first));
+        assertEquals(3.0, first.getNextAfterPrice());
+        assertEquals(List.of("b", "d"), ids(second));
+        assertThrows(IllegalArgumentException.class,
+                () -> queryHandler.handle(new GetProductsPageQuery(2, "a", ProductSortKey.PRICE)));
+    }
+
+    @Test
+    void handlePageQuery_ShouldKeepCursorStableWhenEarlierProductsAreDeleted() {
+        // Arrange
+        ProductPage first = queryHandler.handle(new GetProductsPageQuery(2, null, ProductSortKey.ID));
+        readModel.on(new ProductDeletedEvent("a"));
+
+        // Act
+        ProductPage second = queryHandler.handle(new GetProductsPageQuery(2, first.getNextAfterId(), ProductSortKey.ID));
+
+        // Assert
+        assertEquals(List.of("c", "d"), ids(second));
+    }
+
+    @Test
+    void handleSearchQuery_ShouldSkipProductsDeletedAfterIndexing() {
+        // Arrange
+        readModel.on(new ProductDeletedEvent("b"));
+
+        // Act
+        List<Product> deleted = queryHandler.handle(new SearchProductsQuery("apple", 0));
+        List<Product> found = queryHandler.handle(new SearchProductsQuery("ban", 0));
+
+        // Assert
+        assertTrue(deleted.isEmpty());
+        assertEquals(List.of("d"), found.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void handleNamePrefixQuery_ShouldRejectBlankPrefix() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> queryHandler.handle(new GetProductsByNamePrefixQuery(" ")));
+        assertThrows(IllegalArgumentException.class, () -> queryHandler.handle(new GetProductsByNamePrefixQuery(null)));
+        assertEquals(List.of("d"), queryHandler.handle(new GetProductsByNamePrefixQuery("Ba"))
+                .stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void handleStreamQuery_ShouldReturnAllProductsInIdOrder() {
+        // Act
+        List<String> ids;
+        try (Stream<Product> products = queryHandler.handle(new StreamAllProductsQuery())) {
+            ids = products.map(Product::getId).collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(List.of("a", "b", "c", "d"), ids);
+    }
+
+    @Test
+    void handleByIdsQuery_ShouldKeepRequestOrderAndSkipDuplicatesAndMissingIds() {
+        // Act
+        List<Product> products = queryHandler.handle(new GetProductsByIdsQuery(List.of("c", "missing", "a", "c")));
+
+        // Assert
+        assertEquals(List.of("c", "a"), products.stream().map(Product::getId).collect(Collectors.toList()));
+        assertEquals(List.of(), queryHandler.handle(new GetProductsByIdsQuery(List.of())));
+    }
+
+    @Test
+    void handle_ShouldReadFromOffHeapStoreWhenEnabled() {
+        // Arrange
+        OffHeapProductStore store = new OffHeapProductStore(productRepository, DataSize.ofMegabytes(1));
+        store.on(new ProductCreatedEvent(product("a", "Pear", 3.0)));
+        ProductQueryHandler offHeapHandler = new ProductQueryHandler(null, null, store);
+
+        // Act
+        Product found = offHeapHandler.handle(new GetProductQuery("a"));
+
+        // Assert
+        assertEquals("Pear", found.getName());
+        assertEquals(List.of("Pear"), offHeapHandler.handle(new GetProductsByIdsQuery(List.of("missing", "a")))
+                .stream().map(Product::getName).collect(Collectors.toList()));
+        assertThrows(RuntimeException.class, () -> offHeapHandler.handle(new GetProductQuery("missing")));
+    }
+
+    @Test
+    void handlePageAndSearchQueries_ShouldMatchHeapModelWhenOffHeap() {
+        // Arrange
+        OffHeapProductStore store = new OffHeapProductStore(productRepository, DataSize.ofMegabytes(1));
+        readModel.stream().forEach(product -> store.on(new ProductCreatedEvent(product)));
+        ProductQueryHandler offHeapHandler = new ProductQueryHandler(null, null, store);
+
+        for (ProductSortKey sortBy : ProductSortKey.values()) {
+            // Act
+            ProductPage heapFirst = queryHandler.handle(new GetProductsPageQuery(2, null, sortBy));
+            ProductPage offHeapFirst = offHeapHandler.handle(new GetProductsPageQuery(2, null, sortBy));
+            ProductPage offHeapSecond = offHeapHandler.handle(new GetProductsPageQuery(2, offHeapFirst.getNextAfterId(),
+                    sortBy, offHeapFirst.getNextAfterName(), offHeapFirst.getNextAfterPrice()));
+            ProductPage heapSecond = queryHandler.handle(new GetProductsPageQuery(2, heapFirst.getNextAfterId(),
+                    sortBy, heapFirst.getNextAfterName(), heapFirst.getNextAfterPrice()));
+
+            // Assert
+            assertEquals(ids(heapFirst), ids(offHeapFirst), sortBy.name());
+            assertEquals(heapFirst.getNextAfterId(), offHeapFirst.getNextAfterId(), sortBy.name());
+            assertEquals(ids(heapSecond), ids(offHeapSecond), sortBy.name());
+            assertNull(offHeapSecond.getNextAfterId(), sortBy.name());
+        }
+        assertEquals(List.of("d"), offHeapHandler.handle(new SearchProductsQuery("ban", 0))
+                .stream().map(Product::getId).toList());
+        assertTrue(offHeapHandler.handle(new SearchProductsQuery("kiwi", 0)).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> offHeapHandler.handle(new GetProductsPageQuery(2, "a", ProductSortKey.PRICE)));
+    }
+
+    private static List<String> ids(ProductPage page) {
+        return page.getItems().stream().map(Product::getId).collect(Collectors.toList());
+    }
+
+    private static Product product(String id, String name, double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(price);
+        product.setQuantity(1);
+        return product;
+    }
+}
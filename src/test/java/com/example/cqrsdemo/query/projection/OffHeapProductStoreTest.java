@@ -0,0 +1,187 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.query.api.InventoryStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OffHeapProductStoreTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private OffHeapProductStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Slabs pequenos para exercitar a troca de slab e o reaproveitamento de blocos
+        store = new OffHeapProductStore(productRepository, DataSize.ofKilobytes(4));
+    }
+
+    @Test
+    void hydrate_ShouldRoundTripAllFields() {
+        // Arrange
+        Product product = product("9f1c2e4a-0000-4000-8000-000000000001", "Café ☕", 12.5, 3);
+        product.setDescription("Torrado e moído");
+        product.setVersion(4L);
+        Product unnamed = product("ação-2", null, 0, -1);
+        when(productRepository.findAll()).thenReturn(List.of(product, unnamed));
+
+        // Act
+        store.hydrate();
+
+        // Assert
+        assertEquals(2, store.size());
+        assertEquals(product, store.findById(product.getId()).orElseThrow());
+        assertEquals(unnamed, store.findById("ação-2").orElseThrow());
+        assertTrue(store.findById("ação").isEmpty());
+    }
+
+    @Test
+    void onUpdatedEvent_ShouldMoveRecordToLargerBlockAndKeepTheCommittedVersion() {
+        // Arrange
+        Product product = product("a", "Pear", 3.0, 7);
+        product.setVersion(0L);
+        store.on(new ProductCreatedEvent(product));
+
+        // Act
+        Product updated = product("a", "Pear", 4.0, 8);
+        updated.setDescription("x".repeat(1000));
+        updated.setVersion(1L);
+        store.on(new ProductUpdatedEvent(updated));
+
+        // Assert
+        Product view = store.findById("a").orElseThrow();
+        assertEquals(1L, view.getVersion());
+        assertEquals(1000, view.getDescription().length());
+        assertEquals(8, view.getQuantity());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void onDeletedEvent_ShouldKeepIndexConsistentAcrossManyProducts() {
+        // Arrange
+        int count = 5000;
+        for (int i = 0; i < count; i++) {
+            store.on(new ProductCreatedEvent(product("p" + i, "Product " + i, i, i)));
+        }
+
+        // Act
+        for (int i = 0; i < count; i += 2) {
+            store.on(new ProductDeletedEvent("p" + i));
+        }
+        long allocated = store.allocatedBytes();
+        for (int i = 0; i < count; i += 2) {
+            store.on(new ProductCreatedEvent(product("q" + i, "Product " + i, i, i)));
+        }
+
+        // Assert
+        assertEquals(count, store.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 1, store.findById("p" + i).isPresent(), "p" + i);
+        }
+        assertEquals("Product 42", store.findById("q42").orElseThrow().getName());
+        // Os blocos liberados são reaproveitados antes de reservar novos slabs
+        assertEquals(allocated, store.allocatedBytes());
+        assertEquals(count, store.stream().count());
+    }
+
+    @Test
+    void rangeQueries_ShouldFollowReadModelOrdering() {
+        // Arrange
+        store.on(new ProductCreatedEvent(product("a", "Banana", 3.0, 7)));
+        store.on(new ProductCreatedEvent(product("b", "Bag", 5.0, 2)));
+        store.on(new ProductCreatedEvent(product("c", "Apple", 1.0, 9)));
+        store.on(new ProductCreatedEvent(product("d", "Bread", 5.0, 0)));
+
+        // Act & Assert
+        assertEquals(List.of("a", "b", "d"), ids(store.findByPriceBetween(3.0, 5.0, 10)));
+        assertEquals(List.of("d", "b", "a"), ids(store.findByQuantityBelow(8, 10)));
+        assertEquals(List.of("b", "a"), ids(store.findByNamePrefix("Ba", 10)));
+        assertEquals(List.of("a", "b"), ids(store.findByPriceBetween(3.0, 5.0, 2)));
+        assertEquals(List.of("d"), ids(store.findByQuantityBelow(8, 1)));
+        assertEquals(List.of("b"), ids(store.findByNamePrefix("Ba", 1)));
+    }
+
+    @Test
+    void stats_ShouldApplyDeltaForEachEvent() {
+        // Arrange
+        store.on(new ProductCreatedEvent(product("a", "Pear", 0.1, 3)));
+        store.on(new ProductCreatedEvent(product("b", "Apple", 0.2, 7)));
+        store.on(new ProductCreatedEvent(product("c", "Melon", 9.99, 1)));
+
+        // Act
+        store.on(new ProductUpdatedEvent(product("a", "Pear", 0.3, 2)));
+        store.on(new ProductDeletedEvent("c"));
+
+        // Assert
+        InventoryStats stats = store.stats();
+        assertEquals(2, stats.getProductCount());
+        assertEquals(9, stats.getTotalQuantity());
+        assertEquals(0, new BigDecimal("2.0").compareTo(stats.getStockValue()));
+        assertEquals(0.2, stats.getMinPrice());
+        assertEquals(0.3, stats.getMaxPrice());
+    }
+
+    @Test
+    void findById_ShouldNeverSeeTornRecordsDuringConcurrentUpdates() throws Exception {
+        // Arrange
+        store.on(new ProductCreatedEvent(product("a", "v0", 0, 0)));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Act
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i <= 20_000; i++) {
+                    // Nome, preço e quantidade mudam juntos, e o tamanho alterna entre classes de bloco
+                    store.on(new ProductUpdatedEvent(product("a", name(i), i, i)));
+                }
+            });
+            while (!writer.isDone()) {
+                Product read = store.findById("a").orElseThrow();
+
+                // Assert
+                assertEquals(read.getQuantity(), (int) read.getPrice());
+                assertEquals(name(read.getQuantity()), read.getName());
+            }
+            writer.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Product product(String id, String name, double price, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        return product;
+    }
+
+    private static String name(int i) {
+        return "v" + i + (i % 2 == 0 ? "" : "-".repeat(100));
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
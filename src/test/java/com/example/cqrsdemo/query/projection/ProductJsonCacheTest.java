@@ -0,0 +1,137 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.query.api.EncodedProduct;
+import com.example.cqrsdemo.query.api.GetEncodedProductQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductJsonCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ProductReadModel readModel;
+
+    private ProductJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        readModel = new ProductReadModel(productRepository, event -> { }, 1);
+        cache = new ProductJsonCache(readModel, null, objectMapper, true, DataSize.ofBytes(256));
+    }
+
+    @Test
+    void events_ShouldKeepJsonIdenticalToJacksonOutput() throws Exception {
+        // Arrange
+        when(productRepository.findAll()).thenReturn(List.of(product("a", "Mouse", 1L)));
+        readModel.hydrate();
+        cache.hydrate();
+        assertEquals(1L, cache.handle(new GetEncodedProductQuery("a")).version());
+
+        // Act
+        Product updated = product("a", "Mouse sem fio", 2L);
+        cache.on(new ProductUpdatedEvent(updated));
+        EncodedProduct encoded = cache.handle(new GetEncodedProductQuery("a"));
+
+        // Assert
+        assertArrayEquals(objectMapper.writeValueAsBytes(updated), encoded.json());
+        assertEquals(2L, encoded.version());
+    }
+
+    @Test
+    void gzip_ShouldOnlyCompressDocumentsAboveMinimumSize() throws Exception {
+        // Arrange
+        Product large = product("b", "Teclado", 0L);
+        large.setDescription("Teclado mecânico com switches lineares e iluminação. ".repeat(20));
+
+        // Act
+        cache.on(new ProductCreatedEvent(product("a", "Mouse", 0L)));
+        cache.on(new ProductCreatedEvent(large));
+
+        // Assert
+        assertNull(cache.handle(new GetEncodedProductQuery("a")).gzippedJson());
+        EncodedProduct encoded = cache.handle(new GetEncodedProductQuery("b"));
+        assertTrue(encoded.gzippedJson().length < encoded.json().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded.gzippedJson()))) {
+            assertArrayEquals(encoded.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void delete_ShouldRemoveEncodedProduct() {
+        // Arrange
+        cache.on(new ProductCreatedEvent(product("a", "Mouse", 0L)));
+
+        // Act
+        cache.on(new ProductDeletedEvent("a"));
+
+        // Assert
+        assertEquals(0, cache.size());
+        RuntimeException error = assertThrows(RuntimeException.class, () -> cache.handle(new GetEncodedProductQuery("a")));
+        assertEquals("Product not found with id: a", error.getMessage());
+    }
+
+    @Test
+    void blindUpdate_ShouldTakeTheCommittedVersionFromTheEvent() {
+        // Arrange
+        cache.on(new ProductCreatedEvent(product("a", "Mouse", 4L)));
+
+        // Act: o comando leu a versão gravada pelo UPDATE, que não precisa ser a anterior + 1
+        cache.on(new ProductUpdatedEvent(product("a", "Mouse sem fio", 7L)));
+
+        // Assert
+        assertEquals(7L, cache.handle(new GetEncodedProductQuery("a")).version());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void readModelRebuilt_ShouldReloadEntriesFromTheNewView() throws Exception {
+        // Arrange: o cache tem "a" desatualizado e "b", que não existe mais no banco
+        cache.on(new ProductCreatedEvent(product("a", "Mouse", 1L)));
+        cache.on(new ProductCreatedEvent(product("b", "Teclado", 0L)));
+        when(productRepository.findAll()).thenReturn(List.of(product("a", "Mouse sem fio", 3L), product("c", "Monitor", 0L)));
+        ProductReadModel.RebuildResult result = readModel.rebuild(1);
+
+        // Act
+        cache.on(new ProductReadModelRebuiltEvent(result.products()));
+
+        // Assert
+        assertEquals(2, cache.size());
+        EncodedProduct a = cache.handle(new GetEncodedProductQuery("a"));
+        assertEquals("Mouse sem fio", objectMapper.readTree(a.json()).get("name").asText());
+        assertEquals(3L, a.version());
+        assertEquals(0L, cache.handle(new GetEncodedProductQuery("c")).version());
+        assertThrows(RuntimeException.class, () -> cache.handle(new GetEncodedProductQuery("b")));
+    }
+
+    private static Product product(String id, String name, Long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(10.0);
+        product.setQuantity(1);
+        product.setVersion(version);
+        return product;
+    }
+}
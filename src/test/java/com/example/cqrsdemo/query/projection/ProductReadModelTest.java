@@ -0,0 +1,473 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import com.example.cqrsdemo.query.api.InventoryStats;
+import com.example.cqrsdemo.query.api.ProductSortKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductReadModelTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductReadModel readModel;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        readModel = new ProductReadModel(productRepository, event -> { }, 1);
+        product = new Product();
+        product.setId("123");
+        product.setName("Test Product");
+        product.setDescription("Test Description");
+        product.setPrice(100.0);
+        product.setQuantity(10);
+    }
+
+    @Test
+    void hydrate_ShouldLoadCurrentStateFromRepository() {
+        // Arrange
+        when(productRepository.findAll()).thenReturn(List.of(product));
+
+        // Act
+        readModel.hydrate();
+
+        // Assert
+        assertEquals(1, readModel.size());
+        assertEquals("Test Product", readModel.findById("123").orElseThrow().getName());
+    }
+
+    @Test
+    void onCreatedEvent_ShouldStoreCopyOfProduct() {
+        // Act
+        readModel.on(new ProductCreatedEvent(product));
+        product.setName("Changed by write side");
+
+        // Assert
+        Product view = readModel.findById("123").orElseThrow();
+        assertEquals("Test Product", view.getName());
+        assertNotSame(product, view);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void onUpdatedEvent_ShouldReplaceProduct() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product));
+        Product updated = new Product();
+        updated.setId("123");
+        updated.setName("Updated Product");
+        updated.setPrice(150.0);
+        updated.setQuantity(15);
+
+        // Act
+        readModel.on(new ProductUpdatedEvent(updated));
+
+        // Assert
+        Product view = readModel.findById("123").orElseThrow();
+        assertEquals("Updated Product", view.getName());
+        assertEquals(150.0, view.getPrice());
+        assertEquals(1, readModel.findAll().size());
+    }
+
+    @Test
+    void onDeletedEvent_ShouldRemoveProduct() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product));
+
+        // Act
+        readModel.on(new ProductDeletedEvent("123"));
+
+        // Assert
+        assertTrue(readModel.findById("123").isEmpty());
+        assertEquals(0, readModel.size());
+    }
+
+    @Test
+    void hydrate_ShouldNotOverwriteStateAlreadyAppliedFromEvents() {
+        // Arrange
+        Product stale = new Product();
+        stale.setId("123");
+        stale.setName("Stale Product");
+        readModel.on(new ProductCreatedEvent(product));
+        when(productRepository.findAll()).thenReturn(List.of(stale));
+
+        // Act
+        readModel.hydrate();
+
+        // Assert
+        assertEquals("Test Product", readModel.findById("123").orElseThrow().getName());
+    }
+
+    @Test
+    void findByPriceBetween_ShouldIncludeBothBoundsInPriceOrder() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product("a", "Pear", 3.0, 7)));
+        readModel.on(new ProductCreatedEvent(product("b", "Apple", 5.0, 2)));
+        readModel.on(new ProductCreatedEvent(product("c", "Melon", 1.0, 9)));
+        readModel.on(new ProductCreatedEvent(product("d", "Banana", 5.0, 0)));
+
+        // Act
+        List<Product> result = readModel.findByPriceBetween(3.0, 5.0, 10);
+
+        // Assert
+        assertEquals(List.of("a", "b", "d"), ids(result));
+        assertEquals(List.of("a", "b"), ids(readModel.findByPriceBetween(3.0, 5.0, 2)));
+        assertTrue(readModel.findByPriceBetween(5.0, 3.0, 10).isEmpty());
+    }
+
+    @Test
+    void findByQuantityBelow_ShouldFollowUpdatesAndDeletes() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product("a", "Pear", 3.0, 7)));
+        readModel.on(new ProductCreatedEvent(product("b", "Apple", 5.0, 2)));
+        readModel.on(new ProductCreatedEvent(product("c", "Melon", 1.0, 9)));
+
+        // Act
+        readModel.on(new ProductUpdatedEvent(product("c", "Melon", 1.0, 1)));
+        readModel.on(new ProductDeletedEvent("b"));
+
+        // Assert
+        assertEquals(List.of("c"), ids(readModel.findByQuantityBelow(7, 10)));
+        assertEquals(List.of("c", "a"), ids(readModel.findByQuantityBelow(8, 10)));
+        assertEquals(List.of("c"), ids(readModel.findByQuantityBelow(8, 1)));
+    }
+
+    @Test
+    void findByNamePrefix_ShouldReturnMatchingNamesInNameOrder() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product("a", "Banana", 3.0, 7)));
+        readModel.on(new ProductCreatedEvent(product("b", "Bag", 5.0, 2)));
+        readModel.on(new ProductCreatedEvent(product("c", "Apple", 1.0, 9)));
+        readModel.on(new ProductCreatedEvent(product("d", null, 1.0, 9)));
+
+        // Act
+        List<Product> result = readModel.findByNamePrefix("Ba", 10);
+
+        // Assert
+        assertEquals(List.of("b", "a"), ids(result));
+        assertEquals(List.of("b"), ids(readModel.findByNamePrefix("Ba", 1)));
+    }
+
+    @Test
+    void stats_ShouldApplyDeltaForEachEvent() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product("a", "Pear", 0.1, 3)));
+        readModel.on(new ProductCreatedEvent(product("b", "Apple", 0.2, 7)));
+        readModel.on(new ProductCreatedEvent(product("c", "Melon", 9.99, 1)));
+
+        // Act
+        readModel.on(new ProductUpdatedEvent(product("a", "Pear", 0.3, 2)));
+        readModel.on(new ProductDeletedEvent("c"));
+
+        // Assert
+        InventoryStats stats = readModel.stats();
+        assertEquals(2, stats.getProductCount());
+        assertEquals(9, stats.getTotalQuantity());
+        assertEquals(0, new BigDecimal("2.0").compareTo(stats.getStockValue()));
+        assertEquals(0.2, stats.getMinPrice());
+        assertEquals(0.3, stats.getMaxPrice());
+    }
+
+    @Test
+    void stats_ShouldStayExactUnderConcurrentUpdates() throws Exception {
+        // Arrange
+        int threads = 4;
+        int productsPerThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < productsPerThread; i++) {
+                        String id = thread + "-" + i;
+                        readModel.on(new ProductCreatedEvent(product(id, "P", 0.01, 1)));
+                        readModel.on(new ProductUpdatedEvent(product(id, "P", 1.05, 2)));
+                        if (i % 2 == 0) {
+                            readModel.on(new ProductDeletedEvent(id));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        InventoryStats stats = readModel.stats();
+        long remaining = threads * productsPerThread / 2;
+        assertEquals(remaining, stats.getProductCount());
+        assertEquals(remaining * 2, stats.getTotalQuantity());
+        assertEquals(0, BigDecimal.valueOf(remaining * 210, 2).compareTo(stats.getStockValue()));
+    }
+
+    @Test
+    void rebuild_ShouldReplaceViewWithDatabaseStateLoadedInPartitions() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product("stale", "Stale", 1.0, 1)));
+        List<Product> stored = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            stored.add(product("p" + i, "P" + i, 1.5, 2));
+        }
+        when(productRepository.findAll()).thenReturn(stored);
+
+        // Act
+        ProductReadModel.RebuildResult result = readModel.rebuild(4);
+
+        // Assert
+        assertEquals(1000, result.products());
+        assertEquals(4, result.partitions());
+        assertTrue(readModel.findById("stale").isEmpty());
+        assertEquals(1000, readModel.findAll().size());
+        InventoryStats stats = readModel.stats();
+        assertEquals(1000, stats.getProductCount());
+        assertEquals(2000, stats.getTotalQuantity());
+        assertEquals(0, new BigDecimal("3000").compareTo(stats.getStockValue()));
+    }
+
+    @Test
+    void rebuild_ShouldKeepServingReadsAndApplyLiveEventsDuringLoad() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product("a", "A", 1.0, 1)));
+        readModel.on(new ProductCreatedEvent(product("b", "B", 1.0, 1)));
+        when(productRepository.findAll()).thenAnswer(invocation -> {
+            // Eventos que chegam depois da leitura do banco: a leitura ainda traz o estado anterior
+            readModel.on(new ProductDeletedEvent("a"));
+            readModel.on(new ProductUpdatedEvent(product("b", "B v2", 2.0, 3)));
+            readModel.on(new ProductCreatedEvent(product("c", "C", 1.0, 1)));
+            assertEquals("B v2", readModel.findById("b").orElseThrow().getName());
+            return List.of(product("a", "A", 1.0, 1), product("b", "B", 1.0, 1));
+        });
+
+        // Act
+        readModel.rebuild(2);
+
+        // Assert
+        assertTrue(readModel.findById("a").isEmpty());
+        assertEquals("B v2", readModel.findById("b").orElseThrow().getName());
+        assertTrue(readModel.findById("c").isPresent());
+        assertEquals(2, readModel.stats().getProductCount());
+        assertEquals(4, readModel.stats().getTotalQuantity());
+
+        // Depois da troca os eventos seguem para a visão nova
+        readModel.on(new ProductDeletedEvent("c"));
+        assertEquals(1, readModel.size());
+    }
+
+    @Test
+    void shardedModel_ShouldAnswerCrossShardQueriesInGlobalOrder() {
+        // Arrange
+        ProductReadModel sharded = new ProductReadModel(productRepository, event -> { }, 4);
+        List<Product> stored = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            stored.add(product("p" + i, "Name " + (i % 37), (i * 7) % 50, i % 13));
+        }
+        when(productRepository.findAll()).thenReturn(stored);
+
+        // Act
+        sharded.hydrate();
+        sharded.on(new ProductDeletedEvent("p10"));
+        sharded.on(new ProductUpdatedEvent(product("p11", "Renamed", 49.0, 1)));
+
+        // Assert
+        List<Product> byId = sharded.findAll();
+        assertEquals(199, byId.size());
+        assertSorted(byId, ProductReadModel.BY_ID);
+        assertEquals(byId, sharded.stream().toList());
+        assertSorted(sharded.findByPriceBetween(10, 20, 1000), ProductReadModel.BY_PRICE);
+        assertSorted(sharded.findByQuantityBelow(5, 1000), ProductReadModel.BY_QUANTITY);
+        assertEquals(sorted(byId, ProductReadModel.BY_PRICE).subList(0, 5), sharded.findByPriceBetween(0, 50, 5));
+        assertEquals(readAllPages(sharded, ProductSortKey.PRICE), sorted(byId, ProductReadModel.BY_PRICE));
+        assertEquals(readAllPages(sharded, ProductSortKey.NAME), sorted(byId, ProductReadModel.BY_NAME));
+        assertEquals(49.0, sharded.stats().getMaxPrice());
+        assertEquals(199, sharded.stats().getProductCount());
+
+        ProductReadModel.RebuildResult result = sharded.rebuild(2);
+        assertEquals(4, result.partitions());
+        assertEquals(200, result.products());
+    }
+
+    @Test
+    void findPage_WhenCursorLacksTheSortValue_ShouldRejectInsteadOfRestartingFromTheFirstPage() {
+        // Arrange
+        readModel.on(new ProductCreatedEvent(product("a", "A", 1.0, 1)));
+        readModel.on(new ProductCreatedEvent(product("b", "B", 2.0, 1)));
+
+        // Act & Assert
+        IllegalArgumentException byName = assertThrows(IllegalArgumentException.class,
+                () -> readModel.findPage(ProductSortKey.NAME, "a", null, null, 10));
+        assertTrue(byName.getMessage().contains("afterName"));
+        assertThrows(IllegalArgumentException.class, () -> readModel.findPage(ProductSortKey.PRICE, "a", null, null, 10));
+        assertEquals(List.of("b"), readModel.findPage(ProductSortKey.NAME, "a", "A", null, 10).stream()
+                .map(Product::getId).toList());
+    }
+
+    @Test
+    void shardOf_ShouldOnlyMoveProductsToTheNewShardWhenOneIsAdded() {
+        // Arrange
+        int products = 10_000;
+        int moved = 0;
+
+        // Act
+        for (int i = 0; i < products; i++) {
+            String id = "product-" + i;
+            int before = ProductReadModel.shardOf(id, 8);
+            int after = ProductReadModel.shardOf(id, 9);
+            if (before != after) {
+                assertEquals(8, after);
+                moved++;
+            }
+        }
+
+        // Assert: cerca de 1/9 dos produtos
+        assertTrue(moved > products / 12 && moved < products / 7, "moved " + moved);
+    }
+
+    @Test
+    void shardedModel_ShouldKeepStatsExactWithConcurrentPublishers() throws Exception {
+        // Arrange
+        ProductReadModel sharded = new ProductReadModel(productRepository, event -> { }, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        try {
+            List<Future<?>> publishers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                publishers.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        String id = thread + "-" + i;
+                        sharded.on(new ProductCreatedEvent(product(id, "P", 0.01, 1)));
+                        sharded.on(new ProductUpdatedEvent(product(id, "P", 1.05, 2)));
+                        // O evento já foi aplicado quando on retorna
+                        assertEquals(2, sharded.findById(id).orElseThrow().getQuantity());
+                    }
+                }));
+            }
+            for (Future<?> publisher : publishers) {
+                publisher.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        InventoryStats stats = sharded.stats();
+        assertEquals(1000, stats.getProductCount());
+        assertEquals(2000, stats.getTotalQuantity());
+        assertEquals(0, new BigDecimal("2100.00").compareTo(stats.getStockValue()));
+    }
+
+    @Test
+    void shardedModel_ShouldServeConsistentSnapshotsWhileEventsAreApplied() throws Exception {
+        // Arrange: 200 produtos que mudam de preço e quantidade sem parar, sempre dentro da faixa consultada
+        ProductReadModel sharded = new ProductReadModel(productRepository, event -> { }, 4);
+        for (int i = 0; i < 200; i++) {
+            sharded.on(new ProductCreatedEvent(product("p" + i, "P", 1, 1)));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int round = 0; writing.get(); round++) {
+                    for (int i = 0; i < 200; i++) {
+                        sharded.on(new ProductUpdatedEvent(product("p" + i, "P", 1 + (round + i) % 50, 1 + round % 7)));
+                    }
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    // Um produto entre a remoção e a reinserção no índice faltaria ou apareceria duas vezes
+                    List<Product> inRange = sharded.findByPriceBetween(0, 100, 1000);
+                    assertEquals(200, inRange.size());
+                    assertEquals(200, inRange.stream().map(Product::getId).distinct().count());
+                    assertEquals(200, sharded.findPage(ProductSortKey.PRICE, null, null, null, 1000).size());
+                    assertEquals(200, sharded.stats().getProductCount());
+                }
+            });
+            reader.get();
+            writing.set(false);
+            writer.get();
+        } finally {
+            writing.set(false);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void stats_ShouldReportNullPricesWhenEmpty() {
+        // Act
+        InventoryStats stats = readModel.stats();
+
+        // Assert
+        assertEquals(0, stats.getProductCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(stats.getStockValue()));
+        assertNull(stats.getMinPrice());
+        assertNull(stats.getMaxPrice());
+    }
+
+    private static List<Product> readAllPages(ProductReadModel model, ProductSortKey sortBy) {
+        List<Product> all = new ArrayList<>();
+        List<Product> page = model.findPage(sortBy, null, null, null, 16);
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            Product last = page.get(page.size() - 1);
+            page = model.findPage(sortBy, last.getId(), last.getName(), last.getPrice(), 16);
+        }
+        return all;
+    }
+
+    private static List<Product> sorted(List<Product> products, Comparator<Product> order) {
+        List<Product> copy = new ArrayList<>(products);
+        copy.sort(order);
+        return copy;
+    }
+
+    private static void assertSorted(List<Product> products, Comparator<Product> order) {
+        assertFalse(products.isEmpty());
+        assertEquals(sorted(products, order), products);
+    }
+
+    private static Product product(String id, String name, double price, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        return product;
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.cqrsdemo.query.projection;
+
+import com.example.cqrsdemo.domain.model.Product;
+import com.example.cqrsdemo.domain.repository.ProductRepository;
+import com.example.cqrsdemo.event.ProductCreatedEvent;
+import com.example.cqrsdemo.event.ProductDeletedEvent;
+import com.example.cqrsdemo.event.ProductUpdatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex(new ProductReadModel(productRepository, event -> { }, 1));
+    }
+
+    @Test
+    void tokenize_ShouldLowercaseAndStripAccentsAndPunctuation() {
+        assertEquals(List.of("cafe", "com", "acucar", "500g"), ProductSearchIndex.tokenize("Café com AÇÚCAR, 500g!"));
+    }
+
+    @Test
+    void search_ShouldRequireEveryTermAndMatchByPrefix() {
+        // Arrange
+        searchIndex.on(new ProductCreatedEvent(product("a", "Notebook Gamer", "Tela de 15 polegadas")));
+        searchIndex.on(new ProductCreatedEvent(product("b", "Notebook", "Tela de 13 polegadas")));
+        searchIndex.on(new ProductCreatedEvent(product("c", "Monitor", "Tela de 27 polegadas")));
+
+        // Act
+        List<String> result = searchIndex.search("note pol", 10);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.containsAll(List.of("a", "b")));
+        assertEquals(List.of("a"), searchIndex.search("gamer tela", 10));
+    }
+
+    @Test
+    void search_ShouldRankNameAndExactMatchesFirst() {
+        // Arrange
+        searchIndex.on(new ProductCreatedEvent(product("a", "Cabo USB", "Compatível com mouse")));
+        searchIndex.on(new ProductCreatedEvent(product("b", "Mouse sem fio", "Bateria recarregável")));
+        searchIndex.on(new ProductCreatedEvent(product("c", "Mousepad", "Superfície lisa")));
+        searchIndex.on(new ProductCreatedEvent(product("d", "Teclado", "Sem fio")));
+
+        // Act
+        List<String> result = searchIndex.search("mouse", 10);
+
+        // Assert
+        assertEquals(List.of("b", "c", "a"), result);
+        assertEquals(List.of("b"), searchIndex.search("mouse", 1));
+    }
+
+    @Test
+    void events_ShouldUpdateOnlyTheAffectedProduct() {
+        // Arrange
+        searchIndex.on(new ProductCreatedEvent(product("a", "Cadeira", "Madeira")));
+        searchIndex.on(new ProductCreatedEvent(product("b", "Mesa", "Madeira")));
+
+        // Act
+        searchIndex.on(new ProductUpdatedEvent(product("a", "Cadeira", "Metal")));
+        searchIndex.on(new ProductDeletedEvent("b"));
+
+        // Assert
+        assertTrue(searchIndex.search("madeira", 10).isEmpty());
+        assertEquals(List.of("a"), searchIndex.search("metal", 10));
+        assertEquals(1, searchIndex.size());
+    }
+
+    private static Product product(String id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        return product;
+    }
+}